@@ -23,22 +23,31 @@
 package ca.tirelesstraveler.fancywarpmenu;
 
 import ca.tirelesstraveler.fancywarpmenu.commands.FancyWarpMenuCommand;
-import ca.tirelesstraveler.fancywarpmenu.data.layout.Island;
 import ca.tirelesstraveler.fancywarpmenu.data.layout.Layout;
 import ca.tirelesstraveler.fancywarpmenu.data.Settings;
 import ca.tirelesstraveler.fancywarpmenu.listeners.ChatListener;
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache;
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutFileWatcher;
 import ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutLoader;
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.ResourceFingerprints;
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.ResourceLoadingPipeline;
 import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.SkyBlockConstants;
+import ca.tirelesstraveler.fancywarpmenu.gui.GuiFancyWarp;
+import ca.tirelesstraveler.fancywarpmenu.gui.textures.TextureAtlas;
+import ca.tirelesstraveler.fancywarpmenu.gui.textures.TexturePreloader;
+import ca.tirelesstraveler.fancywarpmenu.gui.textures.TextureResidencyManager;
 import ca.tirelesstraveler.fancywarpmenu.listeners.SkyBlockJoinListener;
 import ca.tirelesstraveler.fancywarpmenu.listeners.WarpMenuListener;
 import ca.tirelesstraveler.fancywarpmenu.resourceloaders.SkyBlockConstantsLoader;
 import ca.tirelesstraveler.fancywarpmenu.state.EnvironmentDetails;
 import ca.tirelesstraveler.fancywarpmenu.state.FancyWarpMenuState;
+import ca.tirelesstraveler.fancywarpmenu.state.StateSnapshot;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.texture.TextureManager;
 import net.minecraft.client.resources.IReloadableResourceManager;
 import net.minecraft.client.settings.KeyBinding;
 import net.minecraft.launchwrapper.Launch;
+import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.client.ClientCommandHandler;
 import net.minecraftforge.common.ForgeVersion;
 import net.minecraftforge.common.MinecraftForge;
@@ -54,6 +63,12 @@ import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import org.apache.logging.log4j.Logger;
 import org.lwjgl.input.Keyboard;
 
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
 @Mod(modid = "fancywarpmenu", clientSideOnly = true, useMetadata = true, guiFactory = "ca.tirelesstraveler.fancywarpmenu.gui.FancyWarpMenuGuiFactory", updateJSON = "https://cdn.jsdelivr.net/gh/ILikePlayingGames/FancyWarpMenu@main/version/update.json")
 public class FancyWarpMenu {
     @Mod.Instance("fancywarpmenu")
@@ -62,8 +77,12 @@ public class FancyWarpMenu {
     private static String modId;
     static Logger logger;
     private static ForgeVersion.CheckResult updateCheckResult;
-    private static SkyBlockConstants skyBlockConstants;
     private static KeyBinding keyBindingOpenWarpMenu;
+    private static TexturePreloader texturePreloader;
+    private static TextureResidencyManager textureResidencyManager;
+    private static TextureAtlas textureAtlas;
+    /** Resources being loaded in the background since pre-init, {@code null} once they have been published */
+    private static ResourceLoadingPipeline initialResourceLoad;
 
     public static FancyWarpMenu getInstance() {
         return instance;
@@ -71,7 +90,7 @@ public class FancyWarpMenu {
 
     @Mod.EventHandler
     public void preInit(FMLPreInitializationEvent event) {
-        ProgressManager.ProgressBar bar = ProgressManager.push("Pre-init", 5);
+        ProgressManager.ProgressBar bar = ProgressManager.push("Pre-init", 3);
         EnvironmentDetails.setDeobfuscatedEnvironment((Boolean) Launch.blackboard.get("fml.deobfuscatedEnvironment"));
         modId = event.getModMetadata().modId;
         modContainer = Loader.instance().activeModContainer();
@@ -89,12 +108,10 @@ public class FancyWarpMenu {
         Settings.syncConfig(true);
         logger = event.getModLog();
         event.getModMetadata().version = modContainer.getVersion();
-        bar.step("Loading SkyBlock Constants");
-        skyBlockConstants = SkyBlockConstantsLoader.loadSkyBlockConstants();
-        bar.step("Loading Layout");
-        FancyWarpMenuState.setOverworldLayout(LayoutLoader.loadLayout(LayoutLoader.OVERWORLD_LAYOUT_LOCATION));
-        bar.step("Loading Rift Layout");
-        FancyWarpMenuState.setRiftLayout(LayoutLoader.loadLayout(LayoutLoader.RIFT_LAYOUT_LOCATION));
+        bar.step("Loading Resources");
+        LayoutCache.setCacheDirectory(new File(event.getModConfigurationDirectory(), modId));
+        // Joined in init, where the layouts are first needed
+        initialResourceLoad = ResourceLoadingPipeline.start();
         ProgressManager.pop(bar);
     }
 
@@ -104,21 +121,16 @@ public class FancyWarpMenu {
         keyBindingOpenWarpMenu = new KeyBinding("fancywarpmenu.key.openMenu", Keyboard.KEY_C, "fancywarpmenu.key.categories.fancyWarpMenu");
         ClientRegistry.registerKeyBinding(keyBindingOpenWarpMenu);
         ClientCommandHandler.instance.registerCommand(new FancyWarpMenuCommand());
+        awaitInitialResourceLoad();
 
-        Layout overworldLayout = FancyWarpMenuState.getOverworldLayout();
-        ProgressManager.ProgressBar bar = ProgressManager.push("Loading Textures",
-                overworldLayout.getIslandList().size() + 1);
-        TextureManager textureManager = Minecraft.getMinecraft().getTextureManager();
-
-        for (Island island : overworldLayout.getIslandList()) {
-            bar.step(island.getName());
-            textureManager.bindTexture(island.getTextureLocation());
-        }
-
-        bar.step("Warp Icon");
-        textureManager.bindTexture(overworldLayout.getWarpIcon().getTextureLocation());
-
-        ProgressManager.pop(bar);
+        texturePreloader = new TexturePreloader();
+        MinecraftForge.EVENT_BUS.register(texturePreloader);
+        // Island and background textures are loaded when the warp menu is about to open
+        textureResidencyManager = new TextureResidencyManager(texturePreloader);
+        MinecraftForge.EVENT_BUS.register(textureResidencyManager);
+        // Warp icons and button textures are small, so they're packed into an atlas right away
+        buildTextureAtlas();
+        LayoutFileWatcher.update();
     }
 
     @Mod.EventHandler
@@ -138,32 +150,127 @@ public class FancyWarpMenu {
         return updateCheckResult;
     }
 
-    public void reloadResources() {
-        Minecraft.getMinecraft().refreshResources();
-        reloadSkyBlockConstants();
-        reloadLayouts();
+    /**
+     * Reloads the SkyBlock constants and the layouts whose files or textures changed since they were loaded,
+     * without reloading the rest of the client's resources. Layouts that didn't change are kept, and the open fancy
+     * warp menu switches to the reloaded layout. This must be called on the client thread.
+     *
+     * @param invalidateTextures whether changed textures already loaded by the texture manager should be loaded
+     *                           again. This isn't needed after a full resource reload.
+     */
+    public void reloadChangedResources(boolean invalidateTextures) {
+        awaitInitialResourceLoad();
+        Map<ResourceLocation, ResourceFingerprints.Fingerprint> previousFingerprints = ResourceFingerprints.snapshot();
+
+        if (ResourceFingerprints.hasChanged(SkyBlockConstantsLoader.SKY_BLOCK_CONSTANTS_LOCATION)) {
+            reloadSkyBlockConstants();
+        }
+
+        StateSnapshot state = StateSnapshot.get();
+        Layout reloadedOverworldLayout = LayoutLoader.reloadLayout(LayoutLoader.OVERWORLD_LAYOUT_LOCATION,
+                state.getOverworldLayout());
+        Layout reloadedRiftLayout = LayoutLoader.reloadLayout(LayoutLoader.RIFT_LAYOUT_LOCATION,
+                state.getRiftLayout());
+        Set<ResourceLocation> changedLocations = ResourceFingerprints.getChangedSince(previousFingerprints);
+        logger.debug("Changed resources: {}", changedLocations);
+
+        publishReloadedLayouts(state, reloadedOverworldLayout, reloadedRiftLayout,
+                invalidateTextures ? changedLocations : Collections.emptySet());
+    }
+
+    /**
+     * Replaces the loaded layouts with the results of {@link LayoutLoader#reloadLayout(ResourceLocation, Layout)}.
+     * If a layout was replaced, the button atlas is rebuilt and the open fancy warp menu switches to the new layout.
+     * The layouts are discarded if another reload replaced the layouts they were reloaded from in the meantime.
+     * This must be called on the client thread.
+     *
+     * @param reloadedState the state the layouts were reloaded from
+     * @param overworldLayout the reloaded overworld layout
+     * @param riftLayout the reloaded rift layout
+     * @param changedTextureLocations locations of changed textures to load again if they're already loaded
+     */
+    public void publishReloadedLayouts(StateSnapshot reloadedState, Layout overworldLayout, Layout riftLayout,
+                                       Set<ResourceLocation> changedTextureLocations) {
+        // Changed textures are stale whichever layouts end up published
+        if (textureResidencyManager != null) {
+            textureResidencyManager.invalidate(changedTextureLocations);
+        }
+
+        if (!FancyWarpMenuState.compareAndSetLayouts(reloadedState.getOverworldLayout(), reloadedState.getRiftLayout(),
+                overworldLayout, riftLayout)) {
+            logger.debug("Discarded reloaded layouts since the layouts were replaced during the reload");
+            return;
+        }
+
+        if (overworldLayout != reloadedState.getOverworldLayout() || riftLayout != reloadedState.getRiftLayout()) {
+            buildTextureAtlas();
+
+            if (Minecraft.getMinecraft().currentScreen instanceof GuiFancyWarp) {
+                ((GuiFancyWarp) Minecraft.getMinecraft().currentScreen).reloadLayout();
+            }
+        }
     }
 
     public void reloadSkyBlockConstants() {
-        SkyBlockConstants loadedSkyBlockConstants = SkyBlockConstantsLoader.loadSkyBlockConstants();
+        awaitInitialResourceLoad();
+        SkyBlockConstants loadedSkyBlockConstants = SkyBlockConstantsLoader.loadSkyBlockConstants(false);
 
         // Will be null if json syntax is wrong or SkyBlock constants are invalid
         if (loadedSkyBlockConstants != null) {
-            FancyWarpMenu.skyBlockConstants = loadedSkyBlockConstants;
+            StateSnapshot.update(state -> state.withSkyBlockConstants(loadedSkyBlockConstants));
         }
     }
 
     public void reloadLayouts() {
-        Layout loadedOverworldLayout = LayoutLoader.loadLayout(LayoutLoader.OVERWORLD_LAYOUT_LOCATION);
-        Layout loadedRiftLayout = LayoutLoader.loadLayout(LayoutLoader.RIFT_LAYOUT_LOCATION);
+        awaitInitialResourceLoad();
+        Layout loadedOverworldLayout = LayoutLoader.loadLayout(LayoutLoader.OVERWORLD_LAYOUT_LOCATION, false);
+        Layout loadedRiftLayout = LayoutLoader.loadLayout(LayoutLoader.RIFT_LAYOUT_LOCATION, false);
+
+        // Will be null if json syntax is wrong or layout is invalid, the previous layout is kept in that case
+        StateSnapshot.update(state -> state.withLayouts(
+                loadedOverworldLayout != null ? loadedOverworldLayout : state.getOverworldLayout(),
+                loadedRiftLayout != null ? loadedRiftLayout : state.getRiftLayout()));
 
-        // Will be null if json syntax is wrong or layout is invalid
-        if (loadedOverworldLayout != null) {
-            FancyWarpMenuState.setOverworldLayout(loadedOverworldLayout);
+        buildTextureAtlas();
+    }
+
+    /**
+     * Packs the warp icon and button textures of both layouts into {@link #textureAtlas}, replacing the previous atlas.
+     */
+    private static void buildTextureAtlas() {
+        StateSnapshot state = StateSnapshot.get();
+        Set<ResourceLocation> spriteLocations = new LinkedHashSet<>();
+        spriteLocations.addAll(state.getOverworldLayout().getPersistentTextureLocations());
+
+        // The rift layout is optional, so it's missing if it failed to load
+        if (state.getRiftLayout() != null) {
+            spriteLocations.addAll(state.getRiftLayout().getPersistentTextureLocations());
         }
 
-        if (loadedRiftLayout != null) {
-            FancyWarpMenuState.setRiftLayout(loadedRiftLayout);
+        TextureManager textureManager = Minecraft.getMinecraft().getTextureManager();
+        TextureAtlas newTextureAtlas = new TextureAtlas(spriteLocations);
+        // Free the previous atlas since the texture manager can't unregister it
+        textureManager.deleteTexture(TextureAtlas.BUTTON_ATLAS_LOCATION);
+        textureManager.loadTexture(TextureAtlas.BUTTON_ATLAS_LOCATION, newTextureAtlas);
+        textureAtlas = newTextureAtlas;
+    }
+
+    /**
+     * Waits for the resources started loading in {@link #preInit(FMLPreInitializationEvent)} to finish loading and
+     * publishes them. This must be called before the SkyBlock constants or layouts are first used or reloaded.
+     * Fatal resource loading errors are rethrown here.
+     */
+    private static void awaitInitialResourceLoad() {
+        if (initialResourceLoad != null) {
+            ResourceLoadingPipeline pipeline = initialResourceLoad;
+            initialResourceLoad = null;
+
+            SkyBlockConstants loadedSkyBlockConstants = pipeline.getSkyBlockConstants();
+            Layout loadedOverworldLayout = pipeline.getOverworldLayout();
+            Layout loadedRiftLayout = pipeline.getRiftLayout();
+
+            StateSnapshot.update(state -> state.withSkyBlockConstants(loadedSkyBlockConstants)
+                    .withLayouts(loadedOverworldLayout, loadedRiftLayout));
         }
     }
 
@@ -178,7 +285,19 @@ public class FancyWarpMenu {
         return keyBindingOpenWarpMenu;
     }
 
+    public static TexturePreloader getTexturePreloader() {
+        return texturePreloader;
+    }
+
+    public static TextureResidencyManager getTextureResidencyManager() {
+        return textureResidencyManager;
+    }
+
+    public static TextureAtlas getTextureAtlas() {
+        return textureAtlas;
+    }
+
     public static SkyBlockConstants getSkyBlockConstants() {
-        return skyBlockConstants;
+        return StateSnapshot.get().getSkyBlockConstants();
     }
 }
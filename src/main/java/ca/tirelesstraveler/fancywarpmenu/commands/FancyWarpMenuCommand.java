@@ -24,6 +24,7 @@ package ca.tirelesstraveler.fancywarpmenu.commands;
 
 import ca.tirelesstraveler.fancywarpmenu.data.Settings;
 import ca.tirelesstraveler.fancywarpmenu.state.FancyWarpMenuState;
+import ca.tirelesstraveler.fancywarpmenu.state.WarpAttemptTracker;
 import ca.tirelesstraveler.fancywarpmenu.utils.ChatUtils;
 import net.minecraft.command.*;
 import net.minecraft.util.ChatComponentTranslation;
@@ -32,6 +33,8 @@ import net.minecraft.util.EnumChatFormatting;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * This is the main command of the mod.<br>
@@ -46,6 +49,7 @@ import java.util.List;
  *     <li>(empty) - Open mod config menu</li>
  *     <li>"on" or "1" - Enable Fancy Warp Menu</li>
  *     <li>"off" or "0" - Disable Fancy Warp Menu</li>
+ *     <li>"stats" - Show warp counts and latencies recorded by {@link WarpAttemptTracker}</li>
  * </ul>
  */
 public class FancyWarpMenuCommand extends CommandBase {
@@ -92,6 +96,9 @@ public class FancyWarpMenuCommand extends CommandBase {
                             new ChatComponentTranslation("fancywarpmenu.messages.fancyWarpMenuDisabled")
                                     .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.RED)));
                     break;
+                case "stats":
+                    sendWarpStats();
+                    break;
                 default:
                     throw new SyntaxErrorException();
             }
@@ -99,4 +106,37 @@ public class FancyWarpMenuCommand extends CommandBase {
             FancyWarpMenuState.setOpenConfigMenuRequested(true);
         }
     }
+
+    /**
+     * Sends the warp stats recorded since the game started, grouped by where the warps were started from
+     */
+    private void sendWarpStats() {
+        boolean statsSent = false;
+
+        for (WarpAttemptTracker.WarpSource warpSource : WarpAttemptTracker.WarpSource.values()) {
+            Map<String, WarpAttemptTracker.WarpStats> sourceStats = WarpAttemptTracker.getWarpStats(warpSource);
+
+            if (sourceStats.isEmpty()) {
+                continue;
+            }
+
+            ChatComponentTranslation sourceName = new ChatComponentTranslation(
+                    "fancywarpmenu.messages.warpStats.source." + warpSource.name().toLowerCase(Locale.US));
+            ChatUtils.sendMessageWithModNamePrefix(new ChatComponentTranslation("fancywarpmenu.messages.warpStats.header",
+                    sourceName).setChatStyle(new ChatStyle().setColor(EnumChatFormatting.GOLD)));
+
+            for (Map.Entry<String, WarpAttemptTracker.WarpStats> destinationStats : sourceStats.entrySet()) {
+                WarpAttemptTracker.WarpStats warpStats = destinationStats.getValue();
+                ChatUtils.sendMessageWithModNamePrefix(new ChatComponentTranslation("fancywarpmenu.messages.warpStats.entry",
+                        destinationStats.getKey(), warpStats.getSuccessCount(), warpStats.getFailureCount(),
+                        warpStats.getAverageSuccessMessageLatency(), warpStats.getAverageWorldLoadLatency()));
+            }
+
+            statsSent = true;
+        }
+
+        if (!statsSent) {
+            ChatUtils.sendMessageWithModNamePrefix(new ChatComponentTranslation("fancywarpmenu.messages.warpStats.none"));
+        }
+    }
 }
@@ -54,6 +54,8 @@ public class Settings {
     private static boolean hideUnobtainableWarps;
     private static boolean enableUpdateNotification;
     private static boolean showRegularWarpMenuButton;
+    private static int textureMemoryBudget;
+    private static boolean packetMenuDetection;
 
     // Developer settings
     private static boolean debugModeEnabled;
@@ -96,7 +98,7 @@ public class Settings {
      */
     public static void setConfigPropertyOrder() {
         List<String> generalPropertyOrder = new ArrayList<>();
-        Collections.addAll(generalPropertyOrder, "warpMenuEnabled", "showIslandLabels", "hideWarpLabelsUntilIslandHovered", "hideWarpLabelForIslandsWithOneWarp", "suggestWarpMenuOnWarpCommand", "addWarpCommandToChatHistory", "showJerryIsland", "hideUnobtainableWarps", "enableUpdateNotification", "showRegularWarpMenuButton");
+        Collections.addAll(generalPropertyOrder, "warpMenuEnabled", "showIslandLabels", "hideWarpLabelsUntilIslandHovered", "hideWarpLabelForIslandsWithOneWarp", "suggestWarpMenuOnWarpCommand", "addWarpCommandToChatHistory", "showJerryIsland", "hideUnobtainableWarps", "enableUpdateNotification", "showRegularWarpMenuButton", "textureMemoryBudget", "packetMenuDetection");
 
         List<String> debugPropertyOrder = new ArrayList<>();
         Collections.addAll(debugPropertyOrder, "debugModeEnabled", "showDebugOverlay", "drawBorders", "skipSkyBlockCheck", "alwaysShowJerryIsland");
@@ -153,6 +155,16 @@ public class Settings {
         prop.setLanguageKey(FancyWarpMenu.getFullLanguageKey("config.showRegularWarpMenuButton"));
         showRegularWarpMenuButton = prop.getBoolean(true);
 
+        prop = config.get(CATEGORY_GENERAL, "textureMemoryBudget", 64);
+        prop.setLanguageKey(FancyWarpMenu.getFullLanguageKey("config.textureMemoryBudget"));
+        prop.setMinValue(0);
+        prop.setMaxValue(1024);
+        textureMemoryBudget = prop.getInt(64);
+
+        prop = config.get(CATEGORY_GENERAL, "packetMenuDetection", false);
+        prop.setLanguageKey(FancyWarpMenu.getFullLanguageKey("config.packetMenuDetection"));
+        packetMenuDetection = prop.getBoolean(false);
+
         config.setCategoryRequiresWorldRestart(CATEGORY_GENERAL, false);
 
         /* Debug settings */
@@ -227,6 +239,20 @@ public class Settings {
         return showRegularWarpMenuButton;
     }
 
+    /**
+     * Returns the amount of memory in MB that fancy warp menu textures can use while the menu is closed
+     */
+    public static int getTextureMemoryBudget() {
+        return textureMemoryBudget;
+    }
+
+    /**
+     * Returns whether warp menus should be verified from the server's window packets as they arrive
+     */
+    public static boolean isPacketMenuDetectionEnabled() {
+        return packetMenuDetection;
+    }
+
     public static boolean isDebugModeEnabled() {
         return debugModeEnabled;
     }
@@ -22,10 +22,15 @@
 
 package ca.tirelesstraveler.fancywarpmenu.data.layout;
 
-import net.minecraft.client.gui.GuiScreen;
-import net.minecraft.client.gui.ScaledResolution;
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.ObjectTypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import net.minecraft.util.ResourceLocation;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.ResourceLoader.gson;
 
 /**
@@ -45,10 +50,6 @@ public abstract class Button {
     private transient int textureWidth;
     /** Height of the icon texture in pixels, used to set the height of the button */
     private transient int textureHeight;
-    /** Width of the button in pixels */
-    private transient int width;
-    /** Height of the button in pixels */
-    private transient int height;
 
     Button(){}
 
@@ -66,28 +67,39 @@ public abstract class Button {
         return widthPercentage;
     }
 
-    public int getWidth() {
-        return width;
+    public int getTextureWidth() {
+        return textureWidth;
+    }
+
+    public int getTextureHeight() {
+        return textureHeight;
     }
 
-    public int getHeight() {
-        return height;
+    public void setTextureDimensions(int textureWidth, int textureHeight) {
+        this.textureWidth = textureWidth;
+        this.textureHeight = textureHeight;
     }
 
     /**
-     * Initialize button width and height.
-     * This should be called in {@link GuiScreen#initGui()}.
+     * Writes this button's settings to a {@link ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache} file
      */
-    public void init(ScaledResolution res) {
-        float scaleFactor;
-        width = (int) (res.getScaledWidth() * widthPercentage);
-        scaleFactor = (float) width / textureWidth;
-        height = (int) (textureHeight * scaleFactor);
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(gridX);
+        out.writeInt(gridY);
+        out.writeFloat(widthPercentage);
+        out.writeInt(textureWidth);
+        out.writeInt(textureHeight);
     }
 
-    public void setTextureDimensions(int textureWidth, int textureHeight) {
-        this.textureWidth = textureWidth;
-        this.textureHeight = textureHeight;
+    /**
+     * Reads the settings written by {@link #write(DataOutput)} into this button
+     */
+    void readFields(DataInput in) throws IOException {
+        gridX = in.readInt();
+        gridY = in.readInt();
+        widthPercentage = in.readFloat();
+        textureWidth = in.readInt();
+        textureHeight = in.readInt();
     }
 
     public String toString() {
@@ -95,17 +107,49 @@ public abstract class Button {
     }
 
     public static void validateButton(Button button) {
-        if (button.gridX < 0 || button.gridX > Island.GRID_UNIT_WIDTH_FACTOR) {
-            throw new IllegalArgumentException("Button gridX must be between 0 and " + Island.GRID_UNIT_WIDTH_FACTOR + " inclusive");
+        // The range is checked when the button is read, this catches a missing widthPercentage.
+        // A button width of zero causes a stack overflow
+        if (button.widthPercentage <= 0) {
+            throw new IllegalArgumentException("Button icon widthPercentage must be within the interval (0,1]");
         }
+    }
 
-        if (button.gridY < 0 || button.gridY > Island.GRID_UNIT_HEIGHT_FACTOR) {
-            throw new IllegalArgumentException("Button gridX must be between 0 and " + Island.GRID_UNIT_HEIGHT_FACTOR + " inclusive");
+    /**
+     * Adapter for the fields shared by all buttons. Subclasses create the button instance.
+     */
+    static abstract class Adapter<B extends Button> extends ObjectTypeAdapter<B> {
+        @Override
+        protected void readField(JsonReader reader, String name, B subclassButton) throws IOException {
+            // Private fields can't be accessed through the type variable
+            Button button = subclassButton;
+
+            switch (name) {
+                case "gridX":
+                    button.gridX = nextInt(reader, "Button gridX", 0, Island.GRID_UNIT_WIDTH_FACTOR);
+                    break;
+                case "gridY":
+                    button.gridY = nextInt(reader, "Button gridY", 0, Island.GRID_UNIT_HEIGHT_FACTOR);
+                    break;
+                case "widthPercentage":
+                    button.widthPercentage = nextFloat(reader, "Button widthPercentage", 0, 1);
+
+                    // A button width of zero causes a stack overflow
+                    if (button.widthPercentage == 0) {
+                        throw syntaxError(reader, "Button widthPercentage must be within the interval (0,1]");
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
         }
 
-        // A button width of zero causes a stack overflow
-        if (button.widthPercentage <= 0 || button.widthPercentage > 1) {
-            throw new IllegalArgumentException("Button icon widthPercentage must be within the interval (0,1]");
+        @Override
+        protected void writeFields(JsonWriter writer, B subclassButton) throws IOException {
+            Button button = subclassButton;
+
+            writer.name("gridX").value(button.gridX);
+            writer.name("gridY").value(button.gridY);
+            writer.name("widthPercentage").value(Float.valueOf(button.widthPercentage));
         }
     }
 }
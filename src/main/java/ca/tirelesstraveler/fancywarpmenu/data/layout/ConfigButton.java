@@ -23,11 +23,13 @@
 package ca.tirelesstraveler.fancywarpmenu.data.layout;
 
 import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
+import com.google.gson.TypeAdapter;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.resources.IResource;
 import net.minecraft.util.ResourceLocation;
 import org.apache.commons.io.IOUtils;
 
+import java.io.DataInput;
 import java.io.IOException;
 
 /**
@@ -38,6 +40,13 @@ public class ConfigButton extends Button {
     public static final ResourceLocation TEXTURE_LOCATION = new ResourceLocation(FancyWarpMenu.getInstance().getModId(), "textures/gui/Logo.png");
     /** Overlay texture rendered when mod is outdated */
     public static final ResourceLocation NOTIFICATION_TEXTURE_LOCATION = new ResourceLocation(FancyWarpMenu.getInstance().getModId(), "textures/gui/Notification.png");
+    /** Adapter used to read and write the config button settings in layout files */
+    public static final TypeAdapter<ConfigButton> TYPE_ADAPTER = new Button.Adapter<ConfigButton>() {
+        @Override
+        protected ConfigButton createInstance() {
+            return new ConfigButton();
+        }
+    };
 
     private ConfigButton(){}
 
@@ -45,6 +54,12 @@ public class ConfigButton extends Button {
         return TEXTURE_LOCATION;
     }
 
+    public static ConfigButton read(DataInput in) throws IOException {
+        ConfigButton configButton = new ConfigButton();
+        configButton.readFields(in);
+        return configButton;
+    }
+
     public static void validateConfigButtonIcon(ConfigButton configButton) throws IllegalArgumentException, NullPointerException {
         if (configButton == null) {
             throw new NullPointerException("Config button settings cannot be null");
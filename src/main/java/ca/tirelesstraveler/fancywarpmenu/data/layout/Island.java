@@ -23,15 +23,23 @@
 package ca.tirelesstraveler.fancywarpmenu.data.layout;
 
 import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.ObjectTypeAdapter;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.gui.ScaledResolution;
 import net.minecraft.client.resources.IResource;
 import net.minecraft.util.ResourceLocation;
 import org.apache.commons.io.IOUtils;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
+import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache.readNullableString;
+import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache.writeNullableString;
 import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.ResourceLoader.gson;
 
 /**
@@ -47,6 +55,10 @@ public class Island {
      * Grid unit height is screenHeight / heightFactor
      */
     public static final int GRID_UNIT_HEIGHT_FACTOR = 36;
+    /**
+     * Adapter used to read and write islands in layout files
+     */
+    public static final TypeAdapter<Island> TYPE_ADAPTER = new Adapter();
 
     /**
      * Island name to be displayed below the island button
@@ -84,8 +96,8 @@ public class Island {
     private transient ResourceLocation hoverEffectTextureLocation;
     private transient int textureWidth;
     private transient int textureHeight;
-    private transient int width;
-    private transient int height;
+    /** Width of the hover effect texture, which can have a different resolution than the island texture */
+    private transient int hoverEffectTextureWidth;
 
     private Island() {
     }
@@ -110,14 +122,6 @@ public class Island {
         return warpList;
     }
 
-    public int getWidth() {
-        return width;
-    }
-
-    public int getHeight() {
-        return height;
-    }
-
     public int getGridX() {
         return gridX;
     }
@@ -130,15 +134,24 @@ public class Island {
         return zLevel;
     }
 
-    public int getWarpCount() {
-        return warpList.size();
+    public int getTextureWidth() {
+        return textureWidth;
+    }
+
+    public int getTextureHeight() {
+        return textureHeight;
     }
 
-    public void init(ScaledResolution res) {
-        float scaleFactor;
-        width = (int) (res.getScaledWidth() * widthPercentage);
-        scaleFactor = (float) width / textureWidth;
-        height = (int) (textureHeight * scaleFactor);
+    public int getHoverEffectTextureWidth() {
+        return hoverEffectTextureWidth;
+    }
+
+    public float getWidthPercentage() {
+        return widthPercentage;
+    }
+
+    public int getWarpCount() {
+        return warpList.size();
     }
 
     public void setTextureDimensions(int textureWidth, int textureHeight) {
@@ -146,6 +159,10 @@ public class Island {
         this.textureHeight = textureHeight;
     }
 
+    public void setHoverEffectTextureWidth(int hoverEffectTextureWidth) {
+        this.hoverEffectTextureWidth = hoverEffectTextureWidth;
+    }
+
     public void setTextureLocation() {
         textureLocation = new ResourceLocation(FancyWarpMenu.getInstance().getModId(), texturePath);
     }
@@ -158,6 +175,49 @@ public class Island {
         return gson.toJson(this);
     }
 
+    /**
+     * Writes this island to a {@link ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache} file
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(name);
+        out.writeUTF(texturePath);
+        writeNullableString(out, hoverEffectTexturePath);
+        out.writeInt(gridX);
+        out.writeInt(gridY);
+        out.writeInt(zLevel);
+        out.writeFloat(widthPercentage);
+        out.writeInt(textureWidth);
+        out.writeInt(textureHeight);
+        out.writeInt(hoverEffectTextureWidth);
+        out.writeInt(warpList.size());
+
+        for (Warp warp : warpList) {
+            warp.write(out);
+        }
+    }
+
+    public static Island read(DataInput in) throws IOException {
+        Island island = new Island();
+        island.name = in.readUTF();
+        island.texturePath = in.readUTF();
+        island.hoverEffectTexturePath = readNullableString(in);
+        island.gridX = in.readInt();
+        island.gridY = in.readInt();
+        island.zLevel = in.readInt();
+        island.widthPercentage = in.readFloat();
+        island.textureWidth = in.readInt();
+        island.textureHeight = in.readInt();
+        island.hoverEffectTextureWidth = in.readInt();
+        int warpCount = in.readInt();
+        island.warpList = new ArrayList<>(warpCount);
+
+        for (int i = 0; i < warpCount; i++) {
+            island.warpList.add(Warp.read(in));
+        }
+
+        return island;
+    }
+
     public static void validateIsland(Island island) throws IllegalArgumentException, NullPointerException {
         if (island == null) {
             throw new NullPointerException("Island cannot be null");
@@ -191,30 +251,67 @@ public class Island {
             }
         }
 
-        if (island.gridX < 0 || island.gridX > GRID_UNIT_WIDTH_FACTOR) {
-            throw new IllegalArgumentException(String.format("Island %s gridX is outside screen", name));
-        }
-
-        if (island.gridY < 0 || island.gridY > GRID_UNIT_HEIGHT_FACTOR) {
-            throw new IllegalArgumentException(String.format("Island %s gridY is outside screen", name));
+        if (island.warpList == null || island.warpList.isEmpty()) {
+            throw new IllegalArgumentException(String.format("Island %s has no warps", name));
         }
 
-        if (island.zLevel < 0) {
-            throw new IllegalArgumentException(String.format("Island %s zLevel is outside screen", name));
-        } else if (island.zLevel >= 10) {
-            throw new IllegalArgumentException(String.format("Island %s zLevel is too high. Z levels 10+ are reserved for warp buttons.", name));
+        for (Warp warp : island.warpList) {
+            Warp.validateWarp(warp);
         }
+    }
 
-        if (island.widthPercentage < 0 || island.widthPercentage > 1) {
-            throw new IllegalArgumentException(String.format("Island %s widthPercentage must be between 0 and 1", name));
+    private static class Adapter extends ObjectTypeAdapter<Island> {
+        @Override
+        protected Island createInstance() {
+            return new Island();
         }
 
-        if (island.warpList == null || island.warpList.isEmpty()) {
-            throw new IllegalArgumentException(String.format("Island %s has no warps", name));
+        @Override
+        protected void readField(JsonReader reader, String name, Island island) throws IOException {
+            switch (name) {
+                case "name":
+                    island.name = nextNullableString(reader);
+                    break;
+                case "texturePath":
+                    island.texturePath = nextNullableString(reader);
+                    break;
+                case "hoverEffectTexturePath":
+                    island.hoverEffectTexturePath = nextNullableString(reader);
+                    break;
+                case "gridX":
+                    island.gridX = nextInt(reader, "Island gridX", 0, GRID_UNIT_WIDTH_FACTOR);
+                    break;
+                case "gridY":
+                    island.gridY = nextInt(reader, "Island gridY", 0, GRID_UNIT_HEIGHT_FACTOR);
+                    break;
+                case "zLevel":
+                    island.zLevel = nextInt(reader, "Island zLevel", 0, Integer.MAX_VALUE);
+
+                    if (island.zLevel >= 10) {
+                        throw syntaxError(reader, "Island zLevel is too high. Z levels 10+ are reserved for warp buttons.");
+                    }
+                    break;
+                case "widthPercentage":
+                    island.widthPercentage = nextFloat(reader, "Island widthPercentage", 0, 1);
+                    break;
+                case "warpList":
+                    island.warpList = readList(reader, Warp.TYPE_ADAPTER);
+                    break;
+                default:
+                    reader.skipValue();
+            }
         }
 
-        for (Warp warp : island.warpList) {
-            Warp.validateWarp(warp);
+        @Override
+        protected void writeFields(JsonWriter writer, Island island) throws IOException {
+            writeString(writer, "name", island.name);
+            writeString(writer, "texturePath", island.texturePath);
+            writeString(writer, "hoverEffectTexturePath", island.hoverEffectTexturePath);
+            writer.name("gridX").value(island.gridX);
+            writer.name("gridY").value(island.gridY);
+            writer.name("zLevel").value(island.zLevel);
+            writer.name("widthPercentage").value(Float.valueOf(island.widthPercentage));
+            writeList(writer, "warpList", island.warpList, Warp.TYPE_ADAPTER);
         }
     }
 }
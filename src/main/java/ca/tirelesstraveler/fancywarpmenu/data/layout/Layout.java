@@ -23,18 +23,34 @@
 package ca.tirelesstraveler.fancywarpmenu.data.layout;
 
 import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.ObjectTypeAdapter;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.resources.IResource;
 import net.minecraft.util.ResourceLocation;
 import org.apache.commons.io.IOUtils;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache.readNullableString;
+import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache.writeNullableString;
 import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.ResourceLoader.gson;
 
 @SuppressWarnings("unused")
 public class Layout {
+    /** Adapter used to read and write layout files */
+    public static final TypeAdapter<Layout> TYPE_ADAPTER = new Adapter();
 
     /** Path to the texture to be shown as the background of the fancy warp menu */
     private String backgroundTexturePath;
@@ -46,8 +62,12 @@ public class Layout {
     private ConfigButton configButton;
     /** Position and size settings for the button that turns off the fancy warp menu */
     private RegularWarpMenuButton regularWarpMenuButton;
+    /** Visibility rules for warp tags, added to the built-in tags or replacing the ones with the same name */
+    private List<WarpTag> warpTags;
 
     private transient ResourceLocation backgroundTextureLocation;
+    /** Built-in and layout warp tags, the index of each tag is its bit in {@link Warp#getTagMask()} */
+    private transient WarpTag[] compiledWarpTags;
 
     private Layout(){}
 
@@ -71,6 +91,56 @@ public class Layout {
         return backgroundTextureLocation;
     }
 
+    /**
+     * Returns the built-in and layout warp tags, ordered by their bit in {@link Warp#getTagMask()}
+     */
+    public WarpTag[] getWarpTags() {
+        return compiledWarpTags;
+    }
+
+    /**
+     * Returns the locations of the warp icon and button textures. These are small, so they're kept loaded for the
+     * whole session.
+     * This should be called only after the layout has been loaded.
+     */
+    public Set<ResourceLocation> getPersistentTextureLocations() {
+        Set<ResourceLocation> textureLocations = new LinkedHashSet<>();
+
+        textureLocations.add(warpIcon.getTextureLocation());
+
+        if (warpIcon.getHoverEffectTextureLocation() != null) {
+            textureLocations.add(warpIcon.getHoverEffectTextureLocation());
+        }
+
+        textureLocations.add(configButton.getTextureLocation());
+        textureLocations.add(ConfigButton.NOTIFICATION_TEXTURE_LOCATION);
+        textureLocations.add(regularWarpMenuButton.getTextureLocation());
+
+        return textureLocations;
+    }
+
+    /**
+     * Returns the locations of all the textures drawn by this layout.
+     * This should be called only after the layout has been loaded.
+     */
+    public Set<ResourceLocation> getTextureLocations() {
+        Set<ResourceLocation> textureLocations = getPersistentTextureLocations();
+
+        if (backgroundTextureLocation != null) {
+            textureLocations.add(backgroundTextureLocation);
+        }
+
+        for (Island island : islandList) {
+            textureLocations.add(island.getTextureLocation());
+
+            if (island.getHoverEffectTextureLocation() != null) {
+                textureLocations.add(island.getHoverEffectTextureLocation());
+            }
+        }
+
+        return textureLocations;
+    }
+
     public void setBackgroundTextureLocation() {
         if (backgroundTexturePath != null) {
             backgroundTextureLocation =
@@ -78,6 +148,91 @@ public class Layout {
         }
     }
 
+    /**
+     * Assigns a bit to each warp tag and sets the tag masks of the warps.
+     * This should be called only after the layout has been validated.
+     */
+    public void compileWarpTags() {
+        Map<String, WarpTag> tagsByName = new LinkedHashMap<>();
+
+        for (WarpTag warpTag : WarpTag.getBuiltInTags()) {
+            tagsByName.put(warpTag.getName(), warpTag);
+        }
+
+        if (warpTags != null) {
+            for (WarpTag warpTag : warpTags) {
+                warpTag.compile();
+                tagsByName.put(warpTag.getName(), warpTag);
+            }
+        }
+
+        compiledWarpTags = tagsByName.values().toArray(new WarpTag[0]);
+        Map<String, Integer> tagBits = new HashMap<>();
+
+        for (int i = 0; i < compiledWarpTags.length; i++) {
+            tagBits.put(compiledWarpTags[i].getName(), i);
+        }
+
+        for (Island island : islandList) {
+            for (Warp warp : island.getWarps()) {
+                warp.compileTagMask(tagBits);
+            }
+        }
+    }
+
+    /**
+     * Writes this layout to a {@link ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache} file
+     */
+    public void write(DataOutput out) throws IOException {
+        writeNullableString(out, backgroundTexturePath);
+        out.writeInt(islandList.size());
+
+        for (Island island : islandList) {
+            island.write(out);
+        }
+
+        warpIcon.write(out);
+        configButton.write(out);
+        regularWarpMenuButton.write(out);
+        out.writeInt(warpTags != null ? warpTags.size() : -1);
+
+        if (warpTags != null) {
+            for (WarpTag warpTag : warpTags) {
+                warpTag.write(out);
+            }
+        }
+    }
+
+    /**
+     * Reads a layout written by {@link #write(DataOutput)}. Transient fields other than texture dimensions aren't
+     * cached and have to be set again.
+     */
+    public static Layout read(DataInput in) throws IOException {
+        Layout layout = new Layout();
+        layout.backgroundTexturePath = readNullableString(in);
+        int islandCount = in.readInt();
+        layout.islandList = new ArrayList<>(islandCount);
+
+        for (int i = 0; i < islandCount; i++) {
+            layout.islandList.add(Island.read(in));
+        }
+
+        layout.warpIcon = WarpIcon.read(in);
+        layout.configButton = ConfigButton.read(in);
+        layout.regularWarpMenuButton = RegularWarpMenuButton.read(in);
+        int warpTagCount = in.readInt();
+
+        if (warpTagCount >= 0) {
+            layout.warpTags = new ArrayList<>(warpTagCount);
+
+            for (int i = 0; i < warpTagCount; i++) {
+                layout.warpTags.add(WarpTag.read(in));
+            }
+        }
+
+        return layout;
+    }
+
     public static void validateLayout(Layout layout) throws IllegalArgumentException, NullPointerException {
         if (layout == null) {
             throw new NullPointerException("Layout cannot be null");
@@ -102,6 +257,18 @@ public class Layout {
             Island.validateIsland(island);
         }
 
+        if (layout.warpTags != null) {
+            for (WarpTag warpTag : layout.warpTags) {
+                WarpTag.validateWarpTag(warpTag);
+            }
+
+            // Each tag needs a bit in a warp's tag mask
+            if (layout.warpTags.size() + WarpTag.getBuiltInTags().size() > Long.SIZE) {
+                throw new IllegalArgumentException(String.format("Layouts can't have more than %d warp tags",
+                        Long.SIZE - WarpTag.getBuiltInTags().size()));
+            }
+        }
+
         WarpIcon.validateWarpIcon(layout.getWarpIcon());
         ConfigButton.validateConfigButtonIcon(layout.getConfigButton());
         RegularWarpMenuButton.validateRegularMenuButtonIcon(layout.getRegularWarpMenuButton());
@@ -111,4 +278,60 @@ public class Layout {
     public String toString() {
         return gson.toJson(this);
     }
+
+    private static class Adapter extends ObjectTypeAdapter<Layout> {
+        @Override
+        protected Layout createInstance() {
+            return new Layout();
+        }
+
+        @Override
+        protected void readField(JsonReader reader, String name, Layout layout) throws IOException {
+            switch (name) {
+                case "backgroundTexturePath":
+                    layout.backgroundTexturePath = nextNullableString(reader);
+                    break;
+                case "islandList":
+                    layout.islandList = readList(reader, Island.TYPE_ADAPTER);
+                    break;
+                case "warpIcon":
+                    layout.warpIcon = WarpIcon.TYPE_ADAPTER.read(reader);
+                    break;
+                case "configButton":
+                    layout.configButton = ConfigButton.TYPE_ADAPTER.read(reader);
+                    break;
+                case "regularWarpMenuButton":
+                    layout.regularWarpMenuButton = RegularWarpMenuButton.TYPE_ADAPTER.read(reader);
+                    break;
+                case "warpTags":
+                    layout.warpTags = readList(reader, WarpTag.TYPE_ADAPTER);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        @Override
+        protected void writeFields(JsonWriter writer, Layout layout) throws IOException {
+            writeString(writer, "backgroundTexturePath", layout.backgroundTexturePath);
+            writeList(writer, "islandList", layout.islandList, Island.TYPE_ADAPTER);
+
+            if (layout.warpIcon != null) {
+                writer.name("warpIcon");
+                WarpIcon.TYPE_ADAPTER.write(writer, layout.warpIcon);
+            }
+
+            if (layout.configButton != null) {
+                writer.name("configButton");
+                ConfigButton.TYPE_ADAPTER.write(writer, layout.configButton);
+            }
+
+            if (layout.regularWarpMenuButton != null) {
+                writer.name("regularWarpMenuButton");
+                RegularWarpMenuButton.TYPE_ADAPTER.write(writer, layout.regularWarpMenuButton);
+            }
+
+            writeList(writer, "warpTags", layout.warpTags, WarpTag.TYPE_ADAPTER);
+        }
+    }
 }
@@ -23,11 +23,13 @@
 package ca.tirelesstraveler.fancywarpmenu.data.layout;
 
 import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
+import com.google.gson.TypeAdapter;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.resources.IResource;
 import net.minecraft.util.ResourceLocation;
 import org.apache.commons.io.IOUtils;
 
+import java.io.DataInput;
 import java.io.IOException;
 
 /**
@@ -36,6 +38,13 @@ import java.io.IOException;
 @SuppressWarnings("unused")
 public class RegularWarpMenuButton extends Button {
     public static final ResourceLocation TEXTURE_LOCATION = new ResourceLocation(FancyWarpMenu.getInstance().getModId(), "textures/gui/Regular Warp Menu.png");
+    /** Adapter used to read and write the regular warp menu button settings in layout files */
+    public static final TypeAdapter<RegularWarpMenuButton> TYPE_ADAPTER = new Button.Adapter<RegularWarpMenuButton>() {
+        @Override
+        protected RegularWarpMenuButton createInstance() {
+            return new RegularWarpMenuButton();
+        }
+    };
 
     private RegularWarpMenuButton(){}
 
@@ -43,6 +52,12 @@ public class RegularWarpMenuButton extends Button {
         return TEXTURE_LOCATION;
     }
 
+    public static RegularWarpMenuButton read(DataInput in) throws IOException {
+        RegularWarpMenuButton regularWarpMenuButton = new RegularWarpMenuButton();
+        regularWarpMenuButton.readFields(in);
+        return regularWarpMenuButton;
+    }
+
     public static void validateRegularMenuButtonIcon(RegularWarpMenuButton regularWarpMenuButton) throws IllegalArgumentException, NullPointerException {
         if (regularWarpMenuButton == null) {
             throw new NullPointerException("Regular warp menu button settings cannot be null");
@@ -22,14 +22,23 @@
 
 package ca.tirelesstraveler.fancywarpmenu.data.layout;
 
-import net.minecraft.client.gui.GuiScreen;
-import net.minecraft.client.gui.ScaledResolution;
-import net.minecraft.util.ResourceLocation;
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.ObjectTypeAdapter;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import net.minecraft.util.StringUtils;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
+import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache.readNullableString;
+import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache.readNullableStringList;
+import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache.writeNullableString;
+import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache.writeNullableStringList;
 import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.ResourceLoader.gson;
 
 /**
@@ -42,12 +51,8 @@ public class Warp {
     public static final int GRID_UNIT_WIDTH_FACTOR = 40;
     /** Pattern used to validate tags in {@link Warp#validateWarp(Warp)} */
     private static final Pattern tagValidationPattern = Pattern.compile("[a-z\\d-]");
-    /** Warp button texture, shared between all warp buttons */
-    public static WarpIcon warpIcon;
-    /** Warp button width in pixels, see {@link this#initDefaults(ScaledResolution)} */
-    private static int width;
-    /** Warp button height in pixels, see {@link this#initDefaults(ScaledResolution)} */
-    private static int height;
+    /** Adapter used to read and write warps in layout files */
+    public static final TypeAdapter<Warp> TYPE_ADAPTER = new Adapter();
     /** x-coordinate to draw the warp button at (0-40) */
     private int gridX;
     /** y-coordinate to draw the warp button at (0-40) */
@@ -62,6 +67,8 @@ public class Warp {
     private int slotIndex;
     /** Skips drawing the warp button, useful for islands with only one warp */
     private boolean hideButton;
+    /** Bits of this warp's tags in its layout's warp tag list, see {@link Layout#compileWarpTags()} */
+    private transient long tagMask;
 
     private Warp() {
         slotIndex = -1;
@@ -71,14 +78,6 @@ public class Warp {
         return displayName;
     }
 
-    public ResourceLocation getWarpTextureLocation() {
-        return warpIcon.getTextureLocation();
-    }
-
-    public ResourceLocation getWarpHoverEffectTextureLocation() {
-        return warpIcon.getHoverEffectTextureLocation();
-    }
-
     /**
      * Returns the command the player has to send to use this warp.
      * If the {@code commandName} doesn't start with a '/', "/warp " is prepended.
@@ -95,16 +94,31 @@ public class Warp {
         return tags;
     }
 
-    public int getSlotIndex() {
-        return slotIndex;
+    public long getTagMask() {
+        return tagMask;
     }
 
-    public int getWidth() {
-        return width;
+    /**
+     * Sets the tag mask from the bits assigned to the layout's warp tags. Tags without a bit don't affect visibility.
+     *
+     * @param tagBits bit index of each warp tag by name
+     */
+    public void compileTagMask(Map<String, Integer> tagBits) {
+        tagMask = 0;
+
+        if (tags != null) {
+            for (String tag : tags) {
+                Integer tagBit = tagBits.get(tag);
+
+                if (tagBit != null) {
+                    tagMask |= 1L << tagBit;
+                }
+            }
+        }
     }
 
-    public int getHeight() {
-        return height;
+    public int getSlotIndex() {
+        return slotIndex;
     }
 
     public int getGridX() {
@@ -124,18 +138,28 @@ public class Warp {
     }
 
     /**
-     * Initializes width and height for all warp buttons.
-     * This should be called in {@link GuiScreen#initGui()}.
+     * Writes this warp to a {@link ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache} file
      */
-    public static void initDefaults(ScaledResolution res) {
-        float scaleFactor;
-        width = (int) (res.getScaledWidth() * warpIcon.getWidthPercentage());
-        scaleFactor = (float) width / warpIcon.getTextureWidth();
-        height = (int) (warpIcon.getTextureHeight() * scaleFactor);
-    }
-
-    public static void setWarpIcon(WarpIcon warpIcon) {
-        Warp.warpIcon = warpIcon;
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(gridX);
+        out.writeInt(gridY);
+        out.writeUTF(displayName);
+        writeNullableString(out, commandName);
+        writeNullableStringList(out, tags);
+        out.writeInt(slotIndex);
+        out.writeBoolean(hideButton);
+    }
+
+    public static Warp read(DataInput in) throws IOException {
+        Warp warp = new Warp();
+        warp.gridX = in.readInt();
+        warp.gridY = in.readInt();
+        warp.displayName = in.readUTF();
+        warp.commandName = readNullableString(in);
+        warp.tags = readNullableStringList(in);
+        warp.slotIndex = in.readInt();
+        warp.hideButton = in.readBoolean();
+        return warp;
     }
 
     public static void validateWarp(Warp warp) throws IllegalArgumentException, NullPointerException {
@@ -163,13 +187,52 @@ public class Warp {
                 }
             }
         }
+    }
 
-        if (warp.gridX < 0 || warp.gridX > GRID_UNIT_WIDTH_FACTOR) {
-            throw new IllegalArgumentException(String.format("Warp %s gridX is outside island", name));
+    private static class Adapter extends ObjectTypeAdapter<Warp> {
+        @Override
+        protected Warp createInstance() {
+            return new Warp();
+        }
+
+        @Override
+        protected void readField(JsonReader reader, String name, Warp warp) throws IOException {
+            switch (name) {
+                case "gridX":
+                    warp.gridX = nextInt(reader, "Warp gridX", 0, GRID_UNIT_WIDTH_FACTOR);
+                    break;
+                case "gridY":
+                    warp.gridY = nextInt(reader, "Warp gridY", 0, GRID_UNIT_WIDTH_FACTOR);
+                    break;
+                case "displayName":
+                    warp.displayName = nextNullableString(reader);
+                    break;
+                case "commandName":
+                    warp.commandName = nextNullableString(reader);
+                    break;
+                case "tags":
+                    warp.tags = readStringList(reader);
+                    break;
+                case "slotIndex":
+                    warp.slotIndex = reader.nextInt();
+                    break;
+                case "hideButton":
+                    warp.hideButton = reader.nextBoolean();
+                    break;
+                default:
+                    reader.skipValue();
+            }
         }
 
-        if (warp.gridY < 0 || warp.gridY > GRID_UNIT_WIDTH_FACTOR) {
-            throw new IllegalArgumentException(String.format("Warp %s gridY is outside island", name));
+        @Override
+        protected void writeFields(JsonWriter writer, Warp warp) throws IOException {
+            writer.name("gridX").value(warp.gridX);
+            writer.name("gridY").value(warp.gridY);
+            writeString(writer, "displayName", warp.displayName);
+            writeString(writer, "commandName", warp.commandName);
+            writeStringList(writer, "tags", warp.tags);
+            writer.name("slotIndex").value(warp.slotIndex);
+            writer.name("hideButton").value(warp.hideButton);
         }
     }
 }
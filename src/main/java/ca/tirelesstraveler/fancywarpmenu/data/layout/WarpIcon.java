@@ -23,13 +23,21 @@
 package ca.tirelesstraveler.fancywarpmenu.data.layout;
 
 import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.ObjectTypeAdapter;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.resources.IResource;
 import net.minecraft.util.ResourceLocation;
 import org.apache.commons.io.IOUtils;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 
+import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache.readNullableString;
+import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache.writeNullableString;
 import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.ResourceLoader.gson;
 
 /**
@@ -37,6 +45,8 @@ import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.ResourceLoader.g
  */
 @SuppressWarnings("unused")
 public class WarpIcon {
+    /** Adapter used to read and write the warp icon in layout files */
+    public static final TypeAdapter<WarpIcon> TYPE_ADAPTER = new Adapter();
     /** Path to the warp button texture relative to {@code resources/assets/fancywarpmenu} */
     private String texturePath;
     /** Path to the texture to be drawn on top of the button texture when the button is hovered, relative to {@code resources/assets/fancywarpmenu} */
@@ -89,6 +99,27 @@ public class WarpIcon {
         return gson.toJson(this);
     }
 
+    /**
+     * Writes this warp icon to a {@link ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache} file
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(texturePath);
+        writeNullableString(out, hoverEffectTexturePath);
+        out.writeFloat(widthPercentage);
+        out.writeInt(textureWidth);
+        out.writeInt(textureHeight);
+    }
+
+    public static WarpIcon read(DataInput in) throws IOException {
+        WarpIcon warpIcon = new WarpIcon();
+        warpIcon.texturePath = in.readUTF();
+        warpIcon.hoverEffectTexturePath = readNullableString(in);
+        warpIcon.widthPercentage = in.readFloat();
+        warpIcon.textureWidth = in.readInt();
+        warpIcon.textureHeight = in.readInt();
+        return warpIcon;
+    }
+
     public static void validateWarpIcon(WarpIcon warpIcon) throws IllegalArgumentException, NullPointerException {
         if (warpIcon == null) {
             throw new NullPointerException("Warp icon cannot be null");
@@ -105,9 +136,36 @@ public class WarpIcon {
         } catch (IOException e) {
             throw new RuntimeException(String.format("Warp icon texture not found at %s", textureLocation));
         }
+    }
+
+    private static class Adapter extends ObjectTypeAdapter<WarpIcon> {
+        @Override
+        protected WarpIcon createInstance() {
+            return new WarpIcon();
+        }
+
+        @Override
+        protected void readField(JsonReader reader, String name, WarpIcon warpIcon) throws IOException {
+            switch (name) {
+                case "texturePath":
+                    warpIcon.texturePath = nextNullableString(reader);
+                    break;
+                case "hoverEffectTexturePath":
+                    warpIcon.hoverEffectTexturePath = nextNullableString(reader);
+                    break;
+                case "widthPercentage":
+                    warpIcon.widthPercentage = nextFloat(reader, "Warp icon widthPercentage", 0, 1);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
 
-        if (warpIcon.widthPercentage < 0 || warpIcon.widthPercentage > 1) {
-            throw new IllegalArgumentException("Warp icon widthPercentage must be between 0 and 1");
+        @Override
+        protected void writeFields(JsonWriter writer, WarpIcon warpIcon) throws IOException {
+            writeString(writer, "texturePath", warpIcon.texturePath);
+            writeString(writer, "hoverEffectTexturePath", warpIcon.hoverEffectTexturePath);
+            writer.name("widthPercentage").value(Float.valueOf(warpIcon.widthPercentage));
         }
     }
 }
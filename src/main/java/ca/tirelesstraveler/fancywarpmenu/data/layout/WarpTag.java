@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.data.layout;
+
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.ObjectTypeAdapter;
+import ca.tirelesstraveler.fancywarpmenu.utils.VisibilityCondition;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache.readNullableStringList;
+import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache.writeNullableStringList;
+import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.ResourceLoader.gson;
+
+/**
+ * Visibility rule for warps with a given tag. Layouts can add tags or replace the built-in ones with a {@code warpTags}
+ * list. Conditions are names of {@link VisibilityCondition}s, a condition starting with '!' must be false.
+ * <p>
+ * Warps with the tag are shown when all the {@code showWhen} conditions are met, or when the {@code alwaysShowWhen}
+ * list isn't empty and all its conditions are met.
+ */
+@SuppressWarnings({"unused", "FieldMayBeFinal"})
+public class WarpTag {
+    /** Adapter used to read and write warp tags in layout files */
+    public static final TypeAdapter<WarpTag> TYPE_ADAPTER = new Adapter();
+    /** Tags that are always available, layouts can replace these by adding a tag with the same name */
+    private static final List<WarpTag> BUILT_IN_TAGS = Collections.unmodifiableList(Arrays.asList(
+            new WarpTag("bingo", Collections.singletonList("!hideUnobtainableWarps"), null),
+            new WarpTag("jerry", Arrays.asList("showJerryIsland", "winter", "lateSeason"),
+                    Collections.singletonList("alwaysShowJerryIsland"))
+    ));
+
+    /** Name of the tag as used in the {@code tags} list of warps */
+    private String name;
+    /** Conditions that must all be met for warps with this tag to be shown */
+    private List<String> showWhen;
+    /** Conditions that show warps with this tag regardless of {@code showWhen} when all are met */
+    private List<String> alwaysShowWhen;
+
+    private transient long showWhenTrueMask;
+    private transient long showWhenFalseMask;
+    private transient long alwaysShowWhenTrueMask;
+    private transient long alwaysShowWhenFalseMask;
+
+    private WarpTag() {
+    }
+
+    private WarpTag(String name, List<String> showWhen, List<String> alwaysShowWhen) {
+        this.name = name;
+        this.showWhen = showWhen;
+        this.alwaysShowWhen = alwaysShowWhen;
+        compile();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public static List<WarpTag> getBuiltInTags() {
+        return BUILT_IN_TAGS;
+    }
+
+    /**
+     * Converts the condition names into masks checked by {@link #isVisible(long)}.
+     * This should be called after the tag has been validated.
+     */
+    public void compile() {
+        long[] masks = new long[2];
+
+        compileConditions(showWhen, masks);
+        showWhenTrueMask = masks[0];
+        showWhenFalseMask = masks[1];
+
+        masks[0] = 0;
+        masks[1] = 0;
+        compileConditions(alwaysShowWhen, masks);
+        alwaysShowWhenTrueMask = masks[0];
+        alwaysShowWhenFalseMask = masks[1];
+    }
+
+    /**
+     * Checks if warps with this tag should be shown
+     *
+     * @param conditionMask mask of the conditions that are currently true, from {@link VisibilityCondition#evaluateAll()}
+     * @return {@code true} if warps with this tag should be visible, {@code false} if they should be hidden
+     */
+    public boolean isVisible(long conditionMask) {
+        if (alwaysShowWhen != null && !alwaysShowWhen.isEmpty()
+                && conditionsMet(conditionMask, alwaysShowWhenTrueMask, alwaysShowWhenFalseMask)) {
+            return true;
+        }
+
+        return conditionsMet(conditionMask, showWhenTrueMask, showWhenFalseMask);
+    }
+
+    /**
+     * Writes this tag to a {@link ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache} file
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(name);
+        writeNullableStringList(out, showWhen);
+        writeNullableStringList(out, alwaysShowWhen);
+    }
+
+    /**
+     * Reads a tag written by {@link #write(DataOutput)}. The tag has to be compiled before it's used.
+     */
+    public static WarpTag read(DataInput in) throws IOException {
+        WarpTag warpTag = new WarpTag();
+        warpTag.name = in.readUTF();
+        warpTag.showWhen = readNullableStringList(in);
+        warpTag.alwaysShowWhen = readNullableStringList(in);
+        return warpTag;
+    }
+
+    @Override
+    public String toString() {
+        return gson.toJson(this);
+    }
+
+    private static boolean conditionsMet(long conditionMask, long trueMask, long falseMask) {
+        return (conditionMask & trueMask) == trueMask && (conditionMask & falseMask) == 0;
+    }
+
+    /**
+     * Sets the bits of the given conditions in {@code masks[0]}, or {@code masks[1]} for negated conditions
+     */
+    private static void compileConditions(List<String> conditions, long[] masks) {
+        if (conditions != null) {
+            for (String condition : conditions) {
+                boolean negated = condition.startsWith("!");
+                VisibilityCondition visibilityCondition =
+                        VisibilityCondition.fromName(negated ? condition.substring(1) : condition);
+
+                masks[negated ? 1 : 0] |= visibilityCondition.getMask();
+            }
+        }
+    }
+
+    public static void validateWarpTag(WarpTag warpTag) throws IllegalArgumentException, NullPointerException {
+        if (warpTag == null) {
+            throw new NullPointerException("Warp tag cannot be null");
+        }
+
+        if (warpTag.name == null) {
+            throw new IllegalArgumentException(String.format("The following warp tag lacks a name: %s", warpTag));
+        }
+
+    }
+
+    private static class Adapter extends ObjectTypeAdapter<WarpTag> {
+        @Override
+        protected WarpTag createInstance() {
+            return new WarpTag();
+        }
+
+        @Override
+        protected void readField(JsonReader reader, String name, WarpTag warpTag) throws IOException {
+            switch (name) {
+                case "name":
+                    warpTag.name = nextNullableString(reader);
+                    break;
+                case "showWhen":
+                    warpTag.showWhen = readConditions(reader);
+                    break;
+                case "alwaysShowWhen":
+                    warpTag.alwaysShowWhen = readConditions(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        @Override
+        protected void writeFields(JsonWriter writer, WarpTag warpTag) throws IOException {
+            writeString(writer, "name", warpTag.name);
+            writeStringList(writer, "showWhen", warpTag.showWhen);
+            writeStringList(writer, "alwaysShowWhen", warpTag.alwaysShowWhen);
+        }
+
+        private static List<String> readConditions(JsonReader reader) throws IOException {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return null;
+            }
+
+            List<String> conditions = new ArrayList<>();
+            reader.beginArray();
+
+            while (reader.hasNext()) {
+                String condition = reader.nextString();
+
+                if (VisibilityCondition.fromName(condition.startsWith("!") ? condition.substring(1) : condition) == null) {
+                    throw syntaxError(reader, String.format("Unknown warp tag condition \"%s\"", condition));
+                }
+
+                conditions.add(condition);
+            }
+
+            reader.endArray();
+            return conditions;
+        }
+    }
+}
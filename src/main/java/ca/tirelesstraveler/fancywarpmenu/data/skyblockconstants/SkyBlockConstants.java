@@ -24,8 +24,16 @@ package ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants;
 
 import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.ItemMatchCondition;
 import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.Menu;
+import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.MenuMatcher;
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.ObjectTypeAdapter;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
@@ -34,9 +42,13 @@ import static ca.tirelesstraveler.fancywarpmenu.resourceloaders.ResourceLoader.g
 @SuppressWarnings("unused")
 public class SkyBlockConstants {
     public static final String WARP_COMMAND_BASE = "/warp";
+    /** Adapter used to read and write the SkyBlock constants file */
+    public static final TypeAdapter<SkyBlockConstants> TYPE_ADAPTER = new Adapter();
 
     /** Map of match conditions used to identify SkyBlock menus */
     private Map<Menu, List<ItemMatchCondition>> menuMatchingMap;
+    /** Matcher compiled from {@code menuMatchingMap} by {@link #buildMenuMatcher()}, not serialized */
+    private transient MenuMatcher menuMatcher;
 
     /** Chat messages sent by the server when a warp attempt succeeds or fails */
     private WarpMessages warpMessages;
@@ -52,6 +64,10 @@ public class SkyBlockConstants {
         return menuMatchingMap;
     }
 
+    public MenuMatcher getMenuMatcher() {
+        return menuMatcher;
+    }
+
     /**
      * Returns the inventory slot index of the last {@link ItemMatchCondition} for the given {@link Menu}.
      *
@@ -59,9 +75,15 @@ public class SkyBlockConstants {
      * @return the inventory slot index of the last {@code ItemMatchCondition} for the given {@code Menu}
      */
     public int getLastMatchConditionInventorySlotIndex(Menu menu) {
-        List<ItemMatchCondition> matchConditions = menuMatchingMap.get(menu);
+        return menuMatcher.getLastSlotIndexToCheck(menu);
+    }
 
-        return matchConditions.get(matchConditions.size() - 1).getInventorySlotIndex();
+    /**
+     * Builds the {@link MenuMatcher} used to identify menus. This should be called once after the constants are
+     * deserialized, their match conditions are sorted, and they pass validation.
+     */
+    public void buildMenuMatcher() {
+        menuMatcher = new MenuMatcher(menuMatchingMap);
     }
 
     public WarpMessages getWarpMessages() {
@@ -118,4 +140,76 @@ public class SkyBlockConstants {
         }
         return matchConditions;
     }
+
+    private static class Adapter extends ObjectTypeAdapter<SkyBlockConstants> {
+        @Override
+        protected SkyBlockConstants createInstance() {
+            return new SkyBlockConstants();
+        }
+
+        @Override
+        protected void readField(JsonReader reader, String name, SkyBlockConstants skyBlockConstants) throws IOException {
+            switch (name) {
+                case "menuMatchingMap":
+                    skyBlockConstants.menuMatchingMap = readMenuMatchingMap(reader);
+                    break;
+                case "warpMessages":
+                    skyBlockConstants.warpMessages = WarpMessages.TYPE_ADAPTER.read(reader);
+                    break;
+                case "warpCommandVariants":
+                    skyBlockConstants.warpCommandVariants = readList(reader, WarpCommandVariant.TYPE_ADAPTER);
+                    break;
+                case "skyBlockJoinMessage":
+                    skyBlockConstants.skyBlockJoinMessage = nextNullableString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        @Override
+        protected void writeFields(JsonWriter writer, SkyBlockConstants skyBlockConstants) throws IOException {
+            if (skyBlockConstants.menuMatchingMap != null) {
+                writer.name("menuMatchingMap").beginObject();
+
+                for (Map.Entry<Menu, List<ItemMatchCondition>> menuMatchingMapEntry : skyBlockConstants.menuMatchingMap.entrySet()) {
+                    writeList(writer, menuMatchingMapEntry.getKey().name(), menuMatchingMapEntry.getValue(),
+                            ItemMatchCondition.TYPE_ADAPTER);
+                }
+
+                writer.endObject();
+            }
+
+            if (skyBlockConstants.warpMessages != null) {
+                writer.name("warpMessages");
+                WarpMessages.TYPE_ADAPTER.write(writer, skyBlockConstants.warpMessages);
+            }
+
+            writeList(writer, "warpCommandVariants", skyBlockConstants.warpCommandVariants, WarpCommandVariant.TYPE_ADAPTER);
+            writeString(writer, "skyBlockJoinMessage", skyBlockConstants.skyBlockJoinMessage);
+        }
+
+        private static Map<Menu, List<ItemMatchCondition>> readMenuMatchingMap(JsonReader reader) throws IOException {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return null;
+            }
+
+            Map<Menu, List<ItemMatchCondition>> menuMatchingMap = new EnumMap<>(Menu.class);
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                Menu menu = parseEnum(reader, Menu.class, reader.nextName());
+
+                if (menuMatchingMap.containsKey(menu)) {
+                    throw syntaxError(reader, String.format("Menu %s has more than one match condition list", menu.name()));
+                }
+
+                menuMatchingMap.put(menu, readList(reader, ItemMatchCondition.TYPE_ADAPTER));
+            }
+
+            reader.endObject();
+            return menuMatchingMap;
+        }
+    }
 }
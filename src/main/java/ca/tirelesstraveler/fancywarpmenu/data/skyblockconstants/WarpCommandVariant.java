@@ -22,8 +22,18 @@
 
 package ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants;
 
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.ObjectTypeAdapter;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
 @SuppressWarnings("unused")
 public class WarpCommandVariant {
+    /** Adapter used to read and write warp command variants in the SkyBlock constants file */
+    public static final TypeAdapter<WarpCommandVariant> TYPE_ADAPTER = new Adapter();
+
     private String command;
     private WarpCommandType type;
 
@@ -62,4 +72,34 @@ public class WarpCommandVariant {
             throw new NullPointerException("Warp command variant's command type cannot be null");
         }
     }
+
+    private static class Adapter extends ObjectTypeAdapter<WarpCommandVariant> {
+        @Override
+        protected WarpCommandVariant createInstance() {
+            return new WarpCommandVariant();
+        }
+
+        @Override
+        protected void readField(JsonReader reader, String name, WarpCommandVariant warpCommandVariant) throws IOException {
+            switch (name) {
+                case "command":
+                    warpCommandVariant.command = nextNullableString(reader);
+                    break;
+                case "type":
+                    warpCommandVariant.type = parseEnum(reader, WarpCommandType.class, reader.nextString());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        @Override
+        protected void writeFields(JsonWriter writer, WarpCommandVariant warpCommandVariant) throws IOException {
+            writeString(writer, "command", warpCommandVariant.command);
+
+            if (warpCommandVariant.type != null) {
+                writer.name("type").value(warpCommandVariant.type.name());
+            }
+        }
+    }
 }
@@ -22,14 +22,29 @@
 
 package ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants;
 
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.ObjectTypeAdapter;
+import ca.tirelesstraveler.fancywarpmenu.utils.ChatMessageMatcher;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import net.minecraft.util.IChatComponent;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 @SuppressWarnings("unused")
 public class WarpMessages {
+    /** Adapter used to read and write warp messages in the SkyBlock constants file */
+    public static final TypeAdapter<WarpMessages> TYPE_ADAPTER = new Adapter();
+
     private List<String> warpSuccessMessages;
     /** key: chat message, value: translation key of message to show in warp menu */
     private Map<String, String> warpFailMessages;
+    /** Matcher for all the success and fail messages, built by {@link #buildMessageMatcher()}, not serialized */
+    private transient ChatMessageMatcher<WarpMessage> messageMatcher;
 
     private WarpMessages() {
     }
@@ -42,6 +57,37 @@ public class WarpMessages {
         return warpFailMessages;
     }
 
+    /**
+     * Builds the matcher used by {@link #matchMessage(IChatComponent)}. Messages are matched if a chat message
+     * starts with them, so they still match when the server adds text to the end of them.
+     * This should be called once after the warp messages pass validation.
+     */
+    public void buildMessageMatcher() {
+        ChatMessageMatcher<WarpMessage> matcher = new ChatMessageMatcher<>();
+
+        for (String successMessage : warpSuccessMessages) {
+            matcher.addPattern(successMessage, ChatMessageMatcher.MatchType.PREFIX, new WarpMessage(true, null));
+        }
+
+        for (Map.Entry<String, String> failMessage : warpFailMessages.entrySet()) {
+            matcher.addPattern(failMessage.getKey(), ChatMessageMatcher.MatchType.PREFIX,
+                    new WarpMessage(false, failMessage.getValue()));
+        }
+
+        matcher.compile();
+        messageMatcher = matcher;
+    }
+
+    /**
+     * Checks if a chat message is a warp success or fail message. This must be called on the client thread.
+     *
+     * @param message the chat message
+     * @return the matching warp message, or {@code null} if the chat message isn't a warp message
+     */
+    public WarpMessage matchMessage(IChatComponent message) {
+        return messageMatcher.match(message);
+    }
+
     public static void validateWarpMessages(WarpMessages warpMessages) throws IllegalArgumentException, NullPointerException {
         if (warpMessages == null) {
             throw new NullPointerException("Warp messages cannot be null");
@@ -57,4 +103,85 @@ public class WarpMessages {
             throw new IllegalArgumentException("Warp fail message list cannot be empty");
         }
     }
+
+    private static class Adapter extends ObjectTypeAdapter<WarpMessages> {
+        @Override
+        protected WarpMessages createInstance() {
+            return new WarpMessages();
+        }
+
+        @Override
+        protected void readField(JsonReader reader, String name, WarpMessages warpMessages) throws IOException {
+            switch (name) {
+                case "warpSuccessMessages":
+                    warpMessages.warpSuccessMessages = readStringList(reader);
+                    break;
+                case "warpFailMessages":
+                    warpMessages.warpFailMessages = readFailMessages(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        @Override
+        protected void writeFields(JsonWriter writer, WarpMessages warpMessages) throws IOException {
+            writeStringList(writer, "warpSuccessMessages", warpMessages.warpSuccessMessages);
+
+            if (warpMessages.warpFailMessages != null) {
+                writer.name("warpFailMessages").beginObject();
+
+                for (Map.Entry<String, String> failMessage : warpMessages.warpFailMessages.entrySet()) {
+                    writer.name(failMessage.getKey()).value(failMessage.getValue());
+                }
+
+                writer.endObject();
+            }
+        }
+
+        private static Map<String, String> readFailMessages(JsonReader reader) throws IOException {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return null;
+            }
+
+            Map<String, String> failMessages = new LinkedHashMap<>();
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                String message = reader.nextName();
+
+                if (failMessages.put(message, reader.nextString()) != null) {
+                    throw syntaxError(reader, String.format("Duplicate warp fail message \"%s\"", message));
+                }
+            }
+
+            reader.endObject();
+            return failMessages;
+        }
+    }
+
+    /**
+     * A warp success or fail message matched by {@link #matchMessage(IChatComponent)}
+     */
+    public static class WarpMessage {
+        private final boolean success;
+        private final String failMessageKey;
+
+        private WarpMessage(boolean success, String failMessageKey) {
+            this.success = success;
+            this.failMessageKey = failMessageKey;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        /**
+         * Returns the translation key of the message to show in the warp menu, or {@code null} for success messages
+         */
+        public String getFailMessageKey() {
+            return failMessageKey;
+        }
+    }
 }
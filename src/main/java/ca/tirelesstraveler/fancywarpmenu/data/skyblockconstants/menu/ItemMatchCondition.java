@@ -22,7 +22,13 @@
 
 package ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu;
 
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.ObjectTypeAdapter;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import net.minecraft.inventory.IInventory;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
@@ -31,7 +37,12 @@ import net.minecraftforge.common.util.Constants;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -41,6 +52,8 @@ import java.util.regex.Pattern;
 @SuppressWarnings({"FieldMayBeFinal", "FieldCanBeLocal", "unused", "MismatchedQueryAndUpdateOfCollection"})
 public class ItemMatchCondition {
     public static final Logger logger = LogManager.getLogger();
+    /** Adapter used to read and write match conditions in the SkyBlock constants file */
+    public static final TypeAdapter<ItemMatchCondition> TYPE_ADAPTER = new Adapter();
 
     /**
      * Display name of the {@code ItemStack} (excluding formatting codes).
@@ -82,11 +95,26 @@ public class ItemMatchCondition {
     private List<String> skyBlockItemIDs;
 
     /**
-     * Pattern to test against the item's lore.
+     * Pattern to test against the item's lore, given as a regex string or as an object with {@code pattern} and {@code flags}.
      * Note the lore will be combined into one string with lines separated by {@code \n} and then that string will be matched against the pattern.
      **/
     private Pattern loreMatchPattern;
 
+    /*
+    The fields below are built by compile() from the fields above and are not serialized.
+    A null set or matcher means that criterion isn't checked.
+     */
+    /** Possible item names (excluding formatting codes) */
+    private transient String[] compiledItemNames;
+    /** Possible items, resolved from the Minecraft item IDs */
+    private transient Set<Item> compiledMinecraftItems;
+    /** Minecraft item IDs that couldn't be resolved to items, compared with the item's registry name instead */
+    private transient Set<String> unresolvedMinecraftItemIDs;
+    private transient Set<String> compiledSkyBlockItemIDs;
+    /** Matcher for {@code loreMatchPattern}, reset with each item's lore */
+    private transient Matcher loreMatcher;
+    private transient LoreCharSequence loreCharSequence;
+
     private ItemMatchCondition() {}
 
     public String getItemName() {
@@ -109,8 +137,44 @@ public class ItemMatchCondition {
         return loreMatchPattern;
     }
 
+    /**
+     * Builds the lookup sets and lore matcher used by {@link #inventoryContainsMatchingItem(IInventory)}.
+     * This should be called once after this condition passes {@link #validateCondition()}.
+     */
+    public void compile() {
+        Set<String> itemNameSet = toSet(itemName, itemNames);
+        compiledItemNames = itemNameSet != null ? itemNameSet.toArray(new String[0]) : null;
+
+        Set<String> minecraftItemIDSet = toSet(minecraftItemID, minecraftItemIDs);
+        if (minecraftItemIDSet != null) {
+            Set<Item> items = new HashSet<>();
+            Set<String> unresolvedIDs = new HashSet<>();
+
+            for (String id : minecraftItemIDSet) {
+                Item item = Item.getByNameOrId(id);
+
+                if (item != null) {
+                    items.add(item);
+                } else {
+                    unresolvedIDs.add(id);
+                }
+            }
+
+            compiledMinecraftItems = Collections.unmodifiableSet(items);
+            unresolvedMinecraftItemIDs = unresolvedIDs.isEmpty() ? null : Collections.unmodifiableSet(unresolvedIDs);
+        }
+
+        compiledSkyBlockItemIDs = toSet(skyBlockItemID, skyBlockItemIDs);
+
+        if (loreMatchPattern != null) {
+            loreMatcher = loreMatchPattern.matcher("");
+            loreCharSequence = new LoreCharSequence();
+        }
+    }
+
     /**
      * Checks whether the given {@code IInventory} contains an item that satisfies this item match condition.
+     * {@link #compile()} must be called before this. Matching items are checked without allocating.
      *
      * @param inventory the inventory to check for a matching item
      * @return {@code true} if an item in {@code inventory} satisfies this item match condition, {@code false} otherwise
@@ -126,94 +190,89 @@ public class ItemMatchCondition {
                             inventory.getSizeInventory(), inventorySlotIndex));
         }
 
-        ItemStack itemStack = inventory.getStackInSlot(inventorySlotIndex);
+        return itemStackMatches(inventory.getStackInSlot(inventorySlotIndex));
+    }
 
-        if (itemStack != null) {
-            boolean itemNameMatches;
-            boolean minecraftItemIDMatches;
-            boolean skyBlockItemIDMatches;
-            boolean lorePatternMatches;
+    /**
+     * Checks whether the given {@code ItemStack} satisfies this item match condition.
+     *
+     * @param itemStack the item to check, may be {@code null}
+     * @return {@code true} if {@code itemStack} satisfies this item match condition, {@code false} otherwise
+     */
+    public boolean itemStackMatches(ItemStack itemStack) {
+        if (itemStack == null) {
+            return false;
+        }
 
-            if (itemName != null || itemNames != null) {
-                String itemStackName = itemStack.hasDisplayName() ?
-                        StringUtils.stripControlCodes(itemStack.getDisplayName()) : null;
-                itemNameMatches = itemStackName != null
-                        && (itemStackName.equals(itemName) || itemNames.contains(itemStackName));
+        if (compiledItemNames != null) {
+            String itemStackName = itemStack.hasDisplayName() ? itemStack.getDisplayName() : null;
 
-                if (!itemNameMatches) {
-                    logger.warn("Item name mismatch\nExpected {} ; Found {}",
-                            itemName, itemStackName);
-                    return false;
-                }
+            if (itemStackName == null || !containsNameIgnoringFormatting(compiledItemNames, itemStackName)) {
+                logger.warn("Item name mismatch\nExpected {} ; Found {}",
+                        itemName != null ? itemName : itemNames, itemStackName);
+                return false;
             }
+        }
 
-            if (minecraftItemID != null || minecraftItemIDs != null) {
-                String itemStackMinecraftItemID = itemStack.getItem().getRegistryName();
-                minecraftItemIDMatches = itemStackMinecraftItemID.equals(minecraftItemID)
-                        || minecraftItemIDs.contains(itemStackMinecraftItemID);
+        if (compiledMinecraftItems != null) {
+            Item item = itemStack.getItem();
+            boolean minecraftItemIDMatches = compiledMinecraftItems.contains(item) ||
+                    (unresolvedMinecraftItemIDs != null && unresolvedMinecraftItemIDs.contains(item.getRegistryName()));
 
-                if (!minecraftItemIDMatches) {
-                    logger.warn("Minecraft Item ID mismatch\nExpected {} ; Found {}",
-                            minecraftItemID, itemStackMinecraftItemID);
-                    return false;
-                }
+            if (!minecraftItemIDMatches) {
+                logger.warn("Minecraft Item ID mismatch\nExpected {} ; Found {}",
+                        minecraftItemID != null ? minecraftItemID : minecraftItemIDs, item.getRegistryName());
+                return false;
             }
+        }
 
-            // Following checks require NBT data, fail if NBT data not present
-            if (!itemStack.hasTagCompound()) return false;
-
-            if (skyBlockItemID != null || skyBlockItemIDs != null) {
-                if (!itemStack.getTagCompound().hasKey("ExtraAttributes", Constants.NBT.TAG_COMPOUND)) {
-                    return false;
-                }
-
-                NBTTagCompound extraAttributesTag = itemStack.getSubCompound("ExtraAttributes", false);
-                String itemStackSkyBlockID = extraAttributesTag.hasKey("id", Constants.NBT.TAG_STRING) ?
-                        extraAttributesTag.getString("id") : null;
-                skyBlockItemIDMatches = itemStackSkyBlockID != null &&
-                        (itemStackSkyBlockID.equals(skyBlockItemID) || skyBlockItemIDs.contains(itemStackSkyBlockID));
+        // Following checks require NBT data, fail if NBT data not present
+        if (!itemStack.hasTagCompound()) {
+            return false;
+        }
 
-                if (!skyBlockItemIDMatches) {
-                    logger.warn("SkyBlock Item ID mismatch\nExpected {} ; Found {}",
-                            skyBlockItemID, itemStackSkyBlockID);
-                    return false;
-                }
+        if (compiledSkyBlockItemIDs != null) {
+            if (!itemStack.getTagCompound().hasKey("ExtraAttributes", Constants.NBT.TAG_COMPOUND)) {
+                return false;
             }
 
-            if (loreMatchPattern != null && loreMatchPattern.pattern() != null) {
-                if (!itemStack.getTagCompound().hasKey("display", Constants.NBT.TAG_COMPOUND)) {
-                    return false;
-                }
-
-                NBTTagCompound displayTag = itemStack.getSubCompound("display", false);
+            NBTTagCompound extraAttributesTag = itemStack.getSubCompound("ExtraAttributes", false);
+            String itemStackSkyBlockID = extraAttributesTag.hasKey("id", Constants.NBT.TAG_STRING) ?
+                    extraAttributesTag.getString("id") : null;
 
-                if (displayTag.hasKey("Lore", Constants.NBT.TAG_LIST)) {
-                    NBTTagList loreTag = displayTag.getTagList("Lore", Constants.NBT.TAG_STRING);
+            if (itemStackSkyBlockID == null || !compiledSkyBlockItemIDs.contains(itemStackSkyBlockID)) {
+                logger.warn("SkyBlock Item ID mismatch\nExpected {} ; Found {}",
+                        skyBlockItemID != null ? skyBlockItemID : skyBlockItemIDs, itemStackSkyBlockID);
+                return false;
+            }
+        }
 
-                    if (loreTag.tagCount() > 0) {
-                        StringBuilder loreStringBuilder = new StringBuilder();
+        if (loreMatcher != null) {
+            if (!itemStack.getTagCompound().hasKey("display", Constants.NBT.TAG_COMPOUND)) {
+                return false;
+            }
 
-                        for (int i = 0; i < loreTag.tagCount(); i++) {
-                            loreStringBuilder.append(loreTag.getStringTagAt(i)).append("\n");
-                        }
-                        loreStringBuilder.deleteCharAt(loreStringBuilder.length() - 1);
+            NBTTagCompound displayTag = itemStack.getSubCompound("display", false);
 
-                        String loreString = loreStringBuilder.toString();
+            if (displayTag.hasKey("Lore", Constants.NBT.TAG_LIST)) {
+                NBTTagList loreTag = displayTag.getTagList("Lore", Constants.NBT.TAG_STRING);
 
-                        lorePatternMatches = loreMatchPattern.asPredicate().test(loreString);
+                if (loreTag.tagCount() > 0) {
+                    loreCharSequence.setLore(loreTag);
+                    boolean lorePatternMatches = loreMatcher.reset(loreCharSequence).find();
+                    // Don't hold on to the item's NBT after matching
+                    loreCharSequence.setLore(null);
+                    loreMatcher.reset("");
 
-                        if (!lorePatternMatches) {
-                            logger.warn("Lore did not match pattern\nItem lore: {}",  loreTag);
-                            return false;
-                        }
+                    if (!lorePatternMatches) {
+                        logger.warn("Lore did not match pattern\nItem lore: {}",  loreTag);
+                        return false;
                     }
                 }
             }
-
-            return true;
-        } else {
-            return false;
         }
+
+        return true;
     }
 
     /**
@@ -243,10 +302,256 @@ public class ItemMatchCondition {
         if (this.skyBlockItemID != null && this.skyBlockItemIDs != null) {
             throw new IllegalArgumentException("skyBlockItemID and skyBlockItemIDs cannot both be set. Only one can be set.");
         }
+    }
 
-        if (this.loreMatchPattern != null && loreMatchPattern.pattern() == null) {
-            throw new IllegalArgumentException(
-                    String.format("Lore match pattern for item in slot %d lacks a regex string.", inventorySlotIndex));
+    /**
+     * Combines a single value and a list of values into an unmodifiable set
+     *
+     * @return a set containing the given values, or {@code null} if there are no values
+     */
+    private static Set<String> toSet(String value, List<String> values) {
+        if (value == null && (values == null || values.isEmpty())) {
+            return null;
+        }
+
+        Set<String> set = new HashSet<>();
+
+        if (value != null) {
+            set.add(value);
+        }
+
+        if (values != null) {
+            set.addAll(values);
+        }
+
+        return Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * Checks if any of the given names equal the given formatted name once its formatting codes are removed,
+     * without creating a stripped copy of the formatted name like {@link StringUtils#stripControlCodes(String)} does.
+     */
+    private static boolean containsNameIgnoringFormatting(String[] names, String formattedName) {
+        for (String name : names) {
+            if (equalsIgnoringFormatting(name, formattedName)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean equalsIgnoringFormatting(String name, String formattedName) {
+        int nameIndex = 0;
+        int formattedLength = formattedName.length();
+
+        for (int i = 0; i < formattedLength; i++) {
+            char c = formattedName.charAt(i);
+
+            // Same codes as StringUtils.stripControlCodes
+            if (c == '\u00a7' && i + 1 < formattedLength && isFormattingCode(formattedName.charAt(i + 1))) {
+                i++;
+            } else if (nameIndex >= name.length() || name.charAt(nameIndex++) != c) {
+                return false;
+            }
+        }
+
+        return nameIndex == name.length();
+    }
+
+    private static boolean isFormattingCode(char c) {
+        c = Character.toLowerCase(c);
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'k' && c <= 'o') || c == 'r';
+    }
+
+    private static class Adapter extends ObjectTypeAdapter<ItemMatchCondition> {
+        @Override
+        protected ItemMatchCondition createInstance() {
+            return new ItemMatchCondition();
+        }
+
+        @Override
+        protected void readField(JsonReader reader, String name, ItemMatchCondition condition) throws IOException {
+            switch (name) {
+                case "itemName":
+                    condition.itemName = nextNullableString(reader);
+                    break;
+                case "itemNames":
+                    condition.itemNames = readStringList(reader);
+                    break;
+                case "inventorySlotIndex":
+                    condition.inventorySlotIndex = nextInt(reader, "inventorySlotIndex", 0, Integer.MAX_VALUE);
+                    break;
+                case "minecraftItemID":
+                    condition.minecraftItemID = nextNullableString(reader);
+                    break;
+                case "minecraftItemIDs":
+                    condition.minecraftItemIDs = readStringList(reader);
+                    break;
+                case "skyBlockItemID":
+                    condition.skyBlockItemID = nextNullableString(reader);
+                    break;
+                case "skyBlockItemIDs":
+                    condition.skyBlockItemIDs = readStringList(reader);
+                    break;
+                case "loreMatchPattern":
+                    condition.loreMatchPattern = readPattern(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        @Override
+        protected void writeFields(JsonWriter writer, ItemMatchCondition condition) throws IOException {
+            writeString(writer, "itemName", condition.itemName);
+            writeStringList(writer, "itemNames", condition.itemNames);
+            writer.name("inventorySlotIndex").value(condition.inventorySlotIndex);
+            writeString(writer, "minecraftItemID", condition.minecraftItemID);
+            writeStringList(writer, "minecraftItemIDs", condition.minecraftItemIDs);
+            writeString(writer, "skyBlockItemID", condition.skyBlockItemID);
+            writeStringList(writer, "skyBlockItemIDs", condition.skyBlockItemIDs);
+
+            if (condition.loreMatchPattern != null) {
+                writer.name("loreMatchPattern").beginObject();
+                writer.name("pattern").value(condition.loreMatchPattern.pattern());
+                writer.name("flags").value(condition.loreMatchPattern.flags());
+                writer.endObject();
+            }
+        }
+
+        /**
+         * Reads and compiles a pattern given as a regex string or as an object with {@code pattern} and {@code flags}
+         */
+        private static Pattern readPattern(JsonReader reader) throws IOException {
+            JsonToken token = reader.peek();
+            String regex = null;
+            int flags = 0;
+
+            if (token == JsonToken.NULL) {
+                reader.nextNull();
+                return null;
+            } else if (token == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "pattern":
+                            regex = nextNullableString(reader);
+                            break;
+                        case "flags":
+                            flags = reader.nextInt();
+                            break;
+                        default:
+                            reader.skipValue();
+                    }
+                }
+
+                reader.endObject();
+            } else {
+                regex = reader.nextString();
+            }
+
+            if (regex == null) {
+                throw syntaxError(reader, "Lore match pattern lacks a regex string");
+            }
+
+            try {
+                return Pattern.compile(regex, flags);
+            } catch (IllegalArgumentException e) {
+                // PatternSyntaxException for bad regexes, IllegalArgumentException for bad flags
+                throw syntaxError(reader, "Invalid lore match pattern: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A view of an item's lore lines joined with {@code \n}, used to match the lore pattern without concatenating
+     * the lines into a new string
+     */
+    private static class LoreCharSequence implements CharSequence {
+        private NBTTagList lore;
+        /** {@code lineStarts[i]} is the index of the first character of line {@code i} */
+        private int[] lineStarts = new int[16];
+        private int lineCount;
+        private int length;
+
+        void setLore(NBTTagList lore) {
+            this.lore = lore;
+            lineCount = lore != null ? lore.tagCount() : 0;
+            length = 0;
+
+            if (lineStarts.length < lineCount) {
+                lineStarts = new int[lineCount];
+            }
+
+            for (int i = 0; i < lineCount; i++) {
+                lineStarts[i] = length;
+                length += lore.getStringTagAt(i).length() + 1;
+            }
+
+            // No separator after the last line
+            if (lineCount > 0) {
+                length--;
+            }
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for length " + length);
+            }
+
+            int line = findLine(index);
+            String lineString = lore.getStringTagAt(line);
+            int lineIndex = index - lineStarts[line];
+
+            return lineIndex < lineString.length() ? lineString.charAt(lineIndex) : '\n';
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder stringBuilder = new StringBuilder(length);
+
+            for (int i = 0; i < lineCount; i++) {
+                if (i > 0) {
+                    stringBuilder.append('\n');
+                }
+
+                stringBuilder.append(lore.getStringTagAt(i));
+            }
+
+            return stringBuilder.toString();
+        }
+
+        /**
+         * Returns the index of the line containing the character at the given index
+         */
+        private int findLine(int index) {
+            int low = 0;
+            int high = lineCount - 1;
+
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+
+                if (lineStarts[mid] <= index) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+
+            return low;
         }
     }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Identifies SkyBlock menus from their chest titles. This is built once from the menu matching map when the
+ * SkyBlock constants are loaded so identifying a menu only takes a single hash lookup. Building the matcher also
+ * compiles the menus' {@link ItemMatchCondition}s.
+ */
+public class MenuMatcher {
+    /** Menus with match conditions, keyed by the title displayed at the top of their {@code GuiChest} */
+    private final Map<String, Menu> menusByDisplayName;
+    private final Map<Menu, List<ItemMatchCondition>> matchConditions;
+    /** Inventory slot index of the last match condition of each menu, indexed by {@link Menu#ordinal()} */
+    private final int[] lastSlotIndexesToCheck;
+
+    /**
+     * @param menuMatchingMap map of match conditions for each menu, sorted by ascending inventory slot index
+     */
+    public MenuMatcher(Map<Menu, List<ItemMatchCondition>> menuMatchingMap) {
+        menusByDisplayName = new HashMap<>();
+        matchConditions = new EnumMap<>(Menu.class);
+        lastSlotIndexesToCheck = new int[Menu.values().length];
+
+        for (Map.Entry<Menu, List<ItemMatchCondition>> menuMatchingMapEntry : menuMatchingMap.entrySet()) {
+            Menu menu = menuMatchingMapEntry.getKey();
+            List<ItemMatchCondition> menuMatchConditions = menuMatchingMapEntry.getValue();
+
+            for (ItemMatchCondition matchCondition : menuMatchConditions) {
+                matchCondition.compile();
+            }
+
+            menusByDisplayName.put(menu.getMenuDisplayName(), menu);
+            matchConditions.put(menu, Collections.unmodifiableList(menuMatchConditions));
+            lastSlotIndexesToCheck[menu.ordinal()] =
+                    menuMatchConditions.get(menuMatchConditions.size() - 1).getInventorySlotIndex();
+        }
+    }
+
+    /**
+     * Returns the menu with the given chest title
+     *
+     * @param chestTitle the unformatted title of the chest
+     * @return the menu with the given title, or {@link Menu#NONE} if no menu with match conditions has that title
+     */
+    public Menu getMenuForTitle(String chestTitle) {
+        Menu menu = menusByDisplayName.get(chestTitle);
+
+        return menu != null ? menu : Menu.NONE;
+    }
+
+    /**
+     * Returns the match conditions for the given menu, sorted by ascending inventory slot index
+     */
+    public List<ItemMatchCondition> getMatchConditions(Menu menu) {
+        return matchConditions.get(menu);
+    }
+
+    /**
+     * Returns the inventory slot index of the last {@link ItemMatchCondition} for the given {@link Menu}.
+     *
+     * @param menu the {@code Menu} to get the inventory slot index from
+     * @return the inventory slot index of the last {@code ItemMatchCondition} for the given {@code Menu}
+     */
+    public int getLastSlotIndexToCheck(Menu menu) {
+        return lastSlotIndexesToCheck[menu.ordinal()];
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2024. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.gui;
+
+import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
+import ca.tirelesstraveler.fancywarpmenu.gui.textures.TextureAtlas;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.GLAllocation;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.WorldRenderer;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.util.ResourceLocation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.lwjgl.opengl.GL11.*;
+
+/**
+ * Collects the textured quads drawn by the buttons of a {@link GuiFancyWarp} over a frame and draws them together in
+ * {@link #draw()}, sorted by z level.
+ * <br>
+ * Consecutive quads using the same texture are drawn with one bind and one draw call. Textures in
+ * {@link FancyWarpMenu#getTextureAtlas()} are drawn from the atlas, so most warp and button quads share one texture.
+ * Other drawing, like labels, can be queued with {@link #addDrawCall(float, Runnable)} to keep it in z order with the quads.
+ * <br>
+ * Each run of quads between texture changes and other drawing is compiled into a display list. A run's display list is
+ * replayed on later frames and only recompiled when any of its quads change, such as when a button's scale transition
+ * is in progress, so an idle menu doesn't rebuild any geometry. Call {@link #deleteDisplayLists()} when the renderer
+ * is no longer needed.
+ */
+public class BatchedQuadRenderer {
+    /** Number of values stored for each quad in a {@link CachedRun} */
+    private static final int QUAD_DATA_LENGTH = 10;
+
+    /** Draws queued for the current frame */
+    private final List<QueuedDraw> queuedDraws;
+    /** Reusable draws, the first {@code queuedDraws.size()} of which are in use */
+    private final List<QueuedDraw> drawPool;
+    /** Display lists of the quad runs drawn last frame, in drawing order */
+    private final List<CachedRun> cachedRuns;
+
+    public BatchedQuadRenderer() {
+        queuedDraws = new ArrayList<>();
+        drawPool = new ArrayList<>();
+        cachedRuns = new ArrayList<>();
+    }
+
+    /**
+     * Queues a textured quad.
+     *
+     * @param textureLocation location of the texture to draw
+     * @param x left edge
+     * @param y top edge
+     * @param width width of the quad
+     * @param height height of the quad
+     * @param zLevel z level of the quad
+     * @param brightness colour multiplier between 0 and 1
+     */
+    public void addQuad(ResourceLocation textureLocation, float x, float y, float width, float height, float zLevel, float brightness) {
+        TextureAtlas textureAtlas = FancyWarpMenu.getTextureAtlas();
+        TextureAtlas.Sprite sprite = textureAtlas != null ? textureAtlas.getSprite(textureLocation) : null;
+
+        if (sprite != null) {
+            addQuad(TextureAtlas.BUTTON_ATLAS_LOCATION, x, y, width, height, zLevel,
+                    sprite.getMinU(), sprite.getMinV(), sprite.getMaxU(), sprite.getMaxV(), brightness);
+        } else {
+            addQuad(textureLocation, x, y, width, height, zLevel, 0, 0, 1, 1, brightness);
+        }
+    }
+
+    /**
+     * Queues a quad showing the given region of a texture. The texture is used as is, not from the atlas.
+     *
+     * @param textureLocation location of the texture to draw
+     * @param x left edge
+     * @param y top edge
+     * @param width width of the quad
+     * @param height height of the quad
+     * @param zLevel z level of the quad
+     * @param minU texture x coordinate of the left edge
+     * @param minV texture y coordinate of the top edge
+     * @param maxU texture x coordinate of the right edge
+     * @param maxV texture y coordinate of the bottom edge
+     * @param brightness colour multiplier between 0 and 1
+     */
+    public void addQuad(ResourceLocation textureLocation, float x, float y, float width, float height, float zLevel,
+                        float minU, float minV, float maxU, float maxV, float brightness) {
+        QueuedDraw quad = nextDraw(zLevel);
+
+        quad.textureLocation = textureLocation;
+        quad.x = x;
+        quad.y = y;
+        quad.width = width;
+        quad.height = height;
+        quad.minU = minU;
+        quad.minV = minV;
+        quad.maxU = maxU;
+        quad.maxV = maxV;
+        quad.brightness = brightness;
+    }
+
+    /**
+     * Queues drawing that isn't a textured quad. It runs after the quads below {@code zLevel} are drawn.
+     *
+     * @param zLevel z level the drawing is at
+     * @param drawCall code that does the drawing
+     */
+    public void addDrawCall(float zLevel, Runnable drawCall) {
+        nextDraw(zLevel).drawCall = drawCall;
+    }
+
+    /**
+     * Stable insertion sort of {@link #queuedDraws} by z level. Draws are queued in button order, which is already
+     * sorted by z level apart from the hovered buttons, so this is close to linear. Unlike {@link List#sort}, it
+     * doesn't allocate a merge buffer every frame.
+     */
+    private void sortByZLevel() {
+        for (int i = 1; i < queuedDraws.size(); i++) {
+            QueuedDraw queuedDraw = queuedDraws.get(i);
+            int j = i - 1;
+
+            while (j >= 0 && queuedDraws.get(j).zLevel > queuedDraw.zLevel) {
+                queuedDraws.set(j + 1, queuedDraws.get(j));
+                j--;
+            }
+
+            queuedDraws.set(j + 1, queuedDraw);
+        }
+    }
+
+    /**
+     * Draws everything queued since the last call, from the lowest z level to the highest.
+     */
+    public void draw() {
+        if (queuedDraws.isEmpty()) {
+            return;
+        }
+
+        sortByZLevel();
+
+        int runCount = 0;
+        int runStart = -1;
+
+        for (int i = 0; i < queuedDraws.size(); i++) {
+            QueuedDraw queuedDraw = queuedDraws.get(i);
+
+            if (queuedDraw.drawCall != null) {
+                if (runStart != -1) {
+                    drawRun(runCount++, runStart, i);
+                    runStart = -1;
+                }
+
+                queuedDraw.drawCall.run();
+                queuedDraw.drawCall = null;
+            } else if (runStart == -1) {
+                runStart = i;
+            } else if (!queuedDraw.textureLocation.equals(queuedDraws.get(runStart).textureLocation)) {
+                drawRun(runCount++, runStart, i);
+                runStart = i;
+            }
+        }
+
+        if (runStart != -1) {
+            drawRun(runCount++, runStart, queuedDraws.size());
+        }
+
+        // Free the display lists of runs that are no longer drawn
+        while (cachedRuns.size() > runCount) {
+            GLAllocation.deleteDisplayLists(cachedRuns.remove(cachedRuns.size() - 1).displayList);
+        }
+
+        queuedDraws.clear();
+    }
+
+    /**
+     * Deletes the display lists of the cached quad runs. They're compiled again on the next draw.
+     */
+    public void deleteDisplayLists() {
+        for (CachedRun cachedRun : cachedRuns) {
+            GLAllocation.deleteDisplayLists(cachedRun.displayList);
+        }
+
+        cachedRuns.clear();
+    }
+
+    /**
+     * Draws a run of queued quads that share the same texture from its display list, recompiling the display list
+     * first if the quads changed since the last frame.
+     *
+     * @param runIndex index of the run in drawing order
+     * @param start index of the first quad in {@link #queuedDraws}
+     * @param end index after the last quad in {@link #queuedDraws}
+     */
+    private void drawRun(int runIndex, int start, int end) {
+        if (runIndex == cachedRuns.size()) {
+            cachedRuns.add(new CachedRun(GLAllocation.generateDisplayLists(1)));
+        }
+
+        CachedRun cachedRun = cachedRuns.get(runIndex);
+        ResourceLocation textureLocation = queuedDraws.get(start).textureLocation;
+
+        if (!cachedRun.matches(textureLocation, start, end)) {
+            cachedRun.update(textureLocation, start, end);
+            compileRun(cachedRun.displayList, start, end);
+        }
+
+        // Texture and blend state are set outside the display list to keep GlStateManager's state cache accurate
+        Minecraft.getMinecraft().getTextureManager().bindTexture(textureLocation);
+        GlStateManager.enableBlend();
+        // Blend allows the texture to be drawn with transparency intact
+        GlStateManager.tryBlendFuncSeparate(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA, 1, 0);
+        glCallList(cachedRun.displayList);
+        // The display list sets the colour through its vertices
+        GlStateManager.resetColor();
+        GlStateManager.disableBlend();
+        GlStateManager.color(1, 1, 1);
+    }
+
+    private void compileRun(int displayList, int start, int end) {
+        Tessellator tessellator = Tessellator.getInstance();
+        WorldRenderer worldRenderer = tessellator.getWorldRenderer();
+
+        glNewList(displayList, GL_COMPILE);
+        worldRenderer.begin(GL_QUADS, DefaultVertexFormats.POSITION_TEX_COLOR);
+
+        for (int i = start; i < end; i++) {
+            QueuedDraw quad = queuedDraws.get(i);
+            float left = quad.x;
+            float top = quad.y;
+            float right = left + quad.width;
+            float bottom = top + quad.height;
+            float brightness = quad.brightness;
+
+            worldRenderer.pos(left, bottom, quad.zLevel).tex(quad.minU, quad.maxV).color(brightness, brightness, brightness, 1F).endVertex();
+            worldRenderer.pos(right, bottom, quad.zLevel).tex(quad.maxU, quad.maxV).color(brightness, brightness, brightness, 1F).endVertex();
+            worldRenderer.pos(right, top, quad.zLevel).tex(quad.maxU, quad.minV).color(brightness, brightness, brightness, 1F).endVertex();
+            worldRenderer.pos(left, top, quad.zLevel).tex(quad.minU, quad.minV).color(brightness, brightness, brightness, 1F).endVertex();
+        }
+
+        tessellator.draw();
+        glEndList();
+    }
+
+    private QueuedDraw nextDraw(float zLevel) {
+        int index = queuedDraws.size();
+
+        if (index == drawPool.size()) {
+            drawPool.add(new QueuedDraw());
+        }
+
+        QueuedDraw queuedDraw = drawPool.get(index);
+        queuedDraw.zLevel = zLevel;
+        queuedDraw.drawCall = null;
+        queuedDraws.add(queuedDraw);
+        return queuedDraw;
+    }
+
+    /**
+     * A queued textured quad, or other drawing if {@link #drawCall} is set
+     */
+    private static class QueuedDraw {
+        private float zLevel;
+        private Runnable drawCall;
+        private ResourceLocation textureLocation;
+        private float x;
+        private float y;
+        private float width;
+        private float height;
+        private float minU;
+        private float minV;
+        private float maxU;
+        private float maxV;
+        private float brightness;
+
+        private void writeTo(float[] data, int offset) {
+            data[offset] = zLevel;
+            data[offset + 1] = x;
+            data[offset + 2] = y;
+            data[offset + 3] = width;
+            data[offset + 4] = height;
+            data[offset + 5] = minU;
+            data[offset + 6] = minV;
+            data[offset + 7] = maxU;
+            data[offset + 8] = maxV;
+            data[offset + 9] = brightness;
+        }
+
+        private boolean matches(float[] data, int offset) {
+            return data[offset] == zLevel && data[offset + 1] == x && data[offset + 2] == y
+                    && data[offset + 3] == width && data[offset + 4] == height
+                    && data[offset + 5] == minU && data[offset + 6] == minV
+                    && data[offset + 7] == maxU && data[offset + 8] == maxV
+                    && data[offset + 9] == brightness;
+        }
+    }
+
+    /**
+     * A display list holding a run of quads and a copy of the quads it was compiled from
+     */
+    private class CachedRun {
+        private final int displayList;
+        private ResourceLocation textureLocation;
+        private float[] quadData;
+        private int quadCount;
+
+        private CachedRun(int displayList) {
+            this.displayList = displayList;
+            quadData = new float[0];
+        }
+
+        private boolean matches(ResourceLocation textureLocation, int start, int end) {
+            if (!textureLocation.equals(this.textureLocation) || end - start != quadCount) {
+                return false;
+            }
+
+            for (int i = start; i < end; i++) {
+                if (!queuedDraws.get(i).matches(quadData, (i - start) * QUAD_DATA_LENGTH)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private void update(ResourceLocation textureLocation, int start, int end) {
+            this.textureLocation = textureLocation;
+            quadCount = end - start;
+
+            if (quadData.length < quadCount * QUAD_DATA_LENGTH) {
+                quadData = new float[quadCount * QUAD_DATA_LENGTH];
+            }
+
+            for (int i = start; i < end; i++) {
+                queuedDraws.get(i).writeTo(quadData, (i - start) * QUAD_DATA_LENGTH);
+            }
+        }
+    }
+}
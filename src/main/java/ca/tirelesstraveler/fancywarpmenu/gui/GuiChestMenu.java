@@ -24,6 +24,7 @@ package ca.tirelesstraveler.fancywarpmenu.gui;
 
 import ca.tirelesstraveler.fancywarpmenu.gui.buttons.GuiButtonChestMenu;
 import ca.tirelesstraveler.fancywarpmenu.gui.grid.ScaledGrid;
+import ca.tirelesstraveler.fancywarpmenu.gui.transitions.TransitionClock;
 import net.minecraft.client.gui.GuiButton;
 import net.minecraft.client.gui.ScaledResolution;
 import net.minecraft.client.gui.inventory.GuiChest;
@@ -198,6 +199,9 @@ public abstract class GuiChestMenu extends GuiChest {
 
     @Override
     public void drawScreen(int mouseX, int mouseY, float partialTicks) {
+        // Read the time once so all button transitions drawn this frame are in sync
+        TransitionClock.update();
+
         if (renderCustomUI) {
             drawCustomUI(mouseX, mouseY, partialTicks);
         } else {
@@ -30,13 +30,16 @@ import ca.tirelesstraveler.fancywarpmenu.data.layout.Warp;
 import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.SkyBlockConstants;
 import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.Menu;
 import ca.tirelesstraveler.fancywarpmenu.gui.buttons.*;
+import ca.tirelesstraveler.fancywarpmenu.gui.grid.ButtonSpatialIndex;
+import ca.tirelesstraveler.fancywarpmenu.gui.grid.LayoutSnapshot;
 import ca.tirelesstraveler.fancywarpmenu.gui.grid.ScaledGrid;
 import ca.tirelesstraveler.fancywarpmenu.listeners.InventoryChangeListener;
 import ca.tirelesstraveler.fancywarpmenu.state.EnvironmentDetails;
 import ca.tirelesstraveler.fancywarpmenu.state.FancyWarpMenuState;
 import ca.tirelesstraveler.fancywarpmenu.utils.ChatUtils;
 import ca.tirelesstraveler.fancywarpmenu.utils.GameChecks;
-import ca.tirelesstraveler.fancywarpmenu.utils.WarpVisibilityChecks;
+import ca.tirelesstraveler.fancywarpmenu.utils.IncrementalMenuVerifier;
+import ca.tirelesstraveler.fancywarpmenu.utils.VisibilityContext;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiButton;
 import net.minecraft.client.gui.GuiLabel;
@@ -47,12 +50,15 @@ import net.minecraft.client.resources.I18n;
 import net.minecraft.inventory.IInventory;
 import net.minecraft.inventory.InventoryBasic;
 import net.minecraft.inventory.Slot;
+import net.minecraft.item.ItemStack;
 import net.minecraft.util.ChatComponentTranslation;
 import net.minecraft.util.ChatStyle;
 import net.minecraft.util.EnumChatFormatting;
 import net.minecraftforge.client.event.GuiScreenEvent;
 import net.minecraftforge.common.MinecraftForge;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.lwjgl.input.Keyboard;
 
 import java.awt.*;
@@ -64,17 +70,36 @@ import java.util.function.Consumer;
 
 public class GuiFancyWarp extends GuiChestMenu {
     protected static final FancyWarpMenu modInstance = FancyWarpMenu.getInstance();
+    private static final Logger logger = LogManager.getLogger();
     /** Delay in ms before the player can warp again if the last warp attempt failed */
     private static final long WARP_FAIL_COOL_DOWN = 500L;
     /** The amount of time in ms that the error message remains on-screen after a failed warp attempt */
     private static final long WARP_FAIL_TOOLTIP_DISPLAY_TIME = 2000L;
+    /** Mod name and version shown on the debug overlay */
+    private static final String VERSION_STRING = modInstance.getModContainer().getName() + " " + modInstance.getModContainer().getVersion();
 
     protected Menu menu;
     protected Layout layout;
+    /** Button positions and sizes for {@link #layout} at the current resolution */
+    protected LayoutSnapshot layoutSnapshot;
     private final InventoryBasic chestInventory;
+    private final BatchedQuadRenderer quadRenderer;
+    private ButtonSpatialIndex buttonIndex;
+    /** The topmost island button under the mouse */
+    private GuiButtonIsland hoveredIslandButton;
     private GuiButtonConfig configButton;
     private InventoryChangeListener inventoryListener;
+    /** Checks the menu's items as they load, created on the first chest item change */
+    private IncrementalMenuVerifier menuVerifier;
+    /** Whether the menu's items have been checked and the custom UI state was set from the result */
+    private boolean menuItemsChecked;
     private String warpFailMessage;
+    /** {@link #warpFailMessage} wrapped in a list for {@link #drawHoveringText(List, int, int)} */
+    private List<String> warpFailTooltip;
+    /** Debug overlay lines, cleared and refilled each frame */
+    private final ArrayList<String> debugStrings = new ArrayList<>();
+    /** Screen resolution shown on the debug overlay, formatted when the screen is initialized */
+    private String resolutionString;
     private RuntimeException guiInitException;
     /**
      * Last slot index in the {@link ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.ItemMatchCondition}
@@ -91,8 +116,11 @@ public class GuiFancyWarp extends GuiChestMenu {
         super(playerInventory, chestInventory, layout.getBackgroundTextureLocation());
         this.layout = layout;
         this.chestInventory = (InventoryBasic) chestInventory;
+        quadRenderer = new BatchedQuadRenderer();
 
         if (Settings.isWarpMenuEnabled()) {
+            FancyWarpMenu.getTextureResidencyManager().prefetch(layout);
+
             /*
             Render a blank custom UI before buttons are enabled to prevent the vanilla chest UI from displaying
             while the fancy warp menu loads
@@ -113,11 +141,14 @@ public class GuiFancyWarp extends GuiChestMenu {
         }
 
         buttonList.clear();
+        buttonIndex = null;
+        hoveredIslandButton = null;
         res = new ScaledResolution(mc);
-        scaledGrid = new ScaledGrid(0, 0, res.getScaledWidth(), res.getScaledHeight(), Island.GRID_UNIT_HEIGHT_FACTOR, Island.GRID_UNIT_WIDTH_FACTOR, false);
-        Warp.initDefaults(res);
+        layoutSnapshot = LayoutSnapshot.get(layout, res);
+        scaledGrid = layoutSnapshot.getScreenGrid();
+        resolutionString = String.format("%d x %d (%d)", res.getScaledWidth(), res.getScaledHeight(), res.getScaleFactor());
 
-        configButton = new GuiButtonConfig(layout, 0, res);
+        configButton = new GuiButtonConfig(layout, 0, layoutSnapshot);
         buttonList.add(configButton);
 
         if (lastSlotIndexToCheck > chestInventory.getSizeInventory()) {
@@ -131,7 +162,7 @@ public class GuiFancyWarp extends GuiChestMenu {
         }
 
         if (Settings.shouldShowRegularWarpMenuButton()) {
-            buttonList.add(new GuiButtonRegularWarpMenu(layout, buttonList.size(), res, scaledGrid));
+            buttonList.add(new GuiButtonRegularWarpMenu(layout, buttonList.size(), layoutSnapshot));
         }
 
         /*
@@ -140,10 +171,12 @@ public class GuiFancyWarp extends GuiChestMenu {
          */
         try {
             addIslandButtons();
+            buttonIndex = new ButtonSpatialIndex(scaledGrid, Island.GRID_UNIT_WIDTH_FACTOR, Island.GRID_UNIT_HEIGHT_FACTOR, buttonList);
             updateButtonStates();
         } catch (RuntimeException e) {
             guiInitException = e;
             buttonList.clear();
+            buttonIndex = null;
             chestInventory.removeInventoryChangeListener(inventoryListener);
 
             int lineCount = 2;
@@ -173,6 +206,19 @@ public class GuiFancyWarp extends GuiChestMenu {
         }
     }
 
+    public Layout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Switches this screen to the currently loaded layout for its menu after the layouts are reloaded
+     */
+    public void reloadLayout() {
+        layout = FancyWarpMenuState.getLayoutForMenu(menu);
+        backgroundTextureLocation = layout.getBackgroundTextureLocation();
+        initGui();
+    }
+
     public ScaledGrid getScaledGrid() {
         return scaledGrid;
     }
@@ -197,32 +243,30 @@ public class GuiFancyWarp extends GuiChestMenu {
 
         drawGuiContainerBackgroundLayer(partialTicks, mouseX, mouseY);
 
-        List<GuiButtonChestMenu> hoveredButtons = new ArrayList<>();
-
         // When multiple island buttons overlap, mark only the top one as hovered.
-        for (GuiButton button : buttonList) {
-            if (button instanceof GuiButtonIsland) {
-                ((GuiButtonIsland) button).calculateHoverState(mouseX, mouseY);
+        GuiButtonIsland topIslandButton = buttonIndex != null ?
+                buttonIndex.getTopmostButtonAt(mouseX, mouseY, GuiButtonIsland.class, false) : null;
 
-                if (button.isMouseOver()) {
-                    hoveredButtons.add((GuiButtonChestMenu) button);
-                }
+        if (topIslandButton != hoveredIslandButton) {
+            if (hoveredIslandButton != null) {
+                hoveredIslandButton.setHovered(false);
             }
+
+            hoveredIslandButton = topIslandButton;
         }
 
-        for (int i = 0; i < hoveredButtons.size() - 1; i++) {
-            hoveredButtons.get(i).setHovered(false);
+        if (hoveredIslandButton != null) {
+            hoveredIslandButton.setHovered(true);
         }
 
         drawButtons(mouseX, mouseY);
 
         // Draw warp fail tooltip
         if (Minecraft.getSystemTime() <= warpFailTooltipExpiryTime && warpFailMessage != null) {
-            drawHoveringText(Collections.singletonList(warpFailMessage), mouseX, mouseY);
+            drawHoveringText(warpFailTooltip, mouseX, mouseY);
         }
 
         if (Settings.isDebugModeEnabled() && Settings.shouldShowDebugOverlay()) {
-            ArrayList<String> debugStrings = new ArrayList<>();
             int drawX;
             int drawY;
             int nearestX;
@@ -231,28 +275,23 @@ public class GuiFancyWarp extends GuiChestMenu {
             GlStateManager.pushMatrix();
             GlStateManager.translate(0, 0, 20);
             // Draw screen resolution
-            drawCenteredString(mc.fontRendererObj, String.format("%d x %d (%d)", res.getScaledWidth(), res.getScaledHeight(), res.getScaleFactor()), width / 2, height - 20, 14737632);
+            drawCenteredString(mc.fontRendererObj, resolutionString, width / 2, height - 20, 14737632);
             // Draw version number
-            String modName = FancyWarpMenu.getInstance().getModContainer().getName();
-            String modVersion = FancyWarpMenu.getInstance().getModContainer().getVersion();
-            drawCenteredString(mc.fontRendererObj, modName + " " + modVersion, width / 2, height - 10, 14737632);
+            drawCenteredString(mc.fontRendererObj, VERSION_STRING, width / 2, height - 10, 14737632);
 
             // Shift to draw island grid instead of warp grid
-            if (!isShiftKeyDown()) {
-                for (GuiButton button : buttonList) {
-                    // Draw island button coordinate tooltips, draw last to prevent clipping
-                    if (button instanceof GuiButtonIsland && button.isMouseOver()) {
-                        GuiButtonIsland islandButton = (GuiButtonIsland) button;
-                        debugStrings.add(EnumChatFormatting.GREEN + button.displayString);
-                        nearestX = islandButton.getScaledGrid().findNearestGridX(mouseX);
-                        nearestY = islandButton.getScaledGrid().findNearestGridY(mouseY);
-                        drawX = (int) islandButton.getScaledGrid().getActualX(nearestX);
-                        drawY = (int) islandButton.getScaledGrid().getActualY(nearestY);
-                        drawDebugStrings(debugStrings, drawX, drawY, nearestX, nearestY, islandButton.getZLevel());
-                        tooltipDrawn = true;
-                        break;
-                    }
-                }
+            // Draw island button coordinate tooltips, draw last to prevent clipping
+            debugStrings.clear();
+
+            if (!isShiftKeyDown() && hoveredIslandButton != null) {
+                GuiButtonIsland islandButton = hoveredIslandButton;
+                debugStrings.add(EnumChatFormatting.GREEN + islandButton.displayString);
+                nearestX = islandButton.getScaledGrid().findNearestGridX(mouseX);
+                nearestY = islandButton.getScaledGrid().findNearestGridY(mouseY);
+                drawX = (int) islandButton.getScaledGrid().getActualX(nearestX);
+                drawY = (int) islandButton.getScaledGrid().getActualY(nearestY);
+                drawDebugStrings(debugStrings, drawX, drawY, nearestX, nearestY, islandButton.getZLevel());
+                tooltipDrawn = true;
             }
 
             // Draw screen coordinate tooltips
@@ -268,6 +307,26 @@ public class GuiFancyWarp extends GuiChestMenu {
         }
     }
 
+    /**
+     * Queues the background with the buttons so it's drawn from the same cached geometry
+     */
+    @Override
+    protected void drawGuiContainerBackgroundLayer(float partialTicks, int mouseX, int mouseY) {
+        if (renderCustomUI && backgroundTextureLocation != null) {
+            // Same texture coordinates as drawTexturedModalRect, which treats the texture as 256x256
+            quadRenderer.addQuad(backgroundTextureLocation, 0, 0, res.getScaledWidth(), res.getScaledHeight(), zLevel,
+                    0, 0, res.getScaledWidth() / 256F, res.getScaledHeight() / 256F, 1F);
+        } else {
+            super.drawGuiContainerBackgroundLayer(partialTicks, mouseX, mouseY);
+        }
+    }
+
+    @Override
+    public void onGuiClosed() {
+        super.onGuiClosed();
+        quadRenderer.deleteDisplayLists();
+    }
+
     /**
      * Draws a simple error screen to display {@link #guiInitException}
      *
@@ -303,6 +362,7 @@ public class GuiFancyWarp extends GuiChestMenu {
         warpFailCoolDownExpiryTime = currentTime + WARP_FAIL_COOL_DOWN;
         warpFailTooltipExpiryTime = currentTime + WARP_FAIL_TOOLTIP_DISPLAY_TIME;
         warpFailMessage = EnumChatFormatting.RED + I18n.format(failMessageKey, replacements);
+        warpFailTooltip = Collections.singletonList(warpFailMessage);
     }
 
     @Override
@@ -341,9 +401,18 @@ public class GuiFancyWarp extends GuiChestMenu {
     protected void handleCustomUIMouseInput(int mouseX, int mouseY, int mouseButton) {
         // Left click
         if (mouseButton == 0) {
-            for (GuiButton button : buttonList) {
-                if (handlePotentialButtonPress(button, mouseX, mouseY)) {
-                    break;
+            if (buttonIndex != null) {
+                // Only the topmost button is pressed so clicks don't pass through to the buttons underneath
+                GuiButtonScaleTransition button = buttonIndex.getTopmostButtonAt(mouseX, mouseY, GuiButtonScaleTransition.class, true);
+
+                if (button != null) {
+                    handlePotentialButtonPress(button, mouseX, mouseY);
+                }
+            } else {
+                for (GuiButton button : buttonList) {
+                    if (handlePotentialButtonPress(button, mouseX, mouseY)) {
+                        break;
+                    }
                 }
             }
         }
@@ -356,13 +425,12 @@ public class GuiFancyWarp extends GuiChestMenu {
         if (Settings.isDebugModeEnabled()) {
             if (keyCode == Keyboard.KEY_R) {
                 if (isShiftKeyDown()) {
-                    modInstance.reloadResources();
+                    // Swaps in the reloaded layout if anything changed
+                    modInstance.reloadChangedResources(true);
                 } else {
                     modInstance.reloadLayouts();
+                    reloadLayout();
                 }
-
-                layout = FancyWarpMenuState.getLayoutForMenu(menu);
-                initGui();
             } else if (keyCode == Keyboard.KEY_TAB) {
                 Settings.setShowDebugOverlay(!Settings.shouldShowDebugOverlay());
             } else if (keyCode == Keyboard.KEY_B) {
@@ -389,20 +457,28 @@ public class GuiFancyWarp extends GuiChestMenu {
     }
 
     protected void addIslandButtons() {
-        for (Island island : layout.getIslandList()) {
-            addIslandButton(island);
+        List<Island> islandList = layout.getIslandList();
+
+        for (int i = 0; i < islandList.size(); i++) {
+            addIslandButton(islandList.get(i), layoutSnapshot.getIslandPlacement(i));
         }
 
         // Sort by z level
         buttonList.sort(null);
+
+        for (GuiButton button : buttonList) {
+            if (button instanceof GuiButtonScaleTransition) {
+                ((GuiButtonScaleTransition) button).setQuadRenderer(quadRenderer);
+            }
+        }
     }
 
-    protected void addIslandButton(Island island) {
-        GuiButtonIsland islandButton = new GuiButtonIsland(this, buttonList.size(), res, island);
+    protected void addIslandButton(Island island, LayoutSnapshot.ButtonPlacement placement) {
+        GuiButtonIsland islandButton = new GuiButtonIsland(buttonList.size(), island, placement);
         buttonList.add(islandButton);
 
         for (Warp warp : island.getWarps()) {
-            buttonList.add(new GuiButtonWarp(buttonList.size(), islandButton, warp));
+            buttonList.add(new GuiButtonWarp(buttonList.size(), islandButton, warp, layoutSnapshot));
         }
     }
 
@@ -411,8 +487,9 @@ public class GuiFancyWarp extends GuiChestMenu {
      * is an instance of {@link GuiChest} and the mouse is not already holding an item
      *
      * @param slotIndex the index of the inventory slot to click
+     * @return {@code true} if the click was sent, {@code false} if the warp failed instead
      */
-    protected void clickSlot(int slotIndex) {
+    protected boolean clickSlot(int slotIndex) {
         if (slotIndex >= 0 && slotIndex < inventorySlots.inventorySlots.size()) {
             Slot slotToClick = inventorySlots.getSlot(slotIndex);
 
@@ -420,6 +497,7 @@ public class GuiFancyWarp extends GuiChestMenu {
                 if (mc.thePlayer.inventory.getItemStack() == null) {
                     // Left click no shift
                     handleMouseClick(inventorySlots.getSlot(slotIndex), slotIndex, 0, 0);
+                    return true;
                 } else {
                     onWarpFail(FancyWarpMenu.getFullLanguageKey("errors.mouseIsHoldingItem"));
                 }
@@ -429,25 +507,33 @@ public class GuiFancyWarp extends GuiChestMenu {
         } else {
             onWarpFail(FancyWarpMenu.getFullLanguageKey("errors.slotNumberOutOfBounds"), slotIndex);
         }
+
+        return false;
     }
 
     protected void drawButtons(int mouseX, int mouseY) {
-        for (GuiButton button : buttonList) {
+        // Indexed loop since this runs every frame and an iterator would be allocated each time
+        for (int i = 0; i < buttonList.size(); i++) {
+            GuiButton button = buttonList.get(i);
             if (button instanceof GuiButtonConfig || Settings.isWarpMenuEnabled()) {
                 button.drawButton(mc, mouseX, mouseY);
             }
         }
+
+        quadRenderer.draw();
     }
 
     /**
      * Updates the enable and visibility states of all the buttons in this {@code GuiFancyWarp}.
      * This should be called when the screen is initialized or mod settings affecting button enable/visibility change.
      *
-     * @see WarpVisibilityChecks#shouldShowWarp(Warp)
+     * @see VisibilityContext#isWarpVisible(Warp)
      * @see Settings#shouldHideWarpLabelForIslandsWithOneWarp()
      */
     @Override
     protected void updateButtonStates() {
+        VisibilityContext visibilityContext = VisibilityContext.capture(layout);
+
         for (GuiButton button : buttonList) {
             // Skip the config button as it's active on both the custom and default UI.
             if (button instanceof GuiButtonChestMenu && !(button instanceof GuiButtonConfig)) {
@@ -464,7 +550,7 @@ public class GuiFancyWarp extends GuiChestMenu {
                     Island island = ((GuiButtonIsland) button).getIsland();
 
                     if (island.getWarpCount() == 1) {
-                        boolean showIsland = WarpVisibilityChecks.shouldShowSingleWarpIsland(island);
+                        boolean showIsland = visibilityContext.isSingleWarpIslandVisible(island);
 
                         buttonChestMenu.setVisible(showIsland);
                     }
@@ -472,7 +558,7 @@ public class GuiFancyWarp extends GuiChestMenu {
                     GuiButtonWarp warpButton = (GuiButtonWarp) button;
                     Island island = warpButton.getIsland();
                     Warp warp = warpButton.getWarp();
-                    boolean shouldShowWarp = WarpVisibilityChecks.shouldShowWarp(warp);
+                    boolean shouldShowWarp = visibilityContext.isWarpVisible(warp);
 
                     if (island.getWarpCount() == 1) {
                         warpButton.setDrawWarpLabel(!Settings.shouldHideWarpLabelForIslandsWithOneWarp());
@@ -491,32 +577,78 @@ public class GuiFancyWarp extends GuiChestMenu {
      * @param triggerCount number of times {@link #inventoryListener} was triggered
      */
     private void onChestItemChange(int triggerCount) {
-        /*
-        Don't start checking until the item in the last slot to check has been loaded.
+        try {
+            if (menuVerifier == null) {
+                menuVerifier = new IncrementalMenuVerifier(menu);
+            }
 
-        The item change event is triggered twice for each item, and the item stack is set on the 2nd time it's
-        triggered. For example, slot 53 is actually set on the 106th time the item change event triggers.
-        (lastSlotIndexToCheck + 1) since slots are 0-indexed but trigger count starts at 1
-         */
-        if (triggerCount > (lastSlotIndexToCheck + 1) * 2) {
-            try {
+            // Enable the menu as soon as every match condition's slot has loaded and matches
+            if (menuVerifier.update(chestInventory)) {
+                onMenuItemsChecked(true);
+                return;
+            }
+
+            /*
+            If the conditions still don't match once the item in the last slot to check has been loaded,
+            check all of them again to log the mismatch and fall back to the default UI.
+
+            The item change event is triggered twice for each item, and the item stack is set on the 2nd time it's
+            triggered. For example, slot 53 is actually set on the 106th time the item change event triggers.
+            (lastSlotIndexToCheck + 1) since slots are 0-indexed but trigger count starts at 1
+             */
+            if (triggerCount > (lastSlotIndexToCheck + 1) * 2) {
                 boolean menuItemsMatch = GameChecks.menuItemsMatch(menu, chestInventory);
-                setCustomUIState(menuItemsMatch, menuItemsMatch);
-                updateButtonStates();
-                configButton.setVisible(menuItemsMatch);
+                onMenuItemsChecked(menuItemsMatch);
 
                 if (!menuItemsMatch) {
                     ChatUtils.sendMessageWithModNamePrefix("Warning: Chest has correct name but items mismatched");
                 }
-            } catch (RuntimeException e) {
-                ChatUtils.sendErrorMessageWithCopyableThrowable("fancywarpmenu.errors.fancyWarpGui.itemMatchFailed", e);
-                setCustomUIState(false, false);
-            } finally {
-                chestInventory.removeInventoryChangeListener(inventoryListener);
             }
+        } catch (RuntimeException e) {
+            ChatUtils.sendErrorMessageWithCopyableThrowable("fancywarpmenu.errors.fancyWarpGui.itemMatchFailed", e);
+            setCustomUIState(false, false);
+            chestInventory.removeInventoryChangeListener(inventoryListener);
+        }
+    }
+
+    /**
+     * Called with the contents of a window packet for this menu before they're put in the chest inventory.
+     * If the packet's items match the menu, the custom UI is shown right away. Otherwise, the items are checked again
+     * as they're added to the chest inventory.
+     *
+     * @param packetMenu the menu identified from the window's title
+     * @param windowId ID of the window the items belong to
+     * @param itemStacks the window's item stacks, indexed by slot
+     * @see ca.tirelesstraveler.fancywarpmenu.listeners.WarpMenuPacketDetector
+     */
+    public void onWindowItemsReceived(Menu packetMenu, int windowId, ItemStack[] itemStacks) {
+        if (menuItemsChecked || inventoryListener == null || packetMenu != menu || windowId != inventorySlots.windowId) {
+            return;
+        }
+
+        try {
+            if (GameChecks.itemStacksMatch(menu, itemStacks)) {
+                onMenuItemsChecked(true);
+            }
+        } catch (RuntimeException e) {
+            // The inventory change listener checks the items again and reports errors
+            logger.warn("Failed to check window items for menu " + menu, e);
         }
     }
 
+    /**
+     * Shows or hides the custom UI once the menu's items have been checked and stops listening for item changes
+     *
+     * @param menuItemsMatch whether the menu's items matched its match conditions
+     */
+    private void onMenuItemsChecked(boolean menuItemsMatch) {
+        menuItemsChecked = true;
+        chestInventory.removeInventoryChangeListener(inventoryListener);
+        setCustomUIState(menuItemsMatch, menuItemsMatch);
+        updateButtonStates();
+        configButton.setVisible(menuItemsMatch);
+    }
+
     /**
      * Tests for and handles a {@code GuiButton} press if the provided button was pressed. This re-implements most of
      * the logic from {@link net.minecraft.client.gui.GuiScreen#mouseClicked(int, int, int)} that is skipped when
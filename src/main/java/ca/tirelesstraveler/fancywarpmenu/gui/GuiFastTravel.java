@@ -28,7 +28,7 @@ import ca.tirelesstraveler.fancywarpmenu.data.layout.Layout;
 import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.Menu;
 import ca.tirelesstraveler.fancywarpmenu.gui.buttons.GuiButtonIsland;
 import ca.tirelesstraveler.fancywarpmenu.gui.buttons.GuiButtonWarp;
-import ca.tirelesstraveler.fancywarpmenu.utils.GameChecks;
+import ca.tirelesstraveler.fancywarpmenu.state.WarpAttemptTracker;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiButton;
 import net.minecraft.inventory.IInventory;
@@ -48,29 +48,22 @@ public class GuiFastTravel extends GuiFancyWarp {
         // Block repeat clicks if the last warp failed
         if (Minecraft.getSystemTime() > warpFailCoolDownExpiryTime) {
             if (button instanceof GuiButtonWarp) {
-                GuiButtonWarp warpButton = (GuiButtonWarp) button;
-
-                // Don't send command twice for single warp islands
-                if (warpButton.getIsland().getWarpCount() > 1) {
-                    String warpCommand = warpButton.getWarpCommand();
-                    mc.thePlayer.sendChatMessage(warpCommand);
-                }
+                String warpCommand = ((GuiButtonWarp) button).getWarpCommand();
+                sendWarpCommand(warpCommand);
             } else if (button instanceof GuiButtonIsland) {
                 Island island = ((GuiButtonIsland) button).getIsland();
 
                 if (island.getWarpCount() == 1) {
                     String warpCommand = island.getWarps().get(0).getWarpCommand();
-                    mc.thePlayer.sendChatMessage(warpCommand);
+                    sendWarpCommand(warpCommand);
                 }
             }
         }
     }
 
-    @Override
-    protected void updateButtonStates() {
-        // Season is needed to show/hide the Jerry island button.
-        GameChecks.checkSeason();
-
-        super.updateButtonStates();
+    private void sendWarpCommand(String warpCommand) {
+        mc.thePlayer.sendChatMessage(warpCommand);
+        WarpAttemptTracker.onWarpAttempt(WarpAttemptTracker.getDestinationFromCommand(warpCommand),
+                WarpAttemptTracker.WarpSource.MENU);
     }
 }
@@ -25,9 +25,11 @@ package ca.tirelesstraveler.fancywarpmenu.gui;
 import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
 import ca.tirelesstraveler.fancywarpmenu.data.layout.Island;
 import ca.tirelesstraveler.fancywarpmenu.data.layout.Layout;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Warp;
 import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.Menu;
 import ca.tirelesstraveler.fancywarpmenu.gui.buttons.GuiButtonIsland;
 import ca.tirelesstraveler.fancywarpmenu.gui.buttons.GuiButtonWarp;
+import ca.tirelesstraveler.fancywarpmenu.state.WarpAttemptTracker;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiButton;
 import net.minecraft.inventory.IInventory;
@@ -47,19 +49,21 @@ public class GuiRiftFastTravel extends GuiFancyWarp {
         // Block repeat clicks if the last warp failed
         if (Minecraft.getSystemTime() > warpFailCoolDownExpiryTime) {
             if (button instanceof GuiButtonWarp) {
-                GuiButtonWarp warpButton = (GuiButtonWarp) button;
-
-                // Don't click twice for islands with only one warp
-                if (warpButton.getIsland().getWarpCount() > 1) {
-                    clickSlot(warpButton.getWarpSlotIndex());
-                }
+                clickWarpSlot(((GuiButtonWarp) button).getWarp());
             } else if (button instanceof GuiButtonIsland) {
                 Island island = ((GuiButtonIsland) button).getIsland();
 
                 if (island.getWarpCount() == 1) {
-                    clickSlot(island.getWarps().get(0).getSlotIndex());
+                    clickWarpSlot(island.getWarps().get(0));
                 }
             }
         }
     }
+
+    private void clickWarpSlot(Warp warp) {
+        // Rift warps don't have commands, so they're tracked by name
+        if (clickSlot(warp.getSlotIndex())) {
+            WarpAttemptTracker.onWarpAttempt(warp.getDisplayName(), WarpAttemptTracker.WarpSource.MENU);
+        }
+    }
 }
@@ -25,43 +25,28 @@ package ca.tirelesstraveler.fancywarpmenu.gui.buttons;
 import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
 import ca.tirelesstraveler.fancywarpmenu.data.Settings;
 import ca.tirelesstraveler.fancywarpmenu.data.layout.ConfigButton;
-import ca.tirelesstraveler.fancywarpmenu.data.layout.Island;
 import ca.tirelesstraveler.fancywarpmenu.data.layout.Layout;
 import ca.tirelesstraveler.fancywarpmenu.gui.grid.GridRectangle;
-import ca.tirelesstraveler.fancywarpmenu.gui.grid.ScaledGrid;
+import ca.tirelesstraveler.fancywarpmenu.gui.grid.LayoutSnapshot;
 import ca.tirelesstraveler.fancywarpmenu.gui.transitions.ScaleTransition;
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.gui.ScaledResolution;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.util.EnumChatFormatting;
 import net.minecraftforge.common.ForgeVersion;
 
-@SuppressWarnings("FieldCanBeLocal")
 public class GuiButtonConfig extends GuiButtonScaleTransition {
     private static final float HOVERED_SCALE = 1.2F;
     private static final long SCALE_TRANSITION_DURATION = 500;
 
-    /** This button uses its own grid instead of the grid of the GuiScreen it belongs to since it's also attached to vanilla screens, which don't have grids */
-    private final ScaledGrid scaledGrid;
-    // Far right edge
-    private final int GRID_X;
-    // Bottom edge
-    private final int GRID_Y;
-
-    public GuiButtonConfig(Layout layout, int buttonId, ScaledResolution res) {
+    public GuiButtonConfig(Layout layout, int buttonId, LayoutSnapshot layoutSnapshot) {
         super(buttonId, EnumChatFormatting.GREEN + I18n.format(FancyWarpMenu.getFullLanguageKey("gui.buttons.config")));
-        scaledGrid = new ScaledGrid(0, 0, res.getScaledWidth(), res.getScaledHeight(), Island.GRID_UNIT_HEIGHT_FACTOR, Island.GRID_UNIT_WIDTH_FACTOR, false);
-        ConfigButton configButtonSettings = layout.getConfigButton();
-        configButtonSettings.init(res);
-        GRID_X = configButtonSettings.getGridX();
-        GRID_Y = configButtonSettings.getGridY();
-        width = configButtonSettings.getWidth();
-        height = configButtonSettings.getHeight();
+        LayoutSnapshot.ButtonPlacement placement = layoutSnapshot.getConfigButtonPlacement();
+        width = placement.getWidth();
+        height = placement.getHeight();
         // Above islands and warps
         zLevel = 20;
-        buttonRectangle = new GridRectangle(scaledGrid, GRID_X, GRID_Y, width, height, false, true);
-        scaledGrid.addRectangle("configButton", buttonRectangle);
-        backgroundTextureLocation = configButtonSettings.getTextureLocation();
+        buttonRectangle = new GridRectangle(placement.getX(), placement.getY(), width, height, true);
+        backgroundTextureLocation = layout.getConfigButton().getTextureLocation();
         transition = new ScaleTransition(0, 1, 1);
     }
 
@@ -78,4 +63,10 @@ public class GuiButtonConfig extends GuiButtonScaleTransition {
             }
         }
     }
+
+    @Override
+    public float[] getMaxBounds() {
+        return getBoundsScaledFromCentre(buttonRectangle.getOriginalXPosition(), buttonRectangle.getOriginalYPosition(),
+                buttonRectangle.getOriginalWidth(), buttonRectangle.getOriginalHeight(), HOVERED_SCALE);
+    }
 }
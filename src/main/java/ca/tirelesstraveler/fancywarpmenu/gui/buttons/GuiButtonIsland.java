@@ -22,37 +22,41 @@
 
 package ca.tirelesstraveler.fancywarpmenu.gui.buttons;
 
+import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
 import ca.tirelesstraveler.fancywarpmenu.data.layout.Island;
 import ca.tirelesstraveler.fancywarpmenu.data.Settings;
 import ca.tirelesstraveler.fancywarpmenu.data.layout.Warp;
-import ca.tirelesstraveler.fancywarpmenu.gui.GuiFancyWarp;
+import ca.tirelesstraveler.fancywarpmenu.gui.grid.LayoutSnapshot;
 import ca.tirelesstraveler.fancywarpmenu.gui.grid.ScaledGrid;
+import ca.tirelesstraveler.fancywarpmenu.gui.textures.TextureResidencyManager;
 import ca.tirelesstraveler.fancywarpmenu.gui.transitions.ScaleTransition;
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.gui.ScaledResolution;
 import net.minecraft.util.EnumChatFormatting;
 
 import java.awt.*;
 
 public class GuiButtonIsland extends GuiButtonScaleTransition {
-    private static final float HOVERED_SCALE = 1.1F;
+    public static final float HOVERED_SCALE = 1.1F;
     private static final long SCALE_TRANSITION_DURATION = 400;
     final Island island;
     final ScaledGrid scaledGrid;
 
-    public GuiButtonIsland(GuiFancyWarp parent, int buttonId, ScaledResolution res, Island island) {
+    /**
+     * @param placement the island's placement from the {@link LayoutSnapshot} of the screen's layout
+     */
+    public GuiButtonIsland(int buttonId, Island island, LayoutSnapshot.ButtonPlacement placement) {
         super(buttonId, "");
         this.island = island;
-        island.init(res);
-        scaledXPosition = parent.getScaledGrid().getActualX(island.getGridX());
-        scaledYPosition = parent.getScaledGrid().getActualY(island.getGridY());
+        scaledXPosition = placement.getX();
+        scaledYPosition = placement.getY();
         zLevel = island.getzLevel();
-        width = island.getWidth();
-        height = island.getHeight();
+        width = placement.getWidth();
+        height = placement.getHeight();
         scaledGrid = new ScaledGrid(scaledXPosition, scaledYPosition, width, height, Warp.GRID_UNIT_WIDTH_FACTOR, true);
         displayString = EnumChatFormatting.GREEN + island.getName();
-        backgroundTextureLocation = island.getTextureLocation();
-        foregroundTextureLocation = island.getHoverEffectTextureLocation();
+        TextureResidencyManager textureResidencyManager = FancyWarpMenu.getTextureResidencyManager();
+        backgroundTextureLocation = textureResidencyManager.getIslandTextureVariant(island, island.getTextureLocation());
+        foregroundTextureLocation = textureResidencyManager.getIslandTextureVariant(island, island.getHoverEffectTextureLocation());
         transition = new ScaleTransition(0, 1, 1);
 
         // Each line is drawn separately. Copy the colour code to all lines.
@@ -68,11 +72,14 @@ public class GuiButtonIsland extends GuiButtonScaleTransition {
 
             transitionStep(SCALE_TRANSITION_DURATION, HOVERED_SCALE);
 
-            scaledGrid.setScaleFactor(transition.getCurrentScale());
-            scaledXPosition = scaledGrid.getGridStartX();
-            scaledYPosition = scaledGrid.getGridStartY();
-            scaledWidth = scaledGrid.getScaledDimension(width);
-            scaledHeight = scaledGrid.getScaledDimension(height);
+            if (!isSettled()) {
+                scaledGrid.setScaleFactor(transition.getCurrentScale());
+                scaledXPosition = scaledGrid.getGridStartX();
+                scaledYPosition = scaledGrid.getGridStartY();
+                scaledWidth = scaledGrid.getScaledDimension(width);
+                scaledHeight = scaledGrid.getScaledDimension(height);
+                onLayoutCalculated();
+            }
 
             if (hovered) {
                 zLevel = 9;
@@ -95,6 +102,12 @@ public class GuiButtonIsland extends GuiButtonScaleTransition {
         }
     }
 
+    @Override
+    public float[] getMaxBounds() {
+        return getBoundsScaledFromCentre(scaledGrid.ORIGINAL_X_POSITION, scaledGrid.ORIGINAL_Y_POSITION,
+                scaledGrid.ORIGINAL_GRID_WIDTH, scaledGrid.ORIGINAL_GRID_HEIGHT, HOVERED_SCALE);
+    }
+
     public Island getIsland() {
         return island;
     }
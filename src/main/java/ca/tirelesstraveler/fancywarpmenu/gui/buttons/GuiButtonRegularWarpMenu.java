@@ -24,37 +24,26 @@ package ca.tirelesstraveler.fancywarpmenu.gui.buttons;
 
 import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
 import ca.tirelesstraveler.fancywarpmenu.data.layout.Layout;
-import ca.tirelesstraveler.fancywarpmenu.data.layout.RegularWarpMenuButton;
 import ca.tirelesstraveler.fancywarpmenu.gui.grid.GridRectangle;
-import ca.tirelesstraveler.fancywarpmenu.gui.grid.ScaledGrid;
+import ca.tirelesstraveler.fancywarpmenu.gui.grid.LayoutSnapshot;
 import ca.tirelesstraveler.fancywarpmenu.gui.transitions.ScaleTransition;
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.gui.ScaledResolution;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.util.EnumChatFormatting;
 
-@SuppressWarnings("FieldCanBeLocal")
 public class GuiButtonRegularWarpMenu extends GuiButtonScaleTransition {
     private static final float HOVERED_SCALE = 1.2F;
     private static final long SCALE_TRANSITION_DURATION = 500;
-    // Far right edge
-    private final int GRID_X;
-    // Bottom edge
-    private final int GRID_Y;
 
-    public GuiButtonRegularWarpMenu(Layout layout, int buttonId, ScaledResolution res, ScaledGrid scaledGrid) {
+    public GuiButtonRegularWarpMenu(Layout layout, int buttonId, LayoutSnapshot layoutSnapshot) {
         super(buttonId, EnumChatFormatting.GREEN + I18n.format(FancyWarpMenu.getFullLanguageKey("gui.buttons.regularWarpMenu")));
-        RegularWarpMenuButton regularWarpMenuButtonSettings = layout.getRegularWarpMenuButton();
-        regularWarpMenuButtonSettings.init(res);
-        GRID_X = regularWarpMenuButtonSettings.getGridX();
-        GRID_Y = regularWarpMenuButtonSettings.getGridY();
-        width = regularWarpMenuButtonSettings.getWidth();
-        height = regularWarpMenuButtonSettings.getHeight();
+        LayoutSnapshot.ButtonPlacement placement = layoutSnapshot.getRegularWarpMenuButtonPlacement();
+        width = placement.getWidth();
+        height = placement.getHeight();
         // Above islands and warps
         zLevel = 20;
-        buttonRectangle = new GridRectangle(scaledGrid, GRID_X, GRID_Y, width, height, false, true);
-        scaledGrid.addRectangle("regularWarpMenuButton", buttonRectangle);
-        backgroundTextureLocation = regularWarpMenuButtonSettings.getTextureLocation();
+        buttonRectangle = new GridRectangle(placement.getX(), placement.getY(), width, height, true);
+        backgroundTextureLocation = layout.getRegularWarpMenuButton().getTextureLocation();
         transition = new ScaleTransition(0, 1, 1);
         displayString = String.join("\n", Minecraft.getMinecraft().fontRendererObj.listFormattedStringToWidth(displayString, width * 3));
     }
@@ -68,4 +57,10 @@ public class GuiButtonRegularWarpMenu extends GuiButtonScaleTransition {
             super.drawButton(mc, mouseX, mouseY);
         }
     }
+
+    @Override
+    public float[] getMaxBounds() {
+        return getBoundsScaledFromCentre(buttonRectangle.getOriginalXPosition(), buttonRectangle.getOriginalYPosition(),
+                buttonRectangle.getOriginalWidth(), buttonRectangle.getOriginalHeight(), HOVERED_SCALE);
+    }
 }
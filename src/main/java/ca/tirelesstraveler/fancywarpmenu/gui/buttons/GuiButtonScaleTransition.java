@@ -23,6 +23,7 @@
 package ca.tirelesstraveler.fancywarpmenu.gui.buttons;
 
 import ca.tirelesstraveler.fancywarpmenu.data.Settings;
+import ca.tirelesstraveler.fancywarpmenu.gui.BatchedQuadRenderer;
 import ca.tirelesstraveler.fancywarpmenu.gui.grid.GridRectangle;
 import ca.tirelesstraveler.fancywarpmenu.gui.transitions.ScaleTransition;
 import net.minecraft.client.Minecraft;
@@ -48,6 +49,16 @@ public abstract class GuiButtonScaleTransition extends GuiButtonChestMenu {
     protected float scaledYPosition;
     protected float scaledWidth;
     protected float scaledHeight;
+    /** Renderer that draws this button's textures and labels, textures are drawn immediately if {@code null} */
+    protected BatchedQuadRenderer quadRenderer;
+    /** Deferred draw calls reused every frame so queueing the label and border doesn't allocate */
+    private final LabelDrawCall labelDrawCall = new LabelDrawCall();
+    private final BorderDrawCall borderDrawCall = new BorderDrawCall();
+    /** {@link #displayString} split into lines, re-split only when {@code displayString} is replaced */
+    private String[] displayStringLines;
+    private String splitDisplayString;
+    /** Scale this button's position and size were last calculated at, {@code NaN} before the first calculation */
+    private float layoutScale = Float.NaN;
 
     public GuiButtonScaleTransition(int buttonId, String buttonText) {
         super(buttonId, buttonText);
@@ -57,7 +68,46 @@ public abstract class GuiButtonScaleTransition extends GuiButtonChestMenu {
      * Button hover calculations adapted for float values instead of int
      */
     public void calculateHoverState(int mouseX, int mouseY) {
-        hovered = mouseX >= scaledXPosition && mouseY >= scaledYPosition && mouseX <= scaledXPosition + scaledWidth && mouseY <= this.scaledYPosition + scaledHeight;
+        hovered = isMouseWithinBounds(mouseX, mouseY);
+    }
+
+    /**
+     * Returns whether the given mouse position is within this button as it was last drawn
+     */
+    public boolean isMouseWithinBounds(int mouseX, int mouseY) {
+        return mouseX >= scaledXPosition && mouseY >= scaledYPosition && mouseX <= scaledXPosition + scaledWidth && mouseY <= this.scaledYPosition + scaledHeight;
+    }
+
+    /**
+     * Returns whether this button's transition has settled and its position and size are already calculated for its
+     * current scale. Settled buttons skip recalculating their layout when drawn.
+     */
+    public boolean isSettled() {
+        return transition.isSettled() && layoutScale == transition.getCurrentScale();
+    }
+
+    /**
+     * Records that this button's position and size were calculated for the transition's current scale
+     */
+    protected void onLayoutCalculated() {
+        layoutScale = transition.getCurrentScale();
+    }
+
+    /**
+     * Returns the rectangle that covers this button at every scale it can be drawn at, as
+     * {@code {left, top, right, bottom}}. This is used to place the button in a
+     * {@link ca.tirelesstraveler.fancywarpmenu.gui.grid.ButtonSpatialIndex}.
+     */
+    public abstract float[] getMaxBounds();
+
+    /**
+     * Returns the bounds of a rectangle expanded from its centre by the given scale, as {@code {left, top, right, bottom}}
+     */
+    protected static float[] getBoundsScaledFromCentre(float x, float y, float width, float height, float scale) {
+        float xMargin = (width * scale - width) / 2;
+        float yMargin = (height * scale - height) / 2;
+
+        return new float[]{x - xMargin, y - yMargin, x + width + xMargin, y + height + yMargin};
     }
 
     /**
@@ -66,13 +116,19 @@ public abstract class GuiButtonScaleTransition extends GuiButtonChestMenu {
      * @param color color of the border
      */
     public void drawBorder(Color color) {
-        GlStateManager.pushMatrix();
-        GlStateManager.translate(0, 0, zLevel);
-        drawHorizontalLine((int) scaledXPosition, (int) (scaledXPosition + scaledWidth), (int) scaledYPosition, color.getRGB());
-        drawVerticalLine((int) scaledXPosition, (int) scaledYPosition, (int) (scaledYPosition + scaledHeight), color.getRGB());
-        drawHorizontalLine((int) scaledXPosition, (int) (scaledXPosition + scaledWidth), (int) (scaledYPosition + scaledHeight), color.getRGB());
-        drawVerticalLine((int) (scaledXPosition + scaledWidth), (int) scaledYPosition, (int) (scaledYPosition + scaledHeight), color.getRGB());
-        GlStateManager.popMatrix();
+        BorderDrawCall drawCall = borderDrawCall;
+        drawCall.color = color.getRGB();
+        drawCall.left = (int) scaledXPosition;
+        drawCall.top = (int) scaledYPosition;
+        drawCall.right = (int) (scaledXPosition + scaledWidth);
+        drawCall.bottom = (int) (scaledYPosition + scaledHeight);
+        drawCall.zLevel = zLevel;
+
+        if (quadRenderer != null) {
+            quadRenderer.addDrawCall(drawCall.zLevel, drawCall);
+        } else {
+            drawCall.run();
+        }
     }
 
     /**
@@ -85,11 +141,14 @@ public abstract class GuiButtonScaleTransition extends GuiButtonChestMenu {
     @Override
     public void drawButton(Minecraft mc, int mouseX, int mouseY) {
         if (visible) {
-            buttonRectangle.scale(transition.getCurrentScale());
-            scaledXPosition = buttonRectangle.getXPosition();
-            scaledYPosition = buttonRectangle.getYPosition();
-            scaledWidth = buttonRectangle.getWidth();
-            scaledHeight = buttonRectangle.getHeight();
+            if (!isSettled()) {
+                buttonRectangle.scale(transition.getCurrentScale());
+                scaledXPosition = buttonRectangle.getXPosition();
+                scaledYPosition = buttonRectangle.getYPosition();
+                scaledWidth = buttonRectangle.getWidth();
+                scaledHeight = buttonRectangle.getHeight();
+                onLayoutCalculated();
+            }
 
             drawButtonTexture(backgroundTextureLocation);
 
@@ -101,7 +160,7 @@ public abstract class GuiButtonScaleTransition extends GuiButtonChestMenu {
 
     @Override
     public boolean mousePressed(Minecraft mc, int mouseX, int mouseY) {
-        return enabled && visible && mouseX >= scaledXPosition && mouseY >= scaledYPosition && mouseX <= scaledXPosition + scaledWidth && mouseY <= this.scaledYPosition + scaledHeight;
+        return enabled && visible && isMouseWithinBounds(mouseX, mouseY);
     }
 
     public void drawButtonForegroundLayer(ResourceLocation foregroundTextureLocation) {
@@ -116,15 +175,18 @@ public abstract class GuiButtonScaleTransition extends GuiButtonChestMenu {
      * @param textureLocation location of texture to draw
      */
     protected void drawButtonTexture(ResourceLocation textureLocation) {
+        float brightness = hovered ? HOVERED_BRIGHTNESS : UN_HOVERED_BRIGHTNESS;
+
+        if (quadRenderer != null) {
+            quadRenderer.addQuad(textureLocation, scaledXPosition, scaledYPosition, scaledWidth, scaledHeight, zLevel, brightness);
+            return;
+        }
+
         Minecraft.getMinecraft().getTextureManager().bindTexture(textureLocation);
         GlStateManager.enableBlend();
         // Blend allows the texture to be drawn with transparency intact
         GlStateManager.tryBlendFuncSeparate(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA, 1, 0);
-        if (hovered) {
-            GlStateManager.color(HOVERED_BRIGHTNESS, HOVERED_BRIGHTNESS, HOVERED_BRIGHTNESS);
-        } else {
-            GlStateManager.color(UN_HOVERED_BRIGHTNESS, UN_HOVERED_BRIGHTNESS, UN_HOVERED_BRIGHTNESS);
-        }
+        GlStateManager.color(brightness, brightness, brightness);
         Tessellator tessellator = Tessellator.getInstance();
         WorldRenderer worldRenderer = tessellator.getWorldRenderer();
         worldRenderer.begin(7, DefaultVertexFormats.POSITION_TEX);
@@ -147,25 +209,41 @@ public abstract class GuiButtonScaleTransition extends GuiButtonChestMenu {
      * @param yOffset y-offset from button top
      */
     public void drawDisplayString(Minecraft mc, float xOffset, float yOffset) {
-        String[] lines = displayString.split("\n");
+        LabelDrawCall drawCall = labelDrawCall;
+        drawCall.lines = getDisplayStringLines();
+        drawCall.x = scaledXPosition + xOffset;
+        drawCall.y = scaledYPosition + yOffset;
+        drawCall.zLevel = zLevel + 1;
+        drawCall.scale = transition.getCurrentScale();
+        drawCall.brightness = hovered ? HOVERED_BRIGHTNESS : UN_HOVERED_BRIGHTNESS;
 
-        if (hovered) {
-            GlStateManager.color(HOVERED_BRIGHTNESS, HOVERED_BRIGHTNESS, HOVERED_BRIGHTNESS);
+        if (quadRenderer != null) {
+            quadRenderer.addDrawCall(drawCall.zLevel, drawCall);
         } else {
-            GlStateManager.color(UN_HOVERED_BRIGHTNESS, UN_HOVERED_BRIGHTNESS, UN_HOVERED_BRIGHTNESS);
+            drawCall.run();
         }
-        GlStateManager.pushMatrix();
-        GlStateManager.translate(scaledXPosition + xOffset, scaledYPosition + yOffset, zLevel + 1);
-        GlStateManager.scale(transition.getCurrentScale(), transition.getCurrentScale(), 1);
-        for (int i = 0; i < lines.length; i++) {
-            drawCenteredString(mc.fontRendererObj, lines[i], 0, mc.fontRendererObj.FONT_HEIGHT * i, Color.WHITE.getRGB());
+    }
+
+    /**
+     * Returns {@link #displayString} split into lines. The split lines are cached until {@code displayString} is
+     * replaced with a different string.
+     */
+    protected String[] getDisplayStringLines() {
+        // Strings are immutable, so a reference check is enough to tell if the display string changed
+        if (displayString != splitDisplayString) {
+            displayStringLines = displayString.split("\n");
+            splitDisplayString = displayString;
         }
-        GlStateManager.popMatrix();
-        GlStateManager.color(1,1,1);
+
+        return displayStringLines;
+    }
+
+    public void setQuadRenderer(BatchedQuadRenderer quadRenderer) {
+        this.quadRenderer = quadRenderer;
     }
 
     /**
-     * Recalculates the progress of {@code transition} towards its end time and reverses the direction of transition if
+     * Recalculates the progress of {@code transition} towards its end time and retargets the transition if
      * this button's hover state changes
      *
      * @param scaleTransitionDuration duration from transition start to finish
@@ -173,15 +251,58 @@ public abstract class GuiButtonScaleTransition extends GuiButtonChestMenu {
      */
     public void transitionStep(long scaleTransitionDuration, float hoveredScale) {
         transition.step();
+        // Reversing takes as long as the transition has been running, so the button returns at the same speed
+        long reverseDuration = (long) (transition.getProgress() * scaleTransitionDuration);
 
-        if (hovered) {
-            if (transition.getEndScale() == 1) {
-                transition = new ScaleTransition((long) (transition.getProgress() * scaleTransitionDuration), transition.getCurrentScale(), hoveredScale);
-            }
-        } else {
-            if (transition.getEndScale() == hoveredScale) {
-                transition = new ScaleTransition((long) (transition.getProgress() * scaleTransitionDuration), transition.getCurrentScale(), 1);
+        transition.retarget(hovered ? hoveredScale : 1, reverseDuration);
+    }
+
+    /**
+     * Draws this button's display string with the values captured when it was queued
+     */
+    private class LabelDrawCall implements Runnable {
+        private String[] lines;
+        private float x;
+        private float y;
+        private float zLevel;
+        private float scale;
+        private float brightness;
+
+        @Override
+        public void run() {
+            Minecraft mc = Minecraft.getMinecraft();
+            GlStateManager.color(brightness, brightness, brightness);
+            GlStateManager.pushMatrix();
+            GlStateManager.translate(x, y, zLevel);
+            GlStateManager.scale(scale, scale, 1);
+            for (int i = 0; i < lines.length; i++) {
+                drawCenteredString(mc.fontRendererObj, lines[i], 0, mc.fontRendererObj.FONT_HEIGHT * i, Color.WHITE.getRGB());
             }
+            GlStateManager.popMatrix();
+            GlStateManager.color(1,1,1);
+        }
+    }
+
+    /**
+     * Draws this button's border with the values captured when it was queued
+     */
+    private class BorderDrawCall implements Runnable {
+        private int color;
+        private int left;
+        private int top;
+        private int right;
+        private int bottom;
+        private float zLevel;
+
+        @Override
+        public void run() {
+            GlStateManager.pushMatrix();
+            GlStateManager.translate(0, 0, zLevel);
+            drawHorizontalLine(left, right, top, color);
+            drawVerticalLine(left, top, bottom, color);
+            drawHorizontalLine(left, right, bottom, color);
+            drawVerticalLine(right, top, bottom, color);
+            GlStateManager.popMatrix();
         }
     }
 }
@@ -26,6 +26,8 @@ import ca.tirelesstraveler.fancywarpmenu.data.layout.Island;
 import ca.tirelesstraveler.fancywarpmenu.data.Settings;
 import ca.tirelesstraveler.fancywarpmenu.data.layout.Warp;
 import ca.tirelesstraveler.fancywarpmenu.gui.grid.GridRectangle;
+import ca.tirelesstraveler.fancywarpmenu.gui.grid.LayoutSnapshot;
+import ca.tirelesstraveler.fancywarpmenu.gui.grid.ScaledGrid;
 import ca.tirelesstraveler.fancywarpmenu.gui.transitions.ScaleTransition;
 import net.minecraft.client.Minecraft;
 
@@ -38,18 +40,21 @@ public class GuiButtonWarp extends GuiButtonScaleTransition {
 
     /**
      * x and y are relative to the top left corner of the parent island button.
+     *
+     * @param layoutSnapshot snapshot of the screen's layout, used for the size and textures of the warp button
      */
-    public GuiButtonWarp(int buttonId, GuiButtonIsland parent, Warp warp) {
+    public GuiButtonWarp(int buttonId, GuiButtonIsland parent, Warp warp, LayoutSnapshot layoutSnapshot) {
         super(buttonId, "");
         PARENT = parent;
         WARP = warp;
-        buttonRectangle = new GridRectangle(parent.scaledGrid, warp.getGridX(), warp.getGridY(), warp.getWidth(), warp.getHeight(), true, false);
+        buttonRectangle = new GridRectangle(parent.scaledGrid, warp.getGridX(), warp.getGridY(),
+                layoutSnapshot.getWarpWidth(), layoutSnapshot.getWarpHeight(), true, false);
         parent.scaledGrid.addRectangle(warp.getDisplayName(), buttonRectangle);
         zLevel = 10;
         displayString = warp.getDisplayName();
         drawWarpLabel = true;
-        backgroundTextureLocation = WARP.getWarpTextureLocation();
-        foregroundTextureLocation = WARP.getWarpHoverEffectTextureLocation();
+        backgroundTextureLocation = layoutSnapshot.getWarpTextureLocation();
+        foregroundTextureLocation = layoutSnapshot.getWarpHoverEffectTextureLocation();
         transition = new ScaleTransition(0, 0, 0);
     }
 
@@ -82,6 +87,33 @@ public class GuiButtonWarp extends GuiButtonScaleTransition {
         }
     }
 
+    /**
+     * Warps move and grow with their island, so this covers the warp at the island's normal and hovered scales.
+     */
+    @Override
+    public float[] getMaxBounds() {
+        float[] normalBounds = getBoundsOnIslandScale(1);
+        float[] hoveredBounds = getBoundsOnIslandScale(GuiButtonIsland.HOVERED_SCALE);
+
+        return new float[]{Math.min(normalBounds[0], hoveredBounds[0]), Math.min(normalBounds[1], hoveredBounds[1]),
+                Math.max(normalBounds[2], hoveredBounds[2]), Math.max(normalBounds[3], hoveredBounds[3])};
+    }
+
+    /**
+     * Returns the bounds of this warp when its island is drawn at the given scale, as {@code {left, top, right, bottom}}
+     */
+    private float[] getBoundsOnIslandScale(float islandScale) {
+        ScaledGrid islandGrid = PARENT.scaledGrid;
+        // The island grid expands from its centre
+        float gridStartX = islandGrid.ORIGINAL_X_POSITION - (islandGrid.ORIGINAL_GRID_WIDTH * islandScale - islandGrid.ORIGINAL_GRID_WIDTH) / 2;
+        float gridStartY = islandGrid.ORIGINAL_Y_POSITION - (islandGrid.ORIGINAL_GRID_HEIGHT * islandScale - islandGrid.ORIGINAL_GRID_HEIGHT) / 2;
+        float left = gridStartX + islandGrid.ORIGINAL_GRID_UNIT_WIDTH * islandScale * WARP.getGridX();
+        float top = gridStartY + islandGrid.ORIGINAL_GRID_UNIT_HEIGHT * islandScale * WARP.getGridY();
+
+        return new float[]{left, top, left + buttonRectangle.getOriginalWidth() * islandScale,
+                top + buttonRectangle.getOriginalHeight() * islandScale};
+    }
+
     public String getWarpCommand() {
         return WARP.getWarpCommand();
     }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2024. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.gui.grid;
+
+import ca.tirelesstraveler.fancywarpmenu.gui.buttons.GuiButtonScaleTransition;
+import net.minecraft.client.gui.GuiButton;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A uniform grid over the screen that finds the topmost button under the mouse without checking every button.
+ * <br>
+ * Each cell lists the buttons that can cover it, topmost first. A button is added to every cell its
+ * {@link GuiButtonScaleTransition#getMaxBounds() maximum bounds} overlap, so the index stays valid while buttons
+ * scale up and down and only has to be rebuilt when the buttons are created again.
+ */
+public class ButtonSpatialIndex {
+    private static final GuiButtonScaleTransition[] EMPTY_CELL = new GuiButtonScaleTransition[0];
+
+    private final float cellWidth;
+    private final float cellHeight;
+    private final int columns;
+    private final int rows;
+    private final GuiButtonScaleTransition[][] cells;
+
+    /**
+     * Creates an index of the given buttons.
+     *
+     * @param screenGrid the grid covering the whole screen
+     * @param columns number of columns of cells
+     * @param rows number of rows of cells
+     * @param buttons the buttons to index, sorted by z level from bottom to top. Buttons that aren't
+     *                {@link GuiButtonScaleTransition}s are skipped.
+     */
+    public ButtonSpatialIndex(ScaledGrid screenGrid, int columns, int rows, List<GuiButton> buttons) {
+        this.columns = columns;
+        this.rows = rows;
+        cellWidth = screenGrid.ORIGINAL_GRID_WIDTH / columns;
+        cellHeight = screenGrid.ORIGINAL_GRID_HEIGHT / rows;
+
+        List<List<GuiButtonScaleTransition>> cellLists = new ArrayList<>(columns * rows);
+
+        for (int i = 0; i < columns * rows; i++) {
+            cellLists.add(new ArrayList<>());
+        }
+
+        // Buttons later in the list are drawn over earlier ones, so add them first
+        for (int i = buttons.size() - 1; i >= 0; i--) {
+            if (!(buttons.get(i) instanceof GuiButtonScaleTransition)) {
+                continue;
+            }
+
+            GuiButtonScaleTransition button = (GuiButtonScaleTransition) buttons.get(i);
+            float[] bounds = button.getMaxBounds();
+            int startColumn = getColumn(bounds[0]);
+            int startRow = getRow(bounds[1]);
+            int endColumn = getColumn(bounds[2]);
+            int endRow = getRow(bounds[3]);
+
+            for (int row = startRow; row <= endRow; row++) {
+                for (int column = startColumn; column <= endColumn; column++) {
+                    cellLists.get(row * columns + column).add(button);
+                }
+            }
+        }
+
+        cells = new GuiButtonScaleTransition[columns * rows][];
+
+        for (int i = 0; i < cells.length; i++) {
+            List<GuiButtonScaleTransition> cellList = cellLists.get(i);
+            cells[i] = cellList.isEmpty() ? EMPTY_CELL : cellList.toArray(new GuiButtonScaleTransition[0]);
+        }
+    }
+
+    /**
+     * Returns the topmost visible button of the given type under the mouse.
+     *
+     * @param mouseX mouse x coordinate
+     * @param mouseY mouse y coordinate
+     * @param buttonClass type of button to look for
+     * @param enabledOnly {@code true} to skip disabled buttons
+     * @return the topmost matching button, or {@code null} if there is none
+     */
+    public <T extends GuiButtonScaleTransition> T getTopmostButtonAt(int mouseX, int mouseY, Class<T> buttonClass, boolean enabledOnly) {
+        if (mouseX < 0 || mouseY < 0 || mouseX > cellWidth * columns || mouseY > cellHeight * rows) {
+            return null;
+        }
+
+        for (GuiButtonScaleTransition button : cells[getRow(mouseY) * columns + getColumn(mouseX)]) {
+            if (button.visible && (!enabledOnly || button.enabled) && buttonClass.isInstance(button)
+                    && button.isMouseWithinBounds(mouseX, mouseY)) {
+                return buttonClass.cast(button);
+            }
+        }
+
+        return null;
+    }
+
+    private int getColumn(float x) {
+        return Math.max(0, Math.min(columns - 1, (int) (x / cellWidth)));
+    }
+
+    private int getRow(float y) {
+        return Math.max(0, Math.min(rows - 1, (int) (y / cellHeight)));
+    }
+}
@@ -64,6 +64,20 @@ public class GridRectangle {
         this.centerPositionWhenScaled = centerPositionWhenScaled;
     }
 
+    /**
+     * Creates a rectangle at a position that was already calculated. The rectangle isn't attached to a grid, so its
+     * position can't be scaled with one.
+     */
+    public GridRectangle(float xPosition, float yPosition, float width, float height, boolean centerPositionWhenScaled) {
+        this.scaledGrid = null;
+        this.xPosition = xPosition;
+        this.yPosition = yPosition;
+        this.width = width;
+        this.height = height;
+        this.scalePosition = false;
+        this.centerPositionWhenScaled = centerPositionWhenScaled;
+    }
+
     public void scale(float scaleFactor) {
         scaledWidth = width * scaleFactor;
         scaledHeight = height * scaleFactor;
@@ -77,6 +91,22 @@ public class GridRectangle {
         }
     }
 
+    public float getOriginalXPosition() {
+        return xPosition;
+    }
+
+    public float getOriginalYPosition() {
+        return yPosition;
+    }
+
+    public float getOriginalWidth() {
+        return width;
+    }
+
+    public float getOriginalHeight() {
+        return height;
+    }
+
     public float getXPosition() {
         if (scalePosition || centerPositionWhenScaled) {
             return scaledXPosition;
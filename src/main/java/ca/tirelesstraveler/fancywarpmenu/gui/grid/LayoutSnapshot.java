@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.gui.grid;
+
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Button;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Island;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Layout;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.WarpIcon;
+import net.minecraft.client.gui.ScaledResolution;
+import net.minecraft.util.ResourceLocation;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Positions and sizes of a layout's buttons at one screen resolution. Snapshots are cached by layout, scaled width,
+ * scaled height, and scale factor, so reopening the fancy warp menu at the same resolution skips the layout math.
+ * <br>
+ * Snapshots are only used on the main thread.
+ */
+public class LayoutSnapshot {
+    /** Enough for both layouts at the current and last resolution */
+    private static final int MAX_CACHED_SNAPSHOTS = 4;
+    private static final Map<Key, LayoutSnapshot> snapshotCache =
+            new LinkedHashMap<Key, LayoutSnapshot>(MAX_CACHED_SNAPSHOTS * 2, 0.75F, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, LayoutSnapshot> eldest) {
+                    return size() > MAX_CACHED_SNAPSHOTS;
+                }
+            };
+
+    /** Grid covering the whole screen. It's shared by all screens using this snapshot, so it must never be scaled. */
+    private final ScaledGrid screenGrid;
+    /** Island button placements in the same order as the layout's island list */
+    private final ButtonPlacement[] islandPlacements;
+    private final int warpWidth;
+    private final int warpHeight;
+    private final ResourceLocation warpTextureLocation;
+    private final ResourceLocation warpHoverEffectTextureLocation;
+    private final ButtonPlacement configButtonPlacement;
+    private final ButtonPlacement regularWarpMenuButtonPlacement;
+
+    private LayoutSnapshot(Layout layout, int scaledWidth, int scaledHeight) {
+        screenGrid = new ScaledGrid(0, 0, scaledWidth, scaledHeight, Island.GRID_UNIT_HEIGHT_FACTOR,
+                Island.GRID_UNIT_WIDTH_FACTOR, false);
+
+        List<Island> islandList = layout.getIslandList();
+        islandPlacements = new ButtonPlacement[islandList.size()];
+
+        for (int i = 0; i < islandPlacements.length; i++) {
+            Island island = islandList.get(i);
+            int width = (int) (scaledWidth * island.getWidthPercentage());
+            int height = getScaledTextureHeight(width, island.getTextureWidth(), island.getTextureHeight());
+
+            islandPlacements[i] = new ButtonPlacement(screenGrid.getActualX(island.getGridX()),
+                    screenGrid.getActualY(island.getGridY()), width, height);
+        }
+
+        WarpIcon warpIcon = layout.getWarpIcon();
+        warpWidth = (int) (scaledWidth * warpIcon.getWidthPercentage());
+        warpHeight = getScaledTextureHeight(warpWidth, warpIcon.getTextureWidth(), warpIcon.getTextureHeight());
+        warpTextureLocation = warpIcon.getTextureLocation();
+        warpHoverEffectTextureLocation = warpIcon.getHoverEffectTextureLocation();
+        configButtonPlacement = createButtonPlacement(layout.getConfigButton(), scaledWidth);
+        regularWarpMenuButtonPlacement = createButtonPlacement(layout.getRegularWarpMenuButton(), scaledWidth);
+    }
+
+    /**
+     * Gets the snapshot of the given layout at the given resolution, creating it if it isn't cached
+     *
+     * @param layout the layout to place
+     * @param res the resolution of the screen the layout is drawn on
+     * @return the snapshot of the layout at the given resolution
+     */
+    public static LayoutSnapshot get(Layout layout, ScaledResolution res) {
+        Key key = new Key(layout, res.getScaledWidth(), res.getScaledHeight(), res.getScaleFactor());
+        LayoutSnapshot snapshot = snapshotCache.get(key);
+
+        if (snapshot == null) {
+            snapshot = new LayoutSnapshot(layout, res.getScaledWidth(), res.getScaledHeight());
+            snapshotCache.put(key, snapshot);
+        }
+
+        return snapshot;
+    }
+
+    public ScaledGrid getScreenGrid() {
+        return screenGrid;
+    }
+
+    /**
+     * Gets the placement of an island button
+     *
+     * @param islandIndex index of the island in the layout's island list
+     */
+    public ButtonPlacement getIslandPlacement(int islandIndex) {
+        return islandPlacements[islandIndex];
+    }
+
+    public int getWarpWidth() {
+        return warpWidth;
+    }
+
+    public int getWarpHeight() {
+        return warpHeight;
+    }
+
+    public ResourceLocation getWarpTextureLocation() {
+        return warpTextureLocation;
+    }
+
+    public ResourceLocation getWarpHoverEffectTextureLocation() {
+        return warpHoverEffectTextureLocation;
+    }
+
+    public ButtonPlacement getConfigButtonPlacement() {
+        return configButtonPlacement;
+    }
+
+    public ButtonPlacement getRegularWarpMenuButtonPlacement() {
+        return regularWarpMenuButtonPlacement;
+    }
+
+    private ButtonPlacement createButtonPlacement(Button button, int scaledWidth) {
+        int width = (int) (scaledWidth * button.getWidthPercentage());
+        int height = getScaledTextureHeight(width, button.getTextureWidth(), button.getTextureHeight());
+
+        return new ButtonPlacement(screenGrid.getActualX(button.getGridX()), screenGrid.getActualY(button.getGridY()),
+                width, height);
+    }
+
+    /**
+     * Returns the height of a texture drawn at the given width with its aspect ratio kept
+     */
+    private static int getScaledTextureHeight(int width, int textureWidth, int textureHeight) {
+        float scaleFactor = (float) width / textureWidth;
+        return (int) (textureHeight * scaleFactor);
+    }
+
+    /**
+     * Position of the top left corner and size of a button at its normal scale
+     */
+    public static class ButtonPlacement {
+        private final float x;
+        private final float y;
+        private final int width;
+        private final int height;
+
+        private ButtonPlacement(float x, float y, int width, int height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        public float getX() {
+            return x;
+        }
+
+        public float getY() {
+            return y;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+    }
+
+    private static class Key {
+        private final Layout layout;
+        private final int scaledWidth;
+        private final int scaledHeight;
+        private final int scaleFactor;
+
+        private Key(Layout layout, int scaledWidth, int scaledHeight, int scaleFactor) {
+            this.layout = layout;
+            this.scaledWidth = scaledWidth;
+            this.scaledHeight = scaledHeight;
+            this.scaleFactor = scaleFactor;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            // Layouts are compared by identity so a reloaded layout gets a new snapshot
+            return layout == key.layout && scaledWidth == key.scaledWidth && scaledHeight == key.scaledHeight
+                    && scaleFactor == key.scaleFactor;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(layout);
+            result = 31 * result + scaledWidth;
+            result = 31 * result + scaledHeight;
+            result = 31 * result + scaleFactor;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2024. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.gui.textures;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.texture.AbstractTexture;
+import net.minecraft.client.renderer.texture.TextureUtil;
+import net.minecraft.client.resources.IResource;
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.client.resources.data.TextureMetadataSection;
+import net.minecraft.util.ResourceLocation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A texture whose pixels can be decoded ahead of time on any thread and uploaded later on the render thread.
+ * If the texture is loaded again, such as during a resource reload, it is decoded again on the render thread
+ * like a {@link net.minecraft.client.renderer.texture.SimpleTexture}.
+ * <br>
+ * An evicted texture has no GPU memory allocated for it. It stays registered with the texture manager and is
+ * loaded again synchronously the next time it's bound unless it is preloaded first.
+ * <br>
+ * Downscaled variant locations (see {@link TextureVariants}) are decoded from their original texture and downscaled.
+ * The blur and clamp settings in the original texture's {@code .mcmeta} file are applied like in
+ * {@link net.minecraft.client.renderer.texture.SimpleTexture}.
+ */
+public class DecodedTexture extends AbstractTexture {
+    private static final Logger logger = LogManager.getLogger();
+
+    private final ResourceLocation textureLocation;
+    private boolean evicted;
+    /** ARGB pixels waiting to be uploaded, {@code null} once uploaded */
+    private int[] pixels;
+    private int width;
+    private int height;
+    private boolean blur;
+    private boolean clamp;
+
+    public DecodedTexture(ResourceLocation textureLocation) {
+        this.textureLocation = textureLocation;
+    }
+
+    /**
+     * Creates a texture that starts out evicted. Registering it with the texture manager doesn't allocate any
+     * GPU memory.
+     *
+     * @param textureLocation location of the texture image
+     */
+    public static DecodedTexture createEvicted(ResourceLocation textureLocation) {
+        DecodedTexture texture = new DecodedTexture(textureLocation);
+        texture.evicted = true;
+        return texture;
+    }
+
+    /**
+     * Reads and decodes the texture image into a pixel array, downscaling it if this texture is a variant.
+     * This does not use OpenGL and can be called from any thread.
+     *
+     * @param resourceManager the resource manager to read the texture image from
+     * @throws IOException if the texture image can't be read
+     */
+    public void decode(IResourceManager resourceManager) throws IOException {
+        ResourceLocation sourceLocation = TextureVariants.getSourceLocation(textureLocation);
+        int decodedWidth;
+        int decodedHeight;
+        int[] decodedPixels;
+        boolean decodedBlur = false;
+        boolean decodedClamp = false;
+        IResource textureResource = resourceManager.getResource(sourceLocation);
+
+        try (InputStream textureStream = textureResource.getInputStream()) {
+            BufferedImage image = TextureUtil.readBufferedImage(textureStream);
+
+            decodedWidth = image.getWidth();
+            decodedHeight = image.getHeight();
+            decodedPixels = image.getRGB(0, 0, decodedWidth, decodedHeight, null, 0, decodedWidth);
+        }
+
+        if (textureResource.hasMetadata()) {
+            try {
+                TextureMetadataSection textureMetadataSection = textureResource.getMetadata("texture");
+
+                if (textureMetadataSection != null) {
+                    decodedBlur = textureMetadataSection.getTextureBlur();
+                    decodedClamp = textureMetadataSection.getTextureClamp();
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Failed to read metadata of texture " + sourceLocation, e);
+            }
+        }
+
+        for (int i = TextureVariants.getDownscaleLevel(textureLocation); i > 0; i--) {
+            decodedPixels = TextureVariants.downscale(decodedPixels, decodedWidth, decodedHeight);
+            decodedWidth = Math.max(1, decodedWidth / 2);
+            decodedHeight = Math.max(1, decodedHeight / 2);
+        }
+
+        width = decodedWidth;
+        height = decodedHeight;
+        blur = decodedBlur;
+        clamp = decodedClamp;
+        pixels = decodedPixels;
+    }
+
+    /**
+     * Uploads the decoded pixels to the GPU, decoding them first if they haven't been decoded yet.
+     * The pixel array is released afterwards. Evicted textures are skipped. This must be called on the render thread.
+     */
+    @Override
+    public void loadTexture(IResourceManager resourceManager) throws IOException {
+        if (evicted) {
+            return;
+        }
+
+        deleteGlTexture();
+
+        if (pixels == null) {
+            decode(resourceManager);
+        }
+
+        TextureUtil.allocateTexture(super.getGlTextureId(), width, height);
+        GlStateManager.bindTexture(super.getGlTextureId());
+        TextureUtil.uploadTextureMipmap(new int[][]{pixels}, width, height, 0, 0, blur, clamp);
+        pixels = null;
+    }
+
+    /**
+     * Returns the OpenGL name of this texture, loading the texture first if it was evicted.
+     */
+    @Override
+    public int getGlTextureId() {
+        if (evicted) {
+            evicted = false;
+
+            try {
+                loadTexture(Minecraft.getMinecraft().getResourceManager());
+            } catch (IOException e) {
+                logger.warn("Failed to load evicted texture {}", textureLocation, e);
+            }
+        }
+
+        return super.getGlTextureId();
+    }
+
+    /**
+     * Frees the GPU memory used by this texture. This must be called on the render thread.
+     */
+    public void evict() {
+        deleteGlTexture();
+        pixels = null;
+        evicted = true;
+    }
+
+    public boolean isEvicted() {
+        return evicted;
+    }
+
+    public ResourceLocation getTextureLocation() {
+        return textureLocation;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
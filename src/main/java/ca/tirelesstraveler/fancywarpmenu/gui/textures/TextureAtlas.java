@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2024. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.gui.textures;
+
+import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.texture.AbstractTexture;
+import net.minecraft.client.renderer.texture.TextureUtil;
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.util.ResourceLocation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * A single texture that holds several small textures (sprites) so buttons using different textures can be drawn
+ * without rebinding textures in between.
+ * <br>
+ * Sprites are packed in rows from tallest to shortest. Sprites that don't fit within the maximum texture size are left
+ * out and have to be drawn from their own textures. The atlas is rebuilt from the current resource packs whenever
+ * the texture manager reloads it.
+ */
+public class TextureAtlas extends AbstractTexture {
+    public static final ResourceLocation BUTTON_ATLAS_LOCATION = new ResourceLocation(FancyWarpMenu.getInstance().getModId(), "textures/atlas/buttons");
+    private static final Logger logger = LogManager.getLogger();
+    /** Transparent gap in pixels between sprites */
+    private static final int SPRITE_PADDING = 1;
+
+    private final Set<ResourceLocation> spriteLocations;
+    private Map<ResourceLocation, Sprite> sprites;
+
+    /**
+     * @param spriteLocations locations of the textures to pack into this atlas
+     */
+    public TextureAtlas(Collection<ResourceLocation> spriteLocations) {
+        this.spriteLocations = new LinkedHashSet<>(spriteLocations);
+        sprites = Collections.emptyMap();
+    }
+
+    @Override
+    public void loadTexture(IResourceManager resourceManager) throws IOException {
+        deleteGlTexture();
+
+        List<Map.Entry<ResourceLocation, BufferedImage>> images = new ArrayList<>();
+
+        for (ResourceLocation spriteLocation : spriteLocations) {
+            try (InputStream textureStream = resourceManager.getResource(spriteLocation).getInputStream()) {
+                images.add(new AbstractMap.SimpleImmutableEntry<>(spriteLocation, TextureUtil.readBufferedImage(textureStream)));
+            } catch (IOException e) {
+                // The texture will be loaded on its own and reported by the texture manager when it's bound
+                logger.warn("Failed to add texture {} to atlas", spriteLocation, e);
+            }
+        }
+
+        images.sort(Comparator.comparingInt((Map.Entry<ResourceLocation, BufferedImage> image) -> image.getValue().getHeight()).reversed());
+
+        int maxSize = Minecraft.getGLMaximumTextureSize();
+        Map<ResourceLocation, int[]> spritePositions = new LinkedHashMap<>();
+        int atlasWidth = 0;
+        int atlasHeight = 0;
+        int rowX = 0;
+        int rowY = 0;
+        int rowHeight = 0;
+
+        for (Map.Entry<ResourceLocation, BufferedImage> image : images) {
+            int spriteWidth = image.getValue().getWidth();
+            int spriteHeight = image.getValue().getHeight();
+
+            if (rowX + spriteWidth > maxSize) {
+                rowX = 0;
+                rowY += rowHeight + SPRITE_PADDING;
+                rowHeight = 0;
+            }
+
+            if (spriteWidth > maxSize || rowY + spriteHeight > maxSize) {
+                logger.warn("Texture {} doesn't fit in atlas", image.getKey());
+                continue;
+            }
+
+            spritePositions.put(image.getKey(), new int[]{rowX, rowY});
+            atlasWidth = Math.max(atlasWidth, rowX + spriteWidth);
+            atlasHeight = Math.max(atlasHeight, rowY + spriteHeight);
+            rowX += spriteWidth + SPRITE_PADDING;
+            rowHeight = Math.max(rowHeight, spriteHeight);
+        }
+
+        if (spritePositions.isEmpty()) {
+            sprites = Collections.emptyMap();
+            return;
+        }
+
+        int[] atlasPixels = new int[atlasWidth * atlasHeight];
+        Map<ResourceLocation, Sprite> packedSprites = new HashMap<>();
+
+        for (Map.Entry<ResourceLocation, BufferedImage> image : images) {
+            int[] position = spritePositions.get(image.getKey());
+
+            if (position == null) {
+                continue;
+            }
+
+            BufferedImage spriteImage = image.getValue();
+            int spriteWidth = spriteImage.getWidth();
+            int spriteHeight = spriteImage.getHeight();
+
+            spriteImage.getRGB(0, 0, spriteWidth, spriteHeight, atlasPixels, position[1] * atlasWidth + position[0], atlasWidth);
+            packedSprites.put(image.getKey(), new Sprite(
+                    (float) position[0] / atlasWidth, (float) position[1] / atlasHeight,
+                    (float) (position[0] + spriteWidth) / atlasWidth, (float) (position[1] + spriteHeight) / atlasHeight));
+        }
+
+        TextureUtil.allocateTexture(getGlTextureId(), atlasWidth, atlasHeight);
+        TextureUtil.uploadTexture(getGlTextureId(), atlasPixels, atlasWidth, atlasHeight);
+        sprites = packedSprites;
+    }
+
+    /**
+     * Returns the sprite for the texture at the given location, or {@code null} if the texture isn't in this atlas.
+     */
+    public Sprite getSprite(ResourceLocation textureLocation) {
+        return sprites.get(textureLocation);
+    }
+
+    /**
+     * The texture coordinates of a texture packed into an atlas
+     */
+    public static class Sprite {
+        private final float minU;
+        private final float minV;
+        private final float maxU;
+        private final float maxV;
+
+        Sprite(float minU, float minV, float maxU, float maxV) {
+            this.minU = minU;
+            this.minV = minV;
+            this.maxU = maxU;
+            this.maxV = maxV;
+        }
+
+        public float getMinU() {
+            return minU;
+        }
+
+        public float getMinV() {
+            return minV;
+        }
+
+        public float getMaxU() {
+            return maxU;
+        }
+
+        public float getMaxV() {
+            return maxV;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2024. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.gui.textures;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.texture.ITextureObject;
+import net.minecraft.client.renderer.texture.TextureManager;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Decodes textures on worker threads and uploads them to the GPU on the render thread a few at a time so loading
+ * large textures like the island artwork doesn't block the client thread.
+ * <br>
+ * Uploads happen at the start of each frame until {@link #UPLOAD_TIME_BUDGET} is used up. Textures that are bound
+ * before their upload, for example by a warp menu opened right after joining, are loaded synchronously by the
+ * {@link TextureManager} as usual and the decoded copy is discarded.
+ */
+public class TexturePreloader {
+    private static final Logger logger = LogManager.getLogger();
+    private static final int DECODE_THREAD_COUNT = 2;
+    /** Time in nanoseconds that may be spent uploading textures each frame. At least one texture is uploaded per frame. */
+    private static final long UPLOAD_TIME_BUDGET = TimeUnit.MILLISECONDS.toNanos(4);
+    /** Time in seconds decode threads are kept alive while idle */
+    private static final long DECODE_THREAD_KEEP_ALIVE_TIME = 30;
+
+    private final TextureManager textureManager;
+    private final ThreadPoolExecutor decodeExecutor;
+    /** Decoded textures waiting to be uploaded */
+    private final Queue<DecodedTexture> uploadQueue;
+    /** Locations of textures that are being decoded or waiting to be uploaded */
+    private final Set<ResourceLocation> pendingTextureLocations;
+
+    public TexturePreloader() {
+        textureManager = Minecraft.getMinecraft().getTextureManager();
+        decodeExecutor = new ThreadPoolExecutor(DECODE_THREAD_COUNT, DECODE_THREAD_COUNT,
+                DECODE_THREAD_KEEP_ALIVE_TIME, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("Fancy Warp Menu Texture Decoder #%d").setDaemon(true).build());
+        decodeExecutor.allowCoreThreadTimeOut(true);
+        uploadQueue = new ConcurrentLinkedQueue<>();
+        pendingTextureLocations = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Starts decoding the texture at the given location in the background if it isn't loaded or pending already.
+     * This should be called on the client thread.
+     *
+     * @param textureLocation location of the texture to preload
+     */
+    public void preload(ResourceLocation textureLocation) {
+        if (textureLocation == null || isLoaded(textureLocation) || !pendingTextureLocations.add(textureLocation)) {
+            return;
+        }
+
+        decodeExecutor.execute(() -> {
+            DecodedTexture texture = new DecodedTexture(textureLocation);
+
+            try {
+                texture.decode(Minecraft.getMinecraft().getResourceManager());
+                uploadQueue.add(texture);
+            } catch (IOException | RuntimeException e) {
+                // The texture manager will try again and report the error when the texture is first bound
+                logger.warn("Failed to preload texture {}", textureLocation, e);
+                pendingTextureLocations.remove(textureLocation);
+            }
+        });
+    }
+
+    /**
+     * Returns whether the texture at the given location is being decoded or waiting to be uploaded.
+     */
+    public boolean isPending(ResourceLocation textureLocation) {
+        return pendingTextureLocations.contains(textureLocation);
+    }
+
+    @SubscribeEvent
+    public void onRenderTick(TickEvent.RenderTickEvent event) {
+        if (event.phase == TickEvent.Phase.START && !uploadQueue.isEmpty()) {
+            long uploadStartTime = System.nanoTime();
+
+            do {
+                upload(uploadQueue.poll());
+            } while (!uploadQueue.isEmpty() && System.nanoTime() - uploadStartTime < UPLOAD_TIME_BUDGET);
+        }
+    }
+
+    private void upload(DecodedTexture texture) {
+        ResourceLocation textureLocation = texture.getTextureLocation();
+
+        // Skip textures that were bound and loaded synchronously while this one was in the queue
+        if (!isLoaded(textureLocation)) {
+            textureManager.loadTexture(textureLocation, texture);
+        }
+
+        pendingTextureLocations.remove(textureLocation);
+    }
+
+    /**
+     * Returns whether the texture at the given location is registered with the texture manager and not evicted.
+     */
+    private boolean isLoaded(ResourceLocation textureLocation) {
+        ITextureObject texture = textureManager.getTexture(textureLocation);
+
+        return texture != null && !(texture instanceof DecodedTexture && ((DecodedTexture) texture).isEvicted());
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2024. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.gui.textures;
+
+import ca.tirelesstraveler.fancywarpmenu.data.Settings;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Island;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Layout;
+import ca.tirelesstraveler.fancywarpmenu.gui.GuiFancyWarp;
+import ca.tirelesstraveler.fancywarpmenu.gui.buttons.GuiButtonIsland;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.texture.ITextureObject;
+import net.minecraft.client.renderer.texture.TextureManager;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.GL11;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the large fancy warp menu textures, the background and the island textures, loaded only while they're
+ * likely to be needed.
+ * <br>
+ * Island textures are loaded as the smallest downscaled variant (see {@link TextureVariants}) that is still at least
+ * as large as the island is drawn on the screen.
+ * <br>
+ * Textures are prefetched in the background when the fancy warp menu is about to open. Once the menu closes, they're
+ * evicted from the GPU after going unused for {@link #IDLE_TIMEOUT}, or sooner, least recently used first, when they
+ * use more memory than the budget set in {@link Settings#getTextureMemoryBudget()}. Textures on the open menu
+ * are never evicted.
+ */
+public class TextureResidencyManager {
+    private static final Logger logger = LogManager.getLogger();
+    /** Time in ms a texture can go unused before it's evicted regardless of the memory budget */
+    private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+    /** Number of client ticks between eviction checks */
+    private static final int EVICTION_CHECK_INTERVAL = 20;
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final Minecraft mc;
+    private final TextureManager textureManager;
+    private final TexturePreloader texturePreloader;
+    /** Time each managed texture was last used, ordered from least to most recently used */
+    private final Map<ResourceLocation, Long> lastUseTimes;
+    private int ticksUntilEvictionCheck;
+
+    public TextureResidencyManager(TexturePreloader texturePreloader) {
+        mc = Minecraft.getMinecraft();
+        textureManager = mc.getTextureManager();
+        this.texturePreloader = texturePreloader;
+        lastUseTimes = new LinkedHashMap<>(64, 0.75F, true);
+        ticksUntilEvictionCheck = EVICTION_CHECK_INTERVAL;
+    }
+
+    /**
+     * Starts loading the textures for the given layout in the background if they aren't loaded already and marks
+     * them as recently used. This should be called on the client thread.
+     *
+     * @param layout the layout of the fancy warp menu that is about to open
+     */
+    public void prefetch(Layout layout) {
+        if (layout == null) {
+            return;
+        }
+
+        for (ResourceLocation textureLocation : getOnDemandTextureLocations(layout)) {
+            lastUseTimes.put(textureLocation, Minecraft.getSystemTime());
+            texturePreloader.preload(textureLocation);
+        }
+    }
+
+    /**
+     * Returns the location of the downscaled variant of an island texture that best fits the island's size on the
+     * current screen. The variant is registered with the texture manager so it can be bound right away.
+     *
+     * @param island the island the texture belongs to
+     * @param textureLocation location of the island texture or its hover effect texture
+     * @return location of the texture variant to draw, {@code null} if {@code textureLocation} is {@code null}
+     */
+    public ResourceLocation getIslandTextureVariant(Island island, ResourceLocation textureLocation) {
+        if (textureLocation == null) {
+            return null;
+        }
+
+        // Hover effect textures are drawn at the same size as the island texture, but their resolution can differ
+        float drawnWidth = mc.displayWidth * island.getWidthPercentage() * GuiButtonIsland.HOVERED_SCALE;
+        int textureWidth = textureLocation.equals(island.getHoverEffectTextureLocation()) ?
+                island.getHoverEffectTextureWidth() : island.getTextureWidth();
+        int downscaleLevel = TextureVariants.selectDownscaleLevel(textureWidth, drawnWidth);
+        ResourceLocation variantLocation = TextureVariants.getVariantLocation(textureLocation, downscaleLevel);
+
+        // The variant doesn't exist in the resource pack, so the texture manager can't load it on its own
+        if (downscaleLevel > 0 && textureManager.getTexture(variantLocation) == null) {
+            textureManager.loadTexture(variantLocation, DecodedTexture.createEvicted(variantLocation));
+        }
+
+        return variantLocation;
+    }
+
+    /**
+     * Makes the given textures and their downscaled variants load again from the resource manager the next time
+     * they're bound. This is used when textures change without a full resource reload. This must be called on the
+     * client thread.
+     *
+     * @param textureLocations locations of the changed textures, locations of textures that aren't loaded are ignored
+     */
+    public void invalidate(Collection<ResourceLocation> textureLocations) {
+        for (ResourceLocation textureLocation : textureLocations) {
+            for (int downscaleLevel = 0; downscaleLevel <= TextureVariants.MAX_DOWNSCALE_LEVEL; downscaleLevel++) {
+                ResourceLocation variantLocation = TextureVariants.getVariantLocation(textureLocation, downscaleLevel);
+
+                if (textureManager.getTexture(variantLocation) != null) {
+                    evict(variantLocation);
+                }
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public void onClientTick(TickEvent.ClientTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || --ticksUntilEvictionCheck > 0) {
+            return;
+        }
+
+        ticksUntilEvictionCheck = EVICTION_CHECK_INTERVAL;
+        Set<ResourceLocation> texturesInUse = Collections.emptySet();
+
+        if (mc.currentScreen instanceof GuiFancyWarp) {
+            texturesInUse = getOnDemandTextureLocations(((GuiFancyWarp) mc.currentScreen).getLayout());
+
+            for (ResourceLocation textureLocation : texturesInUse) {
+                lastUseTimes.put(textureLocation, Minecraft.getSystemTime());
+            }
+        }
+
+        evictUnusedTextures(texturesInUse);
+    }
+
+    /**
+     * Evicts textures that have been idle too long, then evicts the least recently used textures until the
+     * remaining ones fit in the memory budget.
+     *
+     * @param texturesInUse textures on the open fancy warp menu, these are not evicted
+     */
+    private void evictUnusedTextures(Set<ResourceLocation> texturesInUse) {
+        long memoryBudget = Settings.getTextureMemoryBudget() * 1024L * 1024L;
+        long idleExpiryTime = Minecraft.getSystemTime() - IDLE_TIMEOUT;
+        long residentSize = 0;
+
+        for (ResourceLocation textureLocation : lastUseTimes.keySet()) {
+            if (!texturesInUse.contains(textureLocation)) {
+                residentSize += getResidentSize(textureLocation);
+            }
+        }
+
+        Iterator<Map.Entry<ResourceLocation, Long>> iterator = lastUseTimes.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<ResourceLocation, Long> entry = iterator.next();
+            ResourceLocation textureLocation = entry.getKey();
+
+            if (texturesInUse.contains(textureLocation) || texturePreloader.isPending(textureLocation)) {
+                continue;
+            }
+
+            boolean idle = entry.getValue() < idleExpiryTime;
+
+            if (idle || residentSize > memoryBudget) {
+                long textureSize = getResidentSize(textureLocation);
+
+                if (textureSize > 0) {
+                    evict(textureLocation);
+                    residentSize -= textureSize;
+                    iterator.remove();
+                } else if (idle) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the locations of the background and island texture variants the given layout draws on the current screen.
+     */
+    private Set<ResourceLocation> getOnDemandTextureLocations(Layout layout) {
+        Set<ResourceLocation> textureLocations = new LinkedHashSet<>();
+
+        if (layout.getBackgroundTextureLocation() != null) {
+            textureLocations.add(layout.getBackgroundTextureLocation());
+        }
+
+        for (Island island : layout.getIslandList()) {
+            textureLocations.add(getIslandTextureVariant(island, island.getTextureLocation()));
+
+            if (island.getHoverEffectTextureLocation() != null) {
+                textureLocations.add(getIslandTextureVariant(island, island.getHoverEffectTextureLocation()));
+            }
+        }
+
+        return textureLocations;
+    }
+
+    private void evict(ResourceLocation textureLocation) {
+        ITextureObject texture = textureManager.getTexture(textureLocation);
+
+        if (texture instanceof DecodedTexture) {
+            ((DecodedTexture) texture).evict();
+        } else {
+            // Textures loaded by the texture manager itself are replaced with a placeholder that reloads when bound
+            textureManager.deleteTexture(textureLocation);
+            textureManager.loadTexture(textureLocation, DecodedTexture.createEvicted(textureLocation));
+        }
+
+        logger.debug("Evicted texture {}", textureLocation);
+    }
+
+    /**
+     * Returns the estimated GPU memory used by the texture at the given location in bytes, or 0 if it isn't loaded.
+     */
+    private long getResidentSize(ResourceLocation textureLocation) {
+        ITextureObject texture = textureManager.getTexture(textureLocation);
+
+        if (texture == null) {
+            return 0;
+        } else if (texture instanceof DecodedTexture) {
+            DecodedTexture decodedTexture = (DecodedTexture) texture;
+
+            return decodedTexture.isEvicted() ? 0 : (long) decodedTexture.getWidth() * decodedTexture.getHeight() * BYTES_PER_PIXEL;
+        } else {
+            GlStateManager.bindTexture(texture.getGlTextureId());
+            int width = GL11.glGetTexLevelParameteri(GL11.GL_TEXTURE_2D, 0, GL11.GL_TEXTURE_WIDTH);
+            int height = GL11.glGetTexLevelParameteri(GL11.GL_TEXTURE_2D, 0, GL11.GL_TEXTURE_HEIGHT);
+
+            return (long) width * height * BYTES_PER_PIXEL;
+        }
+    }
+}
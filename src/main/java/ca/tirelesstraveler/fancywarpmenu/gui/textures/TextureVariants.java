@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2024. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.gui.textures;
+
+import net.minecraft.util.ResourceLocation;
+
+/**
+ * Utility methods for downscaled variants of textures. Each downscale level halves the width and height of the
+ * previous one, so level 1 is 1/2 the size of the original texture, level 2 is 1/4, and level 3 is 1/8.
+ * <br>
+ * A variant's location is its original texture location with the scale appended, for example
+ * {@code fancywarpmenu:textures/gui/Islands/Hub.png@1/4}. Variant textures don't exist in resource packs. They must be
+ * registered with the texture manager as {@link DecodedTexture}s, which generate them from the original texture.
+ */
+public class TextureVariants {
+    public static final int MAX_DOWNSCALE_LEVEL = 3;
+    private static final String VARIANT_SCALE_PREFIX = "@1/";
+
+    /**
+     * Returns the location of the variant of the given texture with the given downscale level.
+     *
+     * @param textureLocation location of the original texture
+     * @param downscaleLevel downscale level between 0 and {@link #MAX_DOWNSCALE_LEVEL}, 0 returns the original texture location
+     */
+    public static ResourceLocation getVariantLocation(ResourceLocation textureLocation, int downscaleLevel) {
+        if (downscaleLevel == 0) {
+            return textureLocation;
+        }
+
+        return new ResourceLocation(textureLocation.getResourceDomain(),
+                textureLocation.getResourcePath() + VARIANT_SCALE_PREFIX + (1 << downscaleLevel));
+    }
+
+    /**
+     * Returns the location of the original texture a variant is generated from, or the given location if it isn't
+     * a variant.
+     */
+    public static ResourceLocation getSourceLocation(ResourceLocation textureLocation) {
+        String path = textureLocation.getResourcePath();
+        int scaleIndex = path.lastIndexOf(VARIANT_SCALE_PREFIX);
+
+        if (scaleIndex == -1) {
+            return textureLocation;
+        }
+
+        return new ResourceLocation(textureLocation.getResourceDomain(), path.substring(0, scaleIndex));
+    }
+
+    /**
+     * Returns the downscale level of the variant at the given location, or 0 if it isn't a variant.
+     */
+    public static int getDownscaleLevel(ResourceLocation textureLocation) {
+        String path = textureLocation.getResourcePath();
+        int scaleIndex = path.lastIndexOf(VARIANT_SCALE_PREFIX);
+
+        if (scaleIndex == -1) {
+            return 0;
+        }
+
+        return Integer.numberOfTrailingZeros(Integer.parseInt(path.substring(scaleIndex + VARIANT_SCALE_PREFIX.length())));
+    }
+
+    /**
+     * Returns the highest downscale level at which a texture with the given width is still at least as wide as the
+     * width it's drawn at, so it is never magnified.
+     *
+     * @param textureWidth width of the original texture in pixels
+     * @param drawnWidth the largest width the texture is drawn at on the screen in pixels
+     */
+    public static int selectDownscaleLevel(int textureWidth, float drawnWidth) {
+        int downscaleLevel = 0;
+
+        while (downscaleLevel < MAX_DOWNSCALE_LEVEL && textureWidth >> (downscaleLevel + 1) >= drawnWidth) {
+            downscaleLevel++;
+        }
+
+        return downscaleLevel;
+    }
+
+    /**
+     * Halves the width and height of an ARGB image by averaging each 2x2 block of pixels. Colours are weighted by
+     * alpha so transparent pixels don't darken the edges of the image. Odd rows and columns are folded into
+     * the last block.
+     *
+     * @param pixels ARGB pixels of the image, row by row
+     * @param width width of the image
+     * @param height height of the image
+     * @return ARGB pixels of the downscaled image, which is {@code max(1, width / 2)} by {@code max(1, height / 2)}
+     */
+    public static int[] downscale(int[] pixels, int width, int height) {
+        int scaledWidth = Math.max(1, width / 2);
+        int scaledHeight = Math.max(1, height / 2);
+        int[] scaledPixels = new int[scaledWidth * scaledHeight];
+
+        for (int y = 0; y < scaledHeight; y++) {
+            int startY = y * 2;
+            int endY = y == scaledHeight - 1 ? height : startY + 2;
+
+            for (int x = 0; x < scaledWidth; x++) {
+                int startX = x * 2;
+                int endX = x == scaledWidth - 1 ? width : startX + 2;
+                int alphaSum = 0;
+                int redSum = 0;
+                int greenSum = 0;
+                int blueSum = 0;
+                int pixelCount = 0;
+
+                for (int sourceY = startY; sourceY < endY; sourceY++) {
+                    for (int sourceX = startX; sourceX < endX; sourceX++) {
+                        int pixel = pixels[sourceY * width + sourceX];
+                        int alpha = pixel >>> 24;
+
+                        alphaSum += alpha;
+                        redSum += (pixel >> 16 & 0xFF) * alpha;
+                        greenSum += (pixel >> 8 & 0xFF) * alpha;
+                        blueSum += (pixel & 0xFF) * alpha;
+                        pixelCount++;
+                    }
+                }
+
+                int scaledPixel = 0;
+
+                if (alphaSum > 0) {
+                    scaledPixel = (alphaSum / pixelCount) << 24 | (redSum / alphaSum) << 16
+                            | (greenSum / alphaSum) << 8 | blueSum / alphaSum;
+                }
+
+                scaledPixels[y * scaledWidth + x] = scaledPixel;
+            }
+        }
+
+        return scaledPixels;
+    }
+}
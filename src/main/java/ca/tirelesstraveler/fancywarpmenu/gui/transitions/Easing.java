@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.gui.transitions;
+
+/**
+ * Maps the linear progress of a {@link Transition} to the progress used for its GUI attributes.
+ * Both values go from 0 at the start of the transition to 1 at the end.
+ */
+@FunctionalInterface
+public interface Easing {
+    Easing LINEAR = progress -> progress;
+    Easing QUADRATIC_IN = progress -> progress * progress;
+    Easing QUADRATIC_OUT = progress -> progress * (2 - progress);
+    Easing CUBIC_IN_OUT = progress -> progress < 0.5F ? 4 * progress * progress * progress :
+            1 - (float) Math.pow(-2 * progress + 2, 3) / 2;
+
+    float apply(float progress);
+}
@@ -26,29 +26,50 @@ package ca.tirelesstraveler.fancywarpmenu.gui.transitions;
  * Transition used to change a GUI element's size as time passes
  */
 public class ScaleTransition extends Transition {
-    private final float START_SCALE;
-    private final float END_SCALE;
+    private float startScale;
+    private float endScale;
     private float currentScale;
 
     public ScaleTransition(long duration, float startScale, float endScale) {
-        super(duration);
-        this.START_SCALE = startScale;
-        this.END_SCALE = endScale;
+        this(duration, startScale, endScale, Easing.LINEAR);
+    }
+
+    public ScaleTransition(long duration, float startScale, float endScale, Easing easing) {
+        super(duration, easing);
+        this.startScale = startScale;
+        this.endScale = endScale;
         this.currentScale = startScale;
     }
 
+    /**
+     * Restarts this transition from its current scale towards a new end scale. Nothing changes if the transition is
+     * already headed towards {@code endScale}.
+     *
+     * @param endScale scale at the new end time
+     * @param duration duration from now to the new end time
+     */
+    public void retarget(float endScale, long duration) {
+        if (endScale != this.endScale) {
+            restart(duration);
+            this.startScale = currentScale;
+            this.endScale = endScale;
+        }
+    }
+
     @Override
     public void step() {
-        super.step();
-        currentScale = START_SCALE + (END_SCALE - START_SCALE) * progress;
+        if (!finished) {
+            super.step();
+            currentScale = startScale + (endScale - startScale) * easedProgress;
+        }
     }
 
     public float getStartScale() {
-        return START_SCALE;
+        return startScale;
     }
 
     public float getEndScale() {
-        return END_SCALE;
+        return endScale;
     }
 
     public float getCurrentScale() {
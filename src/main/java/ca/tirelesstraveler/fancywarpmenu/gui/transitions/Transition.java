@@ -22,24 +22,45 @@
 
 package ca.tirelesstraveler.fancywarpmenu.gui.transitions;
 
-import net.minecraft.client.Minecraft;
-
 /**
- * This base class tracks a start time, end time, and the current system time's difference from the end time.
+ * This base class tracks a start time, end time, and the current time's difference from the end time.
  * Subclasses are meant to extend this with GUI attributes whose values will change as time passes.
+ * Time is read from {@link TransitionClock} and progress is shaped by an {@link Easing}.
+ * Transitions are meant to be reused by restarting them instead of creating new ones.
  */
 public class Transition {
+    protected final Easing easing;
     protected long startTime;
     protected long endTime;
     protected long duration;
     protected long currentTime;
+    /** Linear progress from start time to end time */
     protected float progress;
+    /** {@link #progress} with {@link #easing} applied */
+    protected float easedProgress;
     protected boolean finished;
 
     public Transition(long duration) {
-        startTime = Minecraft.getSystemTime();
+        this(duration, Easing.LINEAR);
+    }
+
+    public Transition(long duration, Easing easing) {
+        this.easing = easing;
+        restart(duration);
+    }
+
+    /**
+     * Starts this transition over from the current time, so the same instance can be reused instead of
+     * replaced when a GUI element changes direction
+     *
+     * @param duration duration from the new start time to the new end time
+     */
+    public void restart(long duration) {
+        startTime = TransitionClock.getTime();
         this.duration = duration;
         endTime = startTime + duration;
+        progress = 0;
+        easedProgress = 0;
         finished = false;
     }
 
@@ -47,22 +68,36 @@ public class Transition {
         return progress;
     }
 
+    public float getEasedProgress() {
+        return easedProgress;
+    }
+
     public boolean isFinished() {
         return finished;
     }
 
     /**
-     * Recalculate the progress of the transition using the current system time
+     * Returns whether this transition has finished, meaning its values won't change until it's restarted
+     */
+    public boolean isSettled() {
+        return finished;
+    }
+
+    /**
+     * Recalculate the progress of the transition using the time from {@link TransitionClock}
      */
     public void step() {
         if (!finished) {
-            currentTime = Minecraft.getSystemTime();
-            progress = (float) (currentTime - startTime) / duration;
+            currentTime = TransitionClock.getTime();
 
             if (currentTime >= endTime) {
                 progress = 1;
                 finished = true;
+            } else {
+                progress = (float) (currentTime - startTime) / duration;
             }
+
+            easedProgress = easing.apply(progress);
         }
     }
 }
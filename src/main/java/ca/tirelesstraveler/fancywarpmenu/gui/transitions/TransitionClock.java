@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.gui.transitions;
+
+import net.minecraft.client.Minecraft;
+
+/**
+ * Shared clock for all {@link Transition}s. The system time is read once per frame in {@link #update()} so every
+ * transition stepped during a frame sees the same time.
+ */
+public class TransitionClock {
+    private static long time = Minecraft.getSystemTime();
+
+    /**
+     * Reads the system time for the current frame. This should be called once before any transitions are stepped.
+     */
+    public static void update() {
+        time = Minecraft.getSystemTime();
+    }
+
+    /**
+     * Returns the system time read by the last call to {@link #update()}
+     */
+    public static long getTime() {
+        return time;
+    }
+}
@@ -25,8 +25,10 @@ package ca.tirelesstraveler.fancywarpmenu.listeners;
 import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
 import ca.tirelesstraveler.fancywarpmenu.data.Settings;
 import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.WarpCommandVariant;
+import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.WarpMessages;
 import ca.tirelesstraveler.fancywarpmenu.gui.GuiFancyWarp;
 import ca.tirelesstraveler.fancywarpmenu.state.FancyWarpMenuState;
+import ca.tirelesstraveler.fancywarpmenu.state.WarpAttemptTracker;
 import ca.tirelesstraveler.fancywarpmenu.utils.ChatUtils;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiChat;
@@ -56,12 +58,21 @@ public class ChatListener {
     @SubscribeEvent
     public void onChatMessageReceived(ClientChatReceivedEvent event) {
         // type 0 is a standard chat message
-        if (event.type == 0 && FancyWarpMenuState.isFancyWarpMenuOpen()) {
-            String unformattedText = event.message.getUnformattedText();
+        if (event.type == 0) {
+            boolean fancyWarpMenuOpen = FancyWarpMenuState.isFancyWarpMenuOpen();
 
-            if (FancyWarpMenu.getSkyBlockConstants().getWarpMessages().getWarpFailMessages().containsKey(unformattedText)) {
-                String failMessageKey = FancyWarpMenu.getSkyBlockConstants().getWarpMessages().getWarpFailMessages().get(unformattedText);
-                ((GuiFancyWarp) mc.currentScreen).onWarpFail(failMessageKey);
+            if (!fancyWarpMenuOpen && !WarpAttemptTracker.isAttemptInProgress()) {
+                return;
+            }
+
+            WarpMessages.WarpMessage warpMessage = FancyWarpMenu.getSkyBlockConstants().getWarpMessages().matchMessage(event.message);
+
+            if (warpMessage != null) {
+                WarpAttemptTracker.onWarpMessage(warpMessage);
+
+                if (fancyWarpMenuOpen && !warpMessage.isSuccess()) {
+                    ((GuiFancyWarp) mc.currentScreen).onWarpFail(warpMessage.getFailMessageKey());
+                }
             }
         }
     }
@@ -122,15 +133,27 @@ public class ChatListener {
     }
 
     /**
-     * If the reminder feature is enabled, check a given chat message for a warp command variant.
-     * If the message is a warp command variant, remind the player to use the Fancy Warp Menu instead of commands.
+     * Check a given chat message for a warp command variant. If the message is a warp command variant, the warp attempt
+     * is tracked, and if the reminder feature is enabled, the player is reminded to use the Fancy Warp Menu instead of
+     * commands.
      *
      * @param sentChatMessage the chat message that was just sent
      * @see Settings#shouldSuggestWarpMenuOnWarpCommand()
+     * @see WarpAttemptTracker
      */
     private void checkChatMessageForReminder(String sentChatMessage) {
-        if (Settings.shouldSuggestWarpMenuOnWarpCommand() && getWarpCommandVariant(sentChatMessage) != null) {
-            sendReminderToUseFancyMenu();
+        WarpCommandVariant warpCommandVariant = getWarpCommandVariant(sentChatMessage);
+
+        if (warpCommandVariant != null) {
+            // Aliases without a destination open the warp menu instead of warping
+            if (warpCommandVariant.getType() == WarpCommandVariant.WarpCommandType.WARP || sentChatMessage.trim().contains(" ")) {
+                WarpAttemptTracker.onWarpAttempt(WarpAttemptTracker.getDestinationFromCommand(sentChatMessage),
+                        WarpAttemptTracker.WarpSource.COMMAND);
+            }
+
+            if (Settings.shouldSuggestWarpMenuOnWarpCommand()) {
+                sendReminderToUseFancyMenu();
+            }
         }
     }
 
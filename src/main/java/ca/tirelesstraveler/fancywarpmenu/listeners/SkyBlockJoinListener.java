@@ -23,11 +23,23 @@
 package ca.tirelesstraveler.fancywarpmenu.listeners;
 
 import ca.tirelesstraveler.fancywarpmenu.state.GameState;
+import ca.tirelesstraveler.fancywarpmenu.state.ScoreboardStateCache;
+import ca.tirelesstraveler.fancywarpmenu.state.StateSnapshot;
+import ca.tirelesstraveler.fancywarpmenu.state.WarpAttemptTracker;
 import io.netty.channel.ChannelHandler;
-import net.minecraft.client.Minecraft;
-import net.minecraft.client.entity.EntityPlayerSP;
-import net.minecraft.scoreboard.Scoreboard;
-import net.minecraftforge.client.event.ClientChatReceivedEvent;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.network.play.server.S01PacketJoinGame;
+import net.minecraft.network.play.server.S07PacketRespawn;
+import net.minecraft.network.play.server.S2DPacketOpenWindow;
+import net.minecraft.network.play.server.S30PacketWindowItems;
+import net.minecraft.network.play.server.S3BPacketScoreboardObjective;
+import net.minecraft.network.play.server.S3CPacketUpdateScore;
+import net.minecraft.network.play.server.S3DPacketDisplayScoreboard;
+import net.minecraft.network.play.server.S3EPacketTeams;
+import net.minecraft.network.play.server.S3FPacketCustomPayload;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.network.FMLNetworkEvent;
@@ -35,73 +47,151 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
- * Forge event and packet listener that detects when the player joins/leaves SkyBlock
+ * Forge event and packet listener that detects when the player joins/leaves SkyBlock.
+ * The player is on SkyBlock when the server brand is Hypixel's and the SkyBlock sidebar objective exists. Both are
+ * read from packets as they arrive, and reset when the server sends a new world. Respawning in the same dimension keeps
+ * the world and its scoreboard, so it doesn't reset them.
+ * It's added to the network pipeline of each server connection, where it also passes window packets to a
+ * {@link WarpMenuPacketDetector} and scoreboard packets to a {@link ScoreboardStateCache}.
  */
 @ChannelHandler.Sharable
-public class SkyBlockJoinListener {
+public class SkyBlockJoinListener extends ChannelInboundHandlerAdapter {
     private static final String SERVER_BRAND_START = "Hypixel BungeeCord";
-    private static final int SCOREBOARD_CHECK_TIME_OUT = 5000;
+    private static final String BRAND_CHANNEL = "MC|Brand";
+    private static final String SKYBLOCK_OBJECTIVE_NAME = "SBScoreboard";
+    private static final int OBJECTIVE_ACTION_CREATE = 0;
+    private static final int OBJECTIVE_ACTION_REMOVE = 1;
+    /** Name of this listener in the network pipeline */
+    private static final String HANDLER_NAME = "fancywarpmenu:packet_listener";
+    /** Name of the vanilla packet handler, this listener reads packets right before it */
+    private static final String PACKET_HANDLER_NAME = "packet_handler";
 
     private static final Logger logger = LogManager.getLogger();
-    private boolean serverBrandChecked;
-    private boolean onHypixel;
-    private boolean scoreboardChecked;
-    private long lastWorldSwitchTime;
+    private volatile boolean onHypixel;
+    private volatile boolean skyBlockObjectivePresent;
+    /** Dimension of the world the server last sent, only accessed on the Netty thread */
+    private int dimension;
+    private final WarpMenuPacketDetector warpMenuPacketDetector = new WarpMenuPacketDetector();
+    private final ScoreboardStateCache scoreboardStateCache = new ScoreboardStateCache();
+
+    @SubscribeEvent
+    public void onClientConnect(FMLNetworkEvent.ClientConnectedToServerEvent e) {
+        ChannelPipeline pipeline = e.manager.channel().pipeline();
+
+        if (pipeline.get(HANDLER_NAME) == null && pipeline.get(PACKET_HANDLER_NAME) != null) {
+            pipeline.addBefore(PACKET_HANDLER_NAME, HANDLER_NAME, this);
+        }
+    }
+
+    /**
+     * Reads packets on the Netty thread before they're passed to Minecraft's packet handler
+     */
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        try {
+            if (msg instanceof S3EPacketTeams) {
+                scoreboardStateCache.onTeams((S3EPacketTeams) msg);
+            } else if (msg instanceof S3CPacketUpdateScore) {
+                scoreboardStateCache.onUpdateScore((S3CPacketUpdateScore) msg);
+            } else if (msg instanceof S3BPacketScoreboardObjective) {
+                onScoreboardObjective((S3BPacketScoreboardObjective) msg);
+                scoreboardStateCache.onScoreboardObjective((S3BPacketScoreboardObjective) msg);
+            } else if (msg instanceof S3DPacketDisplayScoreboard) {
+                scoreboardStateCache.onDisplayScoreboard((S3DPacketDisplayScoreboard) msg);
+            } else if (msg instanceof S3FPacketCustomPayload) {
+                onCustomPayload((S3FPacketCustomPayload) msg);
+            } else if (msg instanceof S01PacketJoinGame) {
+                dimension = ((S01PacketJoinGame) msg).getDimension();
+                onNewWorld();
+            } else if (msg instanceof S07PacketRespawn) {
+                int respawnDimension = ((S07PacketRespawn) msg).getDimensionID();
+
+                // Minecraft only creates a new world, with an empty scoreboard, when the dimension changes
+                if (respawnDimension != dimension) {
+                    dimension = respawnDimension;
+                    onNewWorld();
+                }
+            } else if (msg instanceof S2DPacketOpenWindow) {
+                warpMenuPacketDetector.onOpenWindow((S2DPacketOpenWindow) msg);
+            } else if (msg instanceof S30PacketWindowItems) {
+                warpMenuPacketDetector.onWindowItems((S30PacketWindowItems) msg);
+            }
+        } catch (RuntimeException e) {
+            // Never let a failed check stop the packet from reaching Minecraft
+            logger.warn("Failed to read packet " + msg.getClass().getSimpleName(), e);
+        }
+
+        super.channelRead(ctx, msg);
+    }
 
     @SubscribeEvent
     public void onClientDisconnect(FMLNetworkEvent.ClientDisconnectionFromServerEvent e) {
         if (onHypixel) {
-            serverBrandChecked = false;
-            onHypixel = false;
-            GameState.setOnSkyBlock(false);
             logger.debug("Disconnected from Hypixel.");
         }
+
+        onHypixel = false;
+        skyBlockObjectivePresent = false;
+        updateSkyBlockState();
+        scoreboardStateCache.reset();
     }
 
     @SubscribeEvent
     public void onWorldLoad(WorldEvent.Load event) {
-        // Reset on world switch
-        lastWorldSwitchTime = Minecraft.getSystemTime();
-        scoreboardChecked = false;
-        GameState.setOnSkyBlock(false);
+        WarpAttemptTracker.onWorldLoad();
     }
 
-    @SubscribeEvent
-    public void onChatMessageReceived(ClientChatReceivedEvent event) {
-        if (!serverBrandChecked || onHypixel && !scoreboardChecked) {
-            // type 0 is a standard chat message
-            if (event.type == 0) {
-                EntityPlayerSP thePlayer = Minecraft.getMinecraft().thePlayer;
-                String brand = thePlayer.getClientBrand();
-
-                if (!serverBrandChecked) {
-                    onHypixel = brand != null && brand.startsWith(SERVER_BRAND_START);
-                    serverBrandChecked = true;
-
-                    if (onHypixel) {
-                        logger.debug("Player joined Hypixel.");
-                    }
-                }
+    /**
+     * Resets the SkyBlock state and scoreboard cache when the server sends a new world. This is done when the packet is
+     * read instead of on world load so the reset stays in order with the new world's scoreboard packets.
+     */
+    private void onNewWorld() {
+        skyBlockObjectivePresent = false;
+        updateSkyBlockState();
+        scoreboardStateCache.reset();
+    }
 
-                if (onHypixel && !scoreboardChecked) {
-                    Scoreboard scoreboard = thePlayer.getWorldScoreboard();
-                    boolean newSkyBlockState = scoreboard != null && scoreboard.getObjective("SBScoreboard") != null;
+    private void onScoreboardObjective(S3BPacketScoreboardObjective packet) {
+        if (SKYBLOCK_OBJECTIVE_NAME.equals(packet.func_149339_c())) {
+            int action = packet.func_149338_e();
 
-                    if (newSkyBlockState != GameState.isOnSkyBlock()) {
-                        if (newSkyBlockState) {
-                            logger.debug("Player joined SkyBlock.");
-                        } else {
-                            logger.debug("Player left SkyBlock.");
-                        }
+            if (action == OBJECTIVE_ACTION_CREATE) {
+                skyBlockObjectivePresent = true;
+                updateSkyBlockState();
+            } else if (action == OBJECTIVE_ACTION_REMOVE) {
+                skyBlockObjectivePresent = false;
+                updateSkyBlockState();
+            }
+        }
+    }
 
-                        GameState.setOnSkyBlock(newSkyBlockState);
-                        scoreboardChecked = true;
-                    }
+    private void onCustomPayload(S3FPacketCustomPayload packet) {
+        if (BRAND_CHANNEL.equals(packet.getChannelName())) {
+            // Read from a copy so Minecraft's packet handler can still read the brand
+            String brand = new PacketBuffer(packet.getBufferData().duplicate()).readStringFromBuffer(32767);
+            onHypixel = brand != null && brand.startsWith(SERVER_BRAND_START);
 
-                    if (Minecraft.getSystemTime() - lastWorldSwitchTime > SCOREBOARD_CHECK_TIME_OUT) {
-                        scoreboardChecked = true;
-                    }
-                }
+            if (onHypixel) {
+                logger.debug("Player joined Hypixel.");
+            }
+
+            updateSkyBlockState();
+        }
+    }
+
+    /**
+     * Sets the SkyBlock state in {@link GameState} from the server brand and SkyBlock objective, logging changes
+     */
+    private void updateSkyBlockState() {
+        boolean newSkyBlockState = onHypixel && skyBlockObjectivePresent;
+        // Compared to the detected state, not GameState.isOnSkyBlock(), which is always true when the check is skipped
+        boolean previousSkyBlockState = StateSnapshot.update(state -> state.withOnSkyBlock(newSkyBlockState)).isOnSkyBlock();
+
+        if (newSkyBlockState != previousSkyBlockState) {
+            if (newSkyBlockState) {
+                logger.debug("Player joined SkyBlock.");
+            } else {
+                logger.debug("Player left SkyBlock.");
             }
         }
     }
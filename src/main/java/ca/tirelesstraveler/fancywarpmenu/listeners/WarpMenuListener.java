@@ -29,6 +29,7 @@ import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.Menu;
 import ca.tirelesstraveler.fancywarpmenu.gui.FancyWarpMenuConfigScreen;
 import ca.tirelesstraveler.fancywarpmenu.gui.GuiFastTravel;
 import ca.tirelesstraveler.fancywarpmenu.gui.GuiRiftFastTravel;
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutFileWatcher;
 import ca.tirelesstraveler.fancywarpmenu.state.FancyWarpMenuState;
 import ca.tirelesstraveler.fancywarpmenu.state.GameState;
 import ca.tirelesstraveler.fancywarpmenu.utils.GameChecks;
@@ -86,7 +87,7 @@ public class WarpMenuListener implements IResourceManagerReloadListener {
 
             if (currentMenu == Menu.FAST_TRAVEL) {
                 event.gui = new GuiFastTravel(playerInventory, chestInventory, FancyWarpMenuState.getOverworldLayout());
-            } else if (currentMenu == Menu.PORHTAL) {
+            } else if (currentMenu == Menu.PORHTAL && FancyWarpMenuState.getRiftLayout() != null) {
                 event.gui = new GuiRiftFastTravel(playerInventory, chestInventory, FancyWarpMenuState.getRiftLayout());
             }
         }
@@ -99,6 +100,8 @@ public class WarpMenuListener implements IResourceManagerReloadListener {
                 Minecraft.getSystemTime() - lastWarpMenuHotkeyPress > HOTKEY_PRESS_DELAY) {
             lastWarpMenuHotkeyPress = Minecraft.getSystemTime();
             mc.thePlayer.sendChatMessage(SkyBlockConstants.WARP_COMMAND_BASE);
+            // Start loading island textures while waiting for the server to open the menu
+            FancyWarpMenu.getTextureResidencyManager().prefetch(FancyWarpMenuState.getOverworldLayout());
         }
     }
 
@@ -106,11 +109,16 @@ public class WarpMenuListener implements IResourceManagerReloadListener {
     public void onConfigChange(ConfigChangedEvent.OnConfigChangedEvent event) {
         if (event.modID.equals(modInstance.getModId())) {
             Settings.syncConfig(false);
+            // Debug mode turns the layout file watcher on or off
+            LayoutFileWatcher.update();
         }
     }
 
     @Override
     public void onResourceManagerReload(IResourceManager resourceManager) {
-        FancyWarpMenu.getInstance().reloadLayouts();
+        // Textures were already reloaded by the texture manager
+        FancyWarpMenu.getInstance().reloadChangedResources(false);
+        // Watch the folders of the newly enabled resource packs
+        LayoutFileWatcher.update();
     }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.listeners;
+
+import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
+import ca.tirelesstraveler.fancywarpmenu.data.Settings;
+import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.Menu;
+import ca.tirelesstraveler.fancywarpmenu.gui.GuiFancyWarp;
+import ca.tirelesstraveler.fancywarpmenu.state.GameState;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiScreen;
+import net.minecraft.item.ItemStack;
+import net.minecraft.network.play.server.S2DPacketOpenWindow;
+import net.minecraft.network.play.server.S30PacketWindowItems;
+
+/**
+ * Detects warp menus from the server's window packets as they're read from the network, before Minecraft handles
+ * them. {@link S2DPacketOpenWindow} titles identify the menu, and the menu's match conditions are checked against the
+ * complete contents of the following {@link S30PacketWindowItems} in one pass. The result is handed to the open
+ * {@link GuiFancyWarp} so it can show the custom UI without waiting for the chest inventory to fill slot by slot.
+ * <p>
+ * The packet methods are called on the Netty thread. This is enabled by {@link Settings#isPacketMenuDetectionEnabled()}.
+ */
+public class WarpMenuPacketDetector {
+    /** ID of the last opened window whose title matches a menu, -1 if the last window isn't a menu */
+    private int menuWindowId = -1;
+    private Menu menu = Menu.NONE;
+
+    public void onOpenWindow(S2DPacketOpenWindow packet) {
+        if (!Settings.isPacketMenuDetectionEnabled() || !GameState.isOnSkyBlock()) {
+            menuWindowId = -1;
+            return;
+        }
+
+        String windowTitle = packet.getWindowTitle().getUnformattedText();
+        menu = FancyWarpMenu.getSkyBlockConstants().getMenuMatcher().getMenuForTitle(windowTitle);
+        menuWindowId = menu != Menu.NONE ? packet.getWindowId() : -1;
+    }
+
+    public void onWindowItems(S30PacketWindowItems packet) {
+        // func_148911_c returns the window ID
+        int windowId = packet.func_148911_c();
+
+        if (windowId == -1 || windowId != menuWindowId) {
+            return;
+        }
+
+        Menu windowMenu = menu;
+        ItemStack[] itemStacks = packet.getItemStacks();
+        menuWindowId = -1;
+
+        // This runs before Minecraft schedules the packet, so the items are checked before they're added to the chest
+        Minecraft.getMinecraft().addScheduledTask(() -> onMenuWindowItems(windowMenu, windowId, itemStacks));
+    }
+
+    /**
+     * Called on the client thread with the items of a window whose title matched a menu
+     */
+    private static void onMenuWindowItems(Menu menu, int windowId, ItemStack[] itemStacks) {
+        GuiScreen currentScreen = Minecraft.getMinecraft().currentScreen;
+
+        if (currentScreen instanceof GuiFancyWarp) {
+            ((GuiFancyWarp) currentScreen).onWindowItemsReceived(menu, windowId, itemStacks);
+        }
+    }
+}
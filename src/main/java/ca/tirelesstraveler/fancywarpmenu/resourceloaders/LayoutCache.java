@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.resourceloaders;
+
+import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Layout;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.resources.ResourcePackRepository;
+import net.minecraft.util.ResourceLocation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary cache of validated layouts, including the texture dimensions read while loading them. A cached layout is
+ * used only if its fingerprint matches the current one, which covers the mod version, the active resource packs, and
+ * the bytes of the layout file. This lets {@link LayoutLoader} skip parsing, validation, and reading texture headers
+ * when nothing has changed since the last launch.
+ * <br>
+ * Each layout has its own cache file, so layouts can be read and written in parallel.
+ */
+public class LayoutCache {
+    /** Start of every cache file, "FWML" */
+    private static final int MAGIC_NUMBER = 0x46574D4C;
+    /** Increase this whenever the cache format or the layout model changes */
+    private static final int FORMAT_VERSION = 2;
+    private static final String FILE_EXTENSION = ".bin";
+    private static final Logger logger = LogManager.getLogger();
+
+    private static File cacheDirectory;
+
+    /**
+     * Sets the directory the cache files are kept in. The cache is disabled until this is set.
+     */
+    public static void setCacheDirectory(File cacheDirectory) {
+        LayoutCache.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Computes the fingerprint of a layout from the mod version, the active resource packs, and the layout file's
+     * contents. Resource packs are identified by file name and modification time, so changing a resource pack changes
+     * the fingerprint without reading its textures.
+     *
+     * @param layoutBytes contents of the layout file
+     * @return the fingerprint
+     */
+    public static byte[] computeFingerprint(byte[] layoutBytes) {
+        MessageDigest digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-1
+            throw new IllegalStateException(e);
+        }
+
+        digest.update(FancyWarpMenu.getInstance().getModContainer().getVersion().getBytes(StandardCharsets.UTF_8));
+
+        // Copy the list since it's replaced on the main thread when the resource packs change
+        for (ResourcePackRepository.Entry entry :
+                new ArrayList<>(Minecraft.getMinecraft().getResourcePackRepository().getRepositoryEntries())) {
+            digest.update((byte) 0);
+            // File name, type, and modification time
+            digest.update(entry.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        digest.update((byte) 0);
+        digest.update(layoutBytes);
+        return digest.digest();
+    }
+
+    /**
+     * Reads a layout from its cache file
+     *
+     * @param resourceLocation location of the layout file
+     * @param fingerprint the current fingerprint of the layout
+     * @return the cached layout, or {@code null} if there isn't a cached layout matching the fingerprint
+     */
+    public static Layout read(ResourceLocation resourceLocation, byte[] fingerprint) {
+        File cacheFile = getCacheFile(resourceLocation);
+
+        if (cacheFile == null || !cacheFile.isFile()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC_NUMBER || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+
+            byte[] cachedFingerprint = new byte[in.readUnsignedByte()];
+            in.readFully(cachedFingerprint);
+
+            if (!Arrays.equals(cachedFingerprint, fingerprint)) {
+                return null;
+            }
+
+            return Layout.read(in);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to read layout cache " + cacheFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a validated layout to its cache file. The file is replaced only once it's completely written.
+     *
+     * @param resourceLocation location of the layout file
+     * @param fingerprint the fingerprint the layout was loaded with
+     * @param layout the layout to cache, its texture dimensions must be set
+     */
+    public static void write(ResourceLocation resourceLocation, byte[] fingerprint, Layout layout) {
+        File cacheFile = getCacheFile(resourceLocation);
+
+        if (cacheFile == null) {
+            return;
+        }
+
+        File tempFile = new File(cacheFile.getPath() + ".tmp");
+
+        try {
+            Files.createDirectories(cacheDirectory.toPath());
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(MAGIC_NUMBER);
+                out.writeInt(FORMAT_VERSION);
+                out.writeByte(fingerprint.length);
+                out.write(fingerprint);
+                layout.write(out);
+            }
+
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("Failed to write layout cache " + cacheFile, e);
+        }
+    }
+
+    public static void writeNullableString(DataOutput out, String string) throws IOException {
+        out.writeBoolean(string != null);
+
+        if (string != null) {
+            out.writeUTF(string);
+        }
+    }
+
+    public static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    public static void writeNullableStringList(DataOutput out, List<String> strings) throws IOException {
+        out.writeInt(strings != null ? strings.size() : -1);
+
+        if (strings != null) {
+            for (String string : strings) {
+                out.writeUTF(string);
+            }
+        }
+    }
+
+    public static List<String> readNullableStringList(DataInput in) throws IOException {
+        int size = in.readInt();
+
+        if (size < 0) {
+            return null;
+        }
+
+        List<String> strings = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            strings.add(in.readUTF());
+        }
+
+        return strings;
+    }
+
+    private static File getCacheFile(ResourceLocation resourceLocation) {
+        if (cacheDirectory == null) {
+            return null;
+        }
+
+        String resourcePath = resourceLocation.getResourcePath();
+        String fileName = resourcePath.substring(resourcePath.lastIndexOf('/') + 1);
+
+        return new File(cacheDirectory, fileName + FILE_EXTENSION);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.resourceloaders;
+
+import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
+import ca.tirelesstraveler.fancywarpmenu.data.Settings;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Layout;
+import ca.tirelesstraveler.fancywarpmenu.state.EnvironmentDetails;
+import ca.tirelesstraveler.fancywarpmenu.state.StateSnapshot;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.resources.ResourcePackRepository;
+import net.minecraft.util.ResourceLocation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads the layouts when their files or textures are saved, so layout authors don't have to press R to see their
+ * changes. This runs only in the development environment or in debug mode.
+ * <br>
+ * The mod's own assets and the assets in folder resource packs are watched. Once the files stop changing, the
+ * layouts are reloaded on the client thread, so they're never read while the resource manager is being reloaded.
+ */
+public class LayoutFileWatcher {
+    private static final Logger logger = LogManager.getLogger();
+    /** Time in ms with no file changes to wait for before reloading, so saving several files causes one reload */
+    private static final long DEBOUNCE_TIME = 250;
+    /** Directories under {@code assets/fancywarpmenu} that contain the layout files and their textures */
+    private static final String[] WATCHED_ASSET_DIRECTORIES = {"data", "textures"};
+
+    private static LayoutFileWatcher instance;
+
+    private final WatchService watchService;
+
+    private LayoutFileWatcher(WatchService watchService) {
+        this.watchService = watchService;
+    }
+
+    /**
+     * Starts or restarts the watcher if it should be running, or stops it if it shouldn't. This should be called
+     * when debug mode is toggled or the resource packs change, since those change whether the watcher runs and which
+     * directories it watches.
+     */
+    public static synchronized void update() {
+        if (instance != null) {
+            instance.stop();
+            instance = null;
+        }
+
+        if (!EnvironmentDetails.isDeobfuscatedEnvironment() && !Settings.isDebugModeEnabled()) {
+            return;
+        }
+
+        try {
+            LayoutFileWatcher watcher = new LayoutFileWatcher(FileSystems.getDefault().newWatchService());
+
+            for (File assetDirectory : getAssetDirectories()) {
+                for (String watchedDirectory : WATCHED_ASSET_DIRECTORIES) {
+                    watcher.registerAll(new File(assetDirectory, watchedDirectory).toPath());
+                }
+            }
+
+            Thread thread = new Thread(watcher::run, "Fancy Warp Menu Layout Watcher");
+            thread.setDaemon(true);
+            thread.start();
+            instance = watcher;
+        } catch (IOException e) {
+            logger.warn("Failed to start layout file watcher", e);
+        }
+    }
+
+    /**
+     * Returns the {@code assets/fancywarpmenu} directories of the mod's source and the enabled folder resource packs
+     */
+    private static List<File> getAssetDirectories() {
+        String assetPath = "assets/" + FancyWarpMenu.getInstance().getModId();
+        List<File> assetDirectories = new ArrayList<>();
+        File modSource = FancyWarpMenu.getInstance().getModContainer().getSource();
+
+        // The mod's source is a directory in the development environment
+        if (modSource.isDirectory()) {
+            assetDirectories.add(new File(modSource, assetPath));
+        }
+
+        ResourcePackRepository resourcePackRepository = Minecraft.getMinecraft().getResourcePackRepository();
+
+        for (ResourcePackRepository.Entry entry : new ArrayList<>(resourcePackRepository.getRepositoryEntries())) {
+            File resourcePackFile = new File(resourcePackRepository.getDirResourcepacks(), entry.getResourcePackName());
+
+            if (resourcePackFile.isDirectory()) {
+                assetDirectories.add(new File(resourcePackFile, assetPath));
+            }
+        }
+
+        return assetDirectories;
+    }
+
+    /**
+     * Registers the given directory and its subdirectories with the watch service
+     */
+    private void registerAll(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                handleEvents(watchService.take());
+
+                // Wait for the burst of changes from saving files to end
+                WatchKey watchKey;
+                while ((watchKey = watchService.poll(DEBOUNCE_TIME, TimeUnit.MILLISECONDS)) != null) {
+                    handleEvents(watchKey);
+                }
+
+                Minecraft.getMinecraft().addScheduledTask(this::reloadLayouts);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        } catch (RuntimeException e) {
+            logger.warn("Layout file watcher stopped unexpectedly", e);
+        }
+    }
+
+    private void handleEvents(WatchKey watchKey) {
+        Path directory = (Path) watchKey.watchable();
+
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            // New directories have to be registered to watch the files added to them
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                try {
+                    registerAll(directory.resolve((Path) event.context()));
+                } catch (IOException e) {
+                    logger.warn("Failed to watch new directory " + event.context(), e);
+                }
+            }
+        }
+
+        watchKey.reset();
+    }
+
+    /**
+     * Reloads and publishes the layouts that changed. This must be called on the client thread, where the open fancy
+     * warp menu switches to the new layout before the next frame is drawn.
+     */
+    private void reloadLayouts() {
+        Map<ResourceLocation, ResourceFingerprints.Fingerprint> previousFingerprints = ResourceFingerprints.snapshot();
+        StateSnapshot state = StateSnapshot.get();
+        Layout overworldLayout = LayoutLoader.reloadLayout(LayoutLoader.OVERWORLD_LAYOUT_LOCATION,
+                state.getOverworldLayout());
+        Layout riftLayout = LayoutLoader.reloadLayout(LayoutLoader.RIFT_LAYOUT_LOCATION, state.getRiftLayout());
+        Set<ResourceLocation> changedLocations = ResourceFingerprints.getChangedSince(previousFingerprints);
+
+        if (!changedLocations.isEmpty()) {
+            logger.debug("Layout files changed: {}", changedLocations);
+            FancyWarpMenu.getInstance().publishReloadedLayouts(state, overworldLayout, riftLayout, changedLocations);
+        }
+    }
+
+    private void stop() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("Failed to stop layout file watcher", e);
+        }
+    }
+}
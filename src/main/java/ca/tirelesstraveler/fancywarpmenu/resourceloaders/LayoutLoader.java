@@ -22,93 +22,307 @@
 
 package ca.tirelesstraveler.fancywarpmenu.resourceloaders;
 
+import ca.tirelesstraveler.fancywarpmenu.data.Settings;
 import ca.tirelesstraveler.fancywarpmenu.data.layout.*;
-import ca.tirelesstraveler.fancywarpmenu.state.FancyWarpMenuState;
 import com.google.gson.stream.JsonReader;
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.renderer.texture.TextureUtil;
 import net.minecraft.client.resources.IResource;
 import net.minecraft.client.resources.IResourceManager;
 import net.minecraft.crash.CrashReport;
 import net.minecraft.util.ReportedException;
 import net.minecraft.util.ResourceLocation;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
-import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.*;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class LayoutLoader extends ResourceLoader {
     public static final ResourceLocation OVERWORLD_LAYOUT_LOCATION = new ResourceLocation("fancywarpmenu",
             "data/layout.json");
     public static final ResourceLocation RIFT_LAYOUT_LOCATION = new ResourceLocation("fancywarpmenu", "data/riftLayout.json");
+    /** The eight bytes every PNG file starts with */
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    /** Chunk type of the PNG image header, which must be the first chunk in the file */
+    private static final int PNG_IHDR_CHUNK_TYPE = 0x49484452;
+    /** Signature (8 bytes) + IHDR chunk length (4 bytes) + IHDR chunk type (4 bytes) + width (4 bytes) + height (4 bytes) */
+    private static final int PNG_HEADER_LENGTH = 24;
+
+    /** Dimensions of the textures probed so far, reused while a texture's fingerprint doesn't change */
+    private static final Map<ResourceLocation, Pair<Integer, Integer>> textureDimensions = new ConcurrentHashMap<>();
+
+    /**
+     * Loads and validates a layout
+     *
+     * @param resourceLocation location of the layout file
+     * @param fatal whether a layout that fails to load should crash the game instead of being reported in chat
+     * @return the loaded layout, or {@code null} if loading failed with a non-fatal error
+     */
+    public static Layout loadLayout(ResourceLocation resourceLocation, boolean fatal) {
+        // Resource pack makers edit textures in place, which doesn't change the fingerprint of folder packs
+        return loadLayout(resourceLocation, !Settings.isDebugModeEnabled(), fatal);
+    }
+
+    /**
+     * Reloads a layout if its file or any of its textures changed since it was loaded. Textures are only probed
+     * again if they changed. Load errors are never fatal since a layout is already loaded.
+     *
+     * @param resourceLocation location of the layout file
+     * @param currentLayout the layout currently loaded from {@code resourceLocation}
+     * @return the reloaded layout, or {@code currentLayout} if nothing changed or the reloaded layout failed to load
+     */
+    public static Layout reloadLayout(ResourceLocation resourceLocation, Layout currentLayout) {
+        boolean texturesChanged = currentLayout != null && haveTexturesChanged(currentLayout);
+
+        if (currentLayout != null && !texturesChanged && !ResourceFingerprints.hasChanged(resourceLocation)) {
+            return currentLayout;
+        }
+
+        // The layout cache doesn't check textures, so it's skipped when they change
+        Layout reloadedLayout = loadLayout(resourceLocation, !texturesChanged && !Settings.isDebugModeEnabled(), false);
+        return reloadedLayout != null ? reloadedLayout : currentLayout;
+    }
+
+    private static Layout loadLayout(ResourceLocation resourceLocation, boolean useCache, boolean fatal) {
+        long startTime = System.nanoTime();
 
-    public static Layout loadLayout(ResourceLocation resourceLocation) {
         try {
             IResource layoutResource = Minecraft.getMinecraft().getResourceManager().getResource(resourceLocation);
 
-            try (InputStream stream = layoutResource.getInputStream();
-                 JsonReader reader = new JsonReader(new InputStreamReader(stream))) {
-                Layout layout = gson.fromJson(reader, Layout.class);
-                Layout.validateLayout(layout);
-
-                // Layout background texture
-                layout.setBackgroundTextureLocation();
-
-                // Warp icon
-                WarpIcon warpIcon = layout.getWarpIcon();
-                Warp.setWarpIcon(warpIcon);
-                warpIcon.init();
-                Pair<Integer, Integer> warpIconDimensions = getTextureDimensions(warpIcon.getTextureLocation());
-                warpIcon.setTextureDimensions(warpIconDimensions.getLeft(), warpIconDimensions.getRight());
-
-                // Config and regular warp menu button icon dimensions
-                ConfigButton configButton = layout.getConfigButton();
-                RegularWarpMenuButton regularWarpMenuButton = layout.getRegularWarpMenuButton();
-
-                Pair<Integer, Integer> configButtonIconDimensions = getTextureDimensions(configButton.getTextureLocation());
-                configButton.setTextureDimensions(configButtonIconDimensions.getLeft(), configButtonIconDimensions.getRight());
-                Pair<Integer, Integer> regularWarpMenuButtonIconDimensions = getTextureDimensions(regularWarpMenuButton.getTextureLocation());
-                regularWarpMenuButton.setTextureDimensions(regularWarpMenuButtonIconDimensions.getLeft(), regularWarpMenuButtonIconDimensions.getRight());
-
-                // Island texture dimensions and hover effect texture
-                for (Island island : layout.getIslandList()) {
-                    Pair<Integer, Integer> islandTextureDimensions;
-
-                    island.setTextureLocation();
-                    islandTextureDimensions = getTextureDimensions(island.getTextureLocation());
-                    island.setTextureDimensions(islandTextureDimensions.getLeft(), islandTextureDimensions.getRight());
-
-                    if (island.getHoverEffectTexturePath() != null) {
-                        island.setHoverEffectTextureLocation();
-                    }
+            try (InputStream stream = layoutResource.getInputStream()) {
+                byte[] layoutBytes = IOUtils.toByteArray(stream);
+                byte[] fingerprint = LayoutCache.computeFingerprint(layoutBytes);
+                ResourceFingerprints.record(layoutResource);
+                Layout layout = useCache ? LayoutCache.read(resourceLocation, fingerprint) : null;
+                boolean cached = layout != null;
+
+                if (cached) {
+                    initLayout(layout);
+                } else {
+                    layout = parseLayout(layoutBytes);
+                    LayoutCache.write(resourceLocation, fingerprint, layout);
                 }
 
+                logger.debug("Loaded layout {} {}in {} ms", resourceLocation, cached ? "from cache " : "",
+                        (System.nanoTime() - startTime) / 1_000_000D);
                 return layout;
             } catch (RuntimeException e) {
-                boolean fatal = FancyWarpMenuState.getOverworldLayout() == null;
-
                 handleResourceLoadException(layoutResource, fatal, e);
                 return null;
             }
         } catch (IOException e) {
-            boolean fatal = FancyWarpMenuState.getOverworldLayout() == null;
-
             handleGetResourceException(resourceLocation.toString(), fatal, e);
             return null;
         }
     }
 
+    /**
+     * Parses and validates a layout and reads the dimensions of its textures
+     *
+     * @param layoutBytes contents of the layout file
+     * @return the loaded layout
+     */
+    private static Layout parseLayout(byte[] layoutBytes) throws IOException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(layoutBytes)))) {
+            Layout layout = gson.fromJson(reader, Layout.class);
+            Layout.validateLayout(layout);
+            initLayout(layout);
+
+            // Warp icon
+            WarpIcon warpIcon = layout.getWarpIcon();
+            Pair<Integer, Integer> warpIconDimensions = getTextureDimensions(warpIcon.getTextureLocation());
+            warpIcon.setTextureDimensions(warpIconDimensions.getLeft(), warpIconDimensions.getRight());
+
+            // Config and regular warp menu button icon dimensions
+            ConfigButton configButton = layout.getConfigButton();
+            RegularWarpMenuButton regularWarpMenuButton = layout.getRegularWarpMenuButton();
+
+            Pair<Integer, Integer> configButtonIconDimensions = getTextureDimensions(configButton.getTextureLocation());
+            configButton.setTextureDimensions(configButtonIconDimensions.getLeft(), configButtonIconDimensions.getRight());
+            Pair<Integer, Integer> regularWarpMenuButtonIconDimensions = getTextureDimensions(regularWarpMenuButton.getTextureLocation());
+            regularWarpMenuButton.setTextureDimensions(regularWarpMenuButtonIconDimensions.getLeft(), regularWarpMenuButtonIconDimensions.getRight());
+
+            // Island texture dimensions
+            for (Island island : layout.getIslandList()) {
+                Pair<Integer, Integer> islandTextureDimensions = getTextureDimensions(island.getTextureLocation());
+                island.setTextureDimensions(islandTextureDimensions.getLeft(), islandTextureDimensions.getRight());
+
+                if (island.getHoverEffectTextureLocation() != null) {
+                    island.setHoverEffectTextureWidth(getTextureDimensions(island.getHoverEffectTextureLocation()).getLeft());
+                }
+            }
+
+            // Textures that aren't probed are fingerprinted so changes to them are found on reload too
+            for (ResourceLocation textureLocation : layout.getTextureLocations()) {
+                if (!textureDimensions.containsKey(textureLocation)) {
+                    recordTextureFingerprint(textureLocation);
+                }
+            }
+
+            return layout;
+        }
+    }
+
+    /**
+     * Sets the transient fields of a validated layout that aren't stored in the {@link LayoutCache}
+     */
+    private static void initLayout(Layout layout) {
+        // Layout background texture
+        layout.setBackgroundTextureLocation();
+        layout.getWarpIcon().init();
+
+        // Island textures and hover effect textures
+        for (Island island : layout.getIslandList()) {
+            island.setTextureLocation();
+
+            if (island.getHoverEffectTexturePath() != null) {
+                island.setHoverEffectTextureLocation();
+            }
+        }
+
+        layout.compileWarpTags();
+    }
+
+    /**
+     * Checks if any of the layout's textures changed since they were probed. Textures of layouts loaded from the
+     * {@link LayoutCache} weren't probed, so their fingerprints are recorded now and they count as unchanged.
+     */
+    private static boolean haveTexturesChanged(Layout layout) {
+        boolean texturesChanged = false;
+
+        for (ResourceLocation textureLocation : layout.getTextureLocations()) {
+            if (!ResourceFingerprints.isRecorded(textureLocation)) {
+                recordTextureFingerprint(textureLocation);
+            } else if (ResourceFingerprints.hasChanged(textureLocation)) {
+                texturesChanged = true;
+            }
+        }
+
+        return texturesChanged;
+    }
+
+    private static void recordTextureFingerprint(ResourceLocation textureLocation) {
+        try {
+            IResource resource = Minecraft.getMinecraft().getResourceManager().getResource(textureLocation);
+            // The resource manager opens the texture, but it's never read
+            IOUtils.closeQuietly(resource.getInputStream());
+            ResourceFingerprints.record(resource);
+        } catch (IOException e) {
+            logger.warn("Failed to find texture " + textureLocation, e);
+        }
+    }
+
+    /**
+     * Gets the dimensions of a texture without decoding its pixels. For PNG textures, only the image header is parsed.
+     * Other formats fall back to reading the image metadata with an {@link ImageReader}. The texture's fingerprint
+     * is recorded, and the dimensions probed before are reused if it hasn't changed.
+     *
+     * @param resourceLocation location of the texture
+     * @return a pair with the texture's width on the left and height on the right
+     */
     private static Pair<Integer, Integer> getTextureDimensions(ResourceLocation resourceLocation) {
         IResourceManager resourceManager = Minecraft.getMinecraft().getResourceManager();
 
-        try (InputStream textureStream = resourceManager.getResource(resourceLocation).getInputStream()) {
-            BufferedImage bufferedImage = TextureUtil.readBufferedImage(textureStream);
-            return Pair.of(bufferedImage.getWidth(), bufferedImage.getHeight());
+        try {
+            IResource textureResource = resourceManager.getResource(resourceLocation);
+
+            try (InputStream textureStream = new BufferedInputStream(textureResource.getInputStream())) {
+                boolean changed = ResourceFingerprints.record(textureResource);
+                Pair<Integer, Integer> textureDimensions = LayoutLoader.textureDimensions.get(resourceLocation);
+
+                if (!changed && textureDimensions != null) {
+                    return textureDimensions;
+                }
+
+                textureStream.mark(PNG_HEADER_LENGTH);
+                textureDimensions = readPngDimensions(textureStream);
+
+                if (textureDimensions == null) {
+                    textureStream.reset();
+                    textureDimensions = readImageDimensions(textureStream);
+                }
+
+                LayoutLoader.textureDimensions.put(resourceLocation, textureDimensions);
+                return textureDimensions;
+            }
         } catch (IOException e) {
             throw new ReportedException(CrashReport.makeCrashReport(e,
                     String.format("Failed to read texture \"%s\"", resourceLocation)));
         }
     }
+
+    /**
+     * Reads the image width and height from the IHDR chunk at the start of a PNG file.
+     *
+     * @param stream stream positioned at the start of the file
+     * @return a pair with the image's width on the left and height on the right, or {@code null} if the stream is not a PNG
+     * @throws IOException if the stream ends before the end of the header
+     */
+    static Pair<Integer, Integer> readPngDimensions(InputStream stream) throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(stream);
+        byte[] signature = new byte[PNG_SIGNATURE.length];
+
+        try {
+            dataInputStream.readFully(signature);
+        } catch (EOFException e) {
+            return null;
+        }
+
+        if (!Arrays.equals(signature, PNG_SIGNATURE)) {
+            return null;
+        }
+
+        // IHDR chunk length is always 13
+        dataInputStream.readInt();
+
+        if (dataInputStream.readInt() != PNG_IHDR_CHUNK_TYPE) {
+            throw new IOException("PNG image header chunk is missing");
+        }
+
+        int width = dataInputStream.readInt();
+        int height = dataInputStream.readInt();
+
+        if (width <= 0 || height <= 0) {
+            throw new IOException(String.format("Invalid PNG dimensions %d x %d", width, height));
+        }
+
+        return Pair.of(width, height);
+    }
+
+    /**
+     * Reads the image width and height from the image metadata using the first {@link ImageReader} that supports the
+     * image's format.
+     *
+     * @param stream stream positioned at the start of the file
+     * @return a pair with the image's width on the left and height on the right
+     * @throws IOException if no reader supports the image's format or the metadata can't be read
+     */
+    static Pair<Integer, Integer> readImageDimensions(InputStream stream) throws IOException {
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(stream)) {
+            if (imageInputStream == null) {
+                throw new IOException("Failed to create image input stream");
+            }
+
+            Iterator<ImageReader> imageReaders = ImageIO.getImageReaders(imageInputStream);
+
+            if (!imageReaders.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+
+            ImageReader imageReader = imageReaders.next();
+
+            try {
+                imageReader.setInput(imageInputStream, true, true);
+                return Pair.of(imageReader.getWidth(0), imageReader.getHeight(0));
+            } finally {
+                imageReader.dispose();
+            }
+        }
+    }
 }
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.resourceloaders;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base class of the hand-written {@link TypeAdapter}s of the resource data classes. Objects are read in one pass over
+ * the {@link JsonReader} without reflection. Values are checked as they're read, and errors include the line and
+ * column of the value in the resource file. Unknown fields are skipped.
+ *
+ * @param <T> the type of object read and written by this adapter
+ */
+public abstract class ObjectTypeAdapter<T> extends TypeAdapter<T> {
+
+    /**
+     * Creates the object that the fields are read into
+     */
+    protected abstract T createInstance();
+
+    /**
+     * Reads the value of a field into the object. Fields this adapter doesn't know must be skipped with
+     * {@link JsonReader#skipValue()}.
+     *
+     * @param reader the reader, positioned at the field's value
+     * @param name the name of the field
+     * @param object the object being read
+     */
+    protected abstract void readField(JsonReader reader, String name, T object) throws IOException;
+
+    /**
+     * Writes the fields of the object. Fields with {@code null} values are left out.
+     */
+    protected abstract void writeFields(JsonWriter writer, T object) throws IOException;
+
+    @Override
+    public T read(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        T object = createInstance();
+        reader.beginObject();
+
+        while (reader.hasNext()) {
+            readField(reader, reader.nextName(), object);
+        }
+
+        reader.endObject();
+        return object;
+    }
+
+    @Override
+    public void write(JsonWriter writer, T object) throws IOException {
+        if (object == null) {
+            writer.nullValue();
+            return;
+        }
+
+        writer.beginObject();
+        writeFields(writer, object);
+        writer.endObject();
+    }
+
+    /**
+     * Creates an exception for an invalid value at the reader's current position
+     *
+     * @param reader the reader that read the invalid value
+     * @param message description of the problem
+     * @return the exception to throw
+     */
+    protected static JsonSyntaxException syntaxError(JsonReader reader, String message) {
+        // The reader's string is its class name followed by its line and column
+        String readerString = reader.toString();
+
+        return new JsonSyntaxException(message + " " + readerString.substring(readerString.indexOf(' ') + 1));
+    }
+
+    /**
+     * Reads a string, which may be {@code null}
+     */
+    protected static String nextNullableString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        return reader.nextString();
+    }
+
+    /**
+     * Reads an integer and checks that it's within the given range
+     *
+     * @param name the name of the field being read, used in the error message
+     * @param min the minimum value, inclusive
+     * @param max the maximum value, inclusive
+     */
+    protected static int nextInt(JsonReader reader, String name, int min, int max) throws IOException {
+        int value = reader.nextInt();
+
+        if (value < min || value > max) {
+            throw syntaxError(reader, String.format("%s must be between %d and %d but was %d", name, min, max, value));
+        }
+
+        return value;
+    }
+
+    /**
+     * Reads a float and checks that it's within the given range
+     *
+     * @param name the name of the field being read, used in the error message
+     * @param min the minimum value, inclusive
+     * @param max the maximum value, inclusive
+     */
+    protected static float nextFloat(JsonReader reader, String name, float min, float max) throws IOException {
+        float value = (float) reader.nextDouble();
+
+        if (value < min || value > max) {
+            throw syntaxError(reader, String.format("%s must be between %s and %s but was %s", name, min, max, value));
+        }
+
+        return value;
+    }
+
+    /**
+     * Reads an enum constant by name
+     *
+     * @param enumClass the class of the enum
+     * @param name the name of the constant
+     * @return the constant with the given name
+     */
+    protected static <E extends Enum<E>> E parseEnum(JsonReader reader, Class<E> enumClass, String name) {
+        try {
+            return Enum.valueOf(enumClass, name);
+        } catch (IllegalArgumentException e) {
+            throw syntaxError(reader, String.format("Unknown %s \"%s\"", enumClass.getSimpleName(), name));
+        }
+    }
+
+    /**
+     * Reads an array with the given element adapter, or {@code null}
+     */
+    protected static <E> List<E> readList(JsonReader reader, TypeAdapter<E> elementAdapter) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        List<E> list = new ArrayList<>();
+        reader.beginArray();
+
+        while (reader.hasNext()) {
+            list.add(elementAdapter.read(reader));
+        }
+
+        reader.endArray();
+        return list;
+    }
+
+    /**
+     * Reads an array of strings, or {@code null}
+     */
+    protected static List<String> readStringList(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        List<String> list = new ArrayList<>();
+        reader.beginArray();
+
+        while (reader.hasNext()) {
+            list.add(reader.nextString());
+        }
+
+        reader.endArray();
+        return list;
+    }
+
+    /**
+     * Writes a string field if the string isn't {@code null}
+     */
+    protected static void writeString(JsonWriter writer, String name, String value) throws IOException {
+        if (value != null) {
+            writer.name(name).value(value);
+        }
+    }
+
+    /**
+     * Writes a list field with the given element adapter if the list isn't {@code null}
+     */
+    protected static <E> void writeList(JsonWriter writer, String name, List<E> list, TypeAdapter<E> elementAdapter)
+            throws IOException {
+        if (list != null) {
+            writer.name(name).beginArray();
+
+            for (E element : list) {
+                elementAdapter.write(writer, element);
+            }
+
+            writer.endArray();
+        }
+    }
+
+    /**
+     * Writes a string list field if the list isn't {@code null}
+     */
+    protected static void writeStringList(JsonWriter writer, String name, List<String> list) throws IOException {
+        if (list != null) {
+            writer.name(name).beginArray();
+
+            for (String string : list) {
+                writer.value(string);
+            }
+
+            writer.endArray();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.resourceloaders;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.resources.AbstractResourcePack;
+import net.minecraft.client.resources.FolderResourcePack;
+import net.minecraft.client.resources.IResource;
+import net.minecraft.client.resources.IResourcePack;
+import net.minecraft.client.resources.ResourcePackRepository;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.client.FMLClientHandler;
+import net.minecraftforge.fml.relauncher.ReflectionHelper;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records which resource pack each loaded fancy warp menu resource came from and the size and modification time of
+ * the file it was read from. Resource reloads compare these fingerprints to reload only the resources that changed.
+ * Fingerprints are taken from the file system, so resources are never read to fingerprint them.
+ */
+public class ResourceFingerprints {
+    /** Fingerprint of each resource when it was last loaded */
+    private static final Map<ResourceLocation, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+
+    private ResourceFingerprints() {
+    }
+
+    /**
+     * Records the fingerprint of a resource that was just loaded
+     *
+     * @param resource the resource
+     * @return {@code true} if the fingerprint differs from the one previously recorded for the resource, or if none was
+     * recorded, {@code false} otherwise
+     */
+    public static boolean record(IResource resource) {
+        Fingerprint fingerprint = new Fingerprint(resource);
+
+        return !fingerprint.equals(fingerprints.put(resource.getResourceLocation(), fingerprint));
+    }
+
+    public static boolean isRecorded(ResourceLocation resourceLocation) {
+        return fingerprints.containsKey(resourceLocation);
+    }
+
+    /**
+     * Checks if the resource at the given location has changed since its fingerprint was recorded. The resource
+     * pack that resolves the location and the size and modification time of the resource's file are compared, so
+     * this also detects files edited in place in folder resource packs. The recorded fingerprint isn't updated.
+     *
+     * @param resourceLocation location of the resource to check
+     * @return {@code true} if the resource changed, no fingerprint was recorded for it, or it can't be found,
+     * {@code false} otherwise
+     */
+    public static boolean hasChanged(ResourceLocation resourceLocation) {
+        Fingerprint recordedFingerprint = fingerprints.get(resourceLocation);
+
+        if (recordedFingerprint == null) {
+            return true;
+        }
+
+        try {
+            IResource resource = Minecraft.getMinecraft().getResourceManager().getResource(resourceLocation);
+            // The resource manager opens the resource, but it's never read
+            IOUtils.closeQuietly(resource.getInputStream());
+            return !recordedFingerprint.equals(new Fingerprint(resource));
+        } catch (IOException e) {
+            // Let the loader report the error
+            return true;
+        }
+    }
+
+    /**
+     * Returns a copy of the recorded fingerprints, to be passed to {@link #getChangedSince(Map)} after a reload
+     */
+    public static Map<ResourceLocation, Fingerprint> snapshot() {
+        return new HashMap<>(fingerprints);
+    }
+
+    /**
+     * Returns the locations of the resources whose fingerprints changed since the given snapshot was taken.
+     * Resources that weren't recorded in the snapshot aren't included since it's unknown whether they changed.
+     *
+     * @param snapshot fingerprints returned by {@link #snapshot()}
+     */
+    public static Set<ResourceLocation> getChangedSince(Map<ResourceLocation, Fingerprint> snapshot) {
+        Set<ResourceLocation> changedLocations = new HashSet<>();
+
+        for (Map.Entry<ResourceLocation, Fingerprint> entry : snapshot.entrySet()) {
+            if (!entry.getValue().equals(fingerprints.get(entry.getKey()))) {
+                changedLocations.add(entry.getKey());
+            }
+        }
+
+        return changedLocations;
+    }
+
+    /**
+     * Gets the file a resource is read from. For folder resource packs, this is the resource's own file. For zip
+     * resource packs, it's the zip file, which is replaced whenever any of its resources change.
+     *
+     * @return the file, or {@code null} if the resource's pack isn't backed by a file, like the default resource pack
+     */
+    private static File getResourceFile(IResource resource) {
+        ResourceLocation resourceLocation = resource.getResourceLocation();
+        IResourcePack resourcePack = getResourcePack(resource.getResourcePackName(), resourceLocation.getResourceDomain());
+
+        if (!(resourcePack instanceof AbstractResourcePack)) {
+            return null;
+        }
+
+        File resourcePackFile = ReflectionHelper.getPrivateValue(AbstractResourcePack.class,
+                (AbstractResourcePack) resourcePack, "resourcePackFile", "field_110597_b");
+
+        if (resourcePack instanceof FolderResourcePack) {
+            return new File(resourcePackFile, String.format("assets/%s/%s", resourceLocation.getResourceDomain(),
+                    resourceLocation.getResourcePath()));
+        } else {
+            return resourcePackFile;
+        }
+    }
+
+    /**
+     * Finds the selected resource pack or mod resource pack with the given name
+     *
+     * @param resourcePackName name of the resource pack
+     * @param resourceDomain domain of the resource, which is the mod ID for resources in a mod's own resource pack
+     * @return the resource pack, or {@code null} if none of the selected resource packs have the given name
+     */
+    private static IResourcePack getResourcePack(String resourcePackName, String resourceDomain) {
+        // Copy the list since it's replaced on the main thread when the resource packs change
+        for (ResourcePackRepository.Entry entry :
+                new ArrayList<>(Minecraft.getMinecraft().getResourcePackRepository().getRepositoryEntries())) {
+            if (entry.getResourcePack().getPackName().equals(resourcePackName)) {
+                return entry.getResourcePack();
+            }
+        }
+
+        IResourcePack modResourcePack = FMLClientHandler.instance().getResourcePackFor(resourceDomain);
+
+        if (modResourcePack != null && modResourcePack.getPackName().equals(resourcePackName)) {
+            return modResourcePack;
+        }
+
+        return null;
+    }
+
+    /**
+     * The resource pack a resource was loaded from and the size and modification time of the file it was read from.
+     * Resources from packs that aren't backed by a file can't change while the game is running, so only their pack is
+     * compared.
+     */
+    public static class Fingerprint {
+        private final String resourcePackName;
+        private final long length;
+        private final long lastModified;
+
+        private Fingerprint(IResource resource) {
+            File resourceFile = getResourceFile(resource);
+
+            resourcePackName = resource.getResourcePackName();
+            // Both are 0 if the file doesn't exist
+            length = resourceFile != null ? resourceFile.length() : 0;
+            lastModified = resourceFile != null ? resourceFile.lastModified() : 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Fingerprint)) {
+                return false;
+            }
+
+            Fingerprint that = (Fingerprint) o;
+            return length == that.length && lastModified == that.lastModified && Objects.equals(resourcePackName, that.resourcePackName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(resourcePackName, length, lastModified);
+        }
+    }
+}
@@ -23,6 +23,17 @@
 package ca.tirelesstraveler.fancywarpmenu.resourceloaders;
 
 import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.ConfigButton;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Island;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Layout;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.RegularWarpMenuButton;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Warp;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.WarpIcon;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.WarpTag;
+import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.SkyBlockConstants;
+import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.WarpCommandVariant;
+import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.WarpMessages;
+import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.ItemMatchCondition;
 import ca.tirelesstraveler.fancywarpmenu.utils.ChatUtils;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -39,7 +50,22 @@ import java.io.IOException;
 
 // TODO: Localize long error messages?
 public abstract class ResourceLoader {
+    /**
+     * Gson instance used for resource files. The resource data classes are read with their own
+     * {@link ObjectTypeAdapter}s instead of reflection.
+     */
     public static final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(Layout.class, Layout.TYPE_ADAPTER)
+            .registerTypeAdapter(Island.class, Island.TYPE_ADAPTER)
+            .registerTypeAdapter(Warp.class, Warp.TYPE_ADAPTER)
+            .registerTypeAdapter(WarpIcon.class, WarpIcon.TYPE_ADAPTER)
+            .registerTypeAdapter(WarpTag.class, WarpTag.TYPE_ADAPTER)
+            .registerTypeAdapter(ConfigButton.class, ConfigButton.TYPE_ADAPTER)
+            .registerTypeAdapter(RegularWarpMenuButton.class, RegularWarpMenuButton.TYPE_ADAPTER)
+            .registerTypeAdapter(SkyBlockConstants.class, SkyBlockConstants.TYPE_ADAPTER)
+            .registerTypeAdapter(ItemMatchCondition.class, ItemMatchCondition.TYPE_ADAPTER)
+            .registerTypeAdapter(WarpMessages.class, WarpMessages.TYPE_ADAPTER)
+            .registerTypeAdapter(WarpCommandVariant.class, WarpCommandVariant.TYPE_ADAPTER)
             .setPrettyPrinting()
             .create();
     protected static final Logger logger = LogManager.getLogger();
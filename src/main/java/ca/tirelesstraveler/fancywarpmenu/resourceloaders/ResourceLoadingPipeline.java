@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2024. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.resourceloaders;
+
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Layout;
+import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.SkyBlockConstants;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.minecraft.util.ReportedException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads the SkyBlock constants, the overworld layout, and the rift layout in parallel on a small pool of worker threads.
+ * The results are joined when they are first needed using the getters of this class.
+ * <br>
+ * Error handling is the same as when the loaders are called directly. Non-fatal errors are logged and result in a
+ * {@code null} value. Fatal errors, which are thrown as a {@link ReportedException}, are rethrown on the thread that
+ * joins the result. Errors in the SkyBlock constants and the overworld layout are fatal since the mod can't work
+ * without them, while the rift layout is optional and its errors are only reported in chat.
+ */
+public class ResourceLoadingPipeline {
+    /** One thread per resource loaded */
+    private static final int THREAD_COUNT = 3;
+
+    private final ExecutorService executor;
+    private final CompletableFuture<SkyBlockConstants> skyBlockConstantsFuture;
+    private final CompletableFuture<Layout> overworldLayoutFuture;
+    private final CompletableFuture<Layout> riftLayoutFuture;
+
+    private ResourceLoadingPipeline() {
+        executor = Executors.newFixedThreadPool(THREAD_COUNT, new ThreadFactoryBuilder()
+                .setNameFormat("Fancy Warp Menu Resource Loader #%d")
+                .setDaemon(true)
+                .build());
+        skyBlockConstantsFuture = CompletableFuture.supplyAsync(
+                () -> SkyBlockConstantsLoader.loadSkyBlockConstants(true), executor);
+        overworldLayoutFuture = CompletableFuture.supplyAsync(
+                () -> LayoutLoader.loadLayout(LayoutLoader.OVERWORLD_LAYOUT_LOCATION, true), executor);
+        riftLayoutFuture = CompletableFuture.supplyAsync(
+                () -> LayoutLoader.loadLayout(LayoutLoader.RIFT_LAYOUT_LOCATION, false), executor);
+
+        CompletableFuture.allOf(skyBlockConstantsFuture, overworldLayoutFuture, riftLayoutFuture)
+                .whenComplete((result, throwable) -> executor.shutdown());
+    }
+
+    /**
+     * Starts loading the SkyBlock constants and the layouts in the background.
+     *
+     * @return the started pipeline
+     */
+    public static ResourceLoadingPipeline start() {
+        return new ResourceLoadingPipeline();
+    }
+
+    /**
+     * Waits for the SkyBlock constants to finish loading if needed and returns them.
+     *
+     * @return the loaded SkyBlock constants, or {@code null} if loading failed with a non-fatal error
+     */
+    public SkyBlockConstants getSkyBlockConstants() {
+        return join(skyBlockConstantsFuture);
+    }
+
+    /**
+     * Waits for the overworld layout to finish loading if needed and returns it.
+     *
+     * @return the loaded overworld layout, or {@code null} if loading failed with a non-fatal error
+     */
+    public Layout getOverworldLayout() {
+        return join(overworldLayoutFuture);
+    }
+
+    /**
+     * Waits for the rift layout to finish loading if needed and returns it.
+     *
+     * @return the loaded rift layout, or {@code null} if loading failed with a non-fatal error
+     */
+    public Layout getRiftLayout() {
+        return join(riftLayoutFuture);
+    }
+
+    /**
+     * Waits for the given future to complete and returns its result. If the future completed exceptionally,
+     * the exception thrown by the loader is unwrapped and rethrown on the calling thread.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw e;
+            }
+        }
+    }
+}
@@ -22,14 +22,15 @@
 
 package ca.tirelesstraveler.fancywarpmenu.resourceloaders;
 
-import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
 import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.SkyBlockConstants;
 import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.ItemMatchCondition;
 import com.google.gson.stream.JsonReader;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.resources.IResource;
 import net.minecraft.util.ResourceLocation;
+import org.apache.commons.io.IOUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -37,21 +38,24 @@ import java.util.Comparator;
 import java.util.List;
 
 public class SkyBlockConstantsLoader extends ResourceLoader {
-    private static final ResourceLocation SKY_BLOCK_CONSTANTS_LOCATION = new ResourceLocation("fancywarpmenu",
+    public static final ResourceLocation SKY_BLOCK_CONSTANTS_LOCATION = new ResourceLocation("fancywarpmenu",
             "data/skyBlockConstants.jsonc");
 
     /**
      * Creates a {@link SkyBlockConstants} instance from {@code SKY_BLOCK_CONSTANTS_LOCATION}.
      * Match conditions in {@code SkyBlockConstants#menuMatchingMap} are sorted by ascending item slot index.
      *
-     * @return the created {@code SkyBlockConstants} instance
+     * @param fatal whether SkyBlock constants that fail to load should crash the game instead of being reported in chat
+     * @return the created {@code SkyBlockConstants} instance, or {@code null} if loading failed with a non-fatal error
      */
-    public static SkyBlockConstants loadSkyBlockConstants() {
+    public static SkyBlockConstants loadSkyBlockConstants(boolean fatal) {
         try {
             IResource skyBlockConstantsResource = Minecraft.getMinecraft().getResourceManager().getResource(SKY_BLOCK_CONSTANTS_LOCATION);
 
-            try (InputStream stream = skyBlockConstantsResource.getInputStream();
-                 JsonReader reader = new JsonReader(new InputStreamReader(stream))) {
+            try (InputStream stream = skyBlockConstantsResource.getInputStream()) {
+                byte[] skyBlockConstantsBytes = IOUtils.toByteArray(stream);
+                ResourceFingerprints.record(skyBlockConstantsResource);
+                JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(skyBlockConstantsBytes)));
                 SkyBlockConstants skyBlockConstants = gson.fromJson(reader, SkyBlockConstants.class);
 
                 for (List<ItemMatchCondition> matchConditionList : skyBlockConstants.getMenuMatchingMap().values()) {
@@ -59,17 +63,15 @@ public class SkyBlockConstantsLoader extends ResourceLoader {
                 }
 
                 SkyBlockConstants.validateSkyBlockConstants(skyBlockConstants);
+                skyBlockConstants.buildMenuMatcher();
+                skyBlockConstants.getWarpMessages().buildMessageMatcher();
 
                 return skyBlockConstants;
             } catch (RuntimeException e) {
-                boolean fatal = FancyWarpMenu.getSkyBlockConstants() == null;
-
                 handleResourceLoadException(skyBlockConstantsResource, fatal, e);
                 return null;
             }
         } catch (IOException e) {
-            boolean fatal = FancyWarpMenu.getSkyBlockConstants() == null;
-
             handleGetResourceException(SKY_BLOCK_CONSTANTS_LOCATION.toString(), fatal, e);
             return null;
         }
@@ -29,10 +29,10 @@ import net.minecraft.client.Minecraft;
 
 /**
  * This class stores the current state of the Fancy Warp Menu.
+ * The layouts are kept in the current {@link StateSnapshot}, so both can be replaced together from any thread.
  */
 public class FancyWarpMenuState {
-    private static Layout overworldLayout;
-    private static Layout riftLayout;
+    /** Written and read on the client thread only */
     private static boolean openConfigMenuRequested;
 
     /**
@@ -42,19 +42,21 @@ public class FancyWarpMenuState {
      * @return {@code riftLayout} if {@code Menu.PORHTAL} is provided, {@code overworldLayout} otherwise
      */
     public static Layout getLayoutForMenu(Menu menu) {
+        StateSnapshot state = StateSnapshot.get();
+
         if (menu == Menu.PORHTAL) {
-            return getRiftLayout();
+            return state.getRiftLayout();
         } else {
-            return getOverworldLayout();
+            return state.getOverworldLayout();
         }
     }
 
     public static Layout getOverworldLayout() {
-        return overworldLayout;
+        return StateSnapshot.get().getOverworldLayout();
     }
 
     public static Layout getRiftLayout() {
-        return riftLayout;
+        return StateSnapshot.get().getRiftLayout();
     }
 
     public static boolean isFancyWarpMenuOpen() {
@@ -66,11 +68,29 @@ public class FancyWarpMenuState {
     }
 
     public static void setOverworldLayout(Layout overworldLayout) {
-        FancyWarpMenuState.overworldLayout = overworldLayout;
+        StateSnapshot.update(state -> state.withLayouts(overworldLayout, state.getRiftLayout()));
     }
 
     public static void setRiftLayout(Layout riftLayout) {
-        FancyWarpMenuState.riftLayout = riftLayout;
+        StateSnapshot.update(state -> state.withLayouts(state.getOverworldLayout(), riftLayout));
+    }
+
+    /**
+     * Replaces both layouts in one update if they're still the expected layouts. This keeps a reload that started
+     * from older layouts from replacing layouts published by another reload in the meantime.
+     *
+     * @param expectedOverworldLayout the overworld layout the reload started from
+     * @param expectedRiftLayout the rift layout the reload started from
+     * @return {@code true} if the layouts were replaced, {@code false} if they had changed
+     */
+    public static boolean compareAndSetLayouts(Layout expectedOverworldLayout, Layout expectedRiftLayout,
+                                               Layout overworldLayout, Layout riftLayout) {
+        StateSnapshot previousState = StateSnapshot.update(state ->
+                state.getOverworldLayout() == expectedOverworldLayout && state.getRiftLayout() == expectedRiftLayout ?
+                        state.withLayouts(overworldLayout, riftLayout) : state);
+
+        return previousState.getOverworldLayout() == expectedOverworldLayout
+                && previousState.getRiftLayout() == expectedRiftLayout;
     }
 
     public static void setOpenConfigMenuRequested(boolean openConfigMenuRequested) {
@@ -27,54 +27,52 @@ import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.Menu;
 
 /**
  * This class stores information about the state of the SkyBlock game the player is currently in.
+ * The state is kept in the current {@link StateSnapshot}, so it can be read and written from any thread.
  */
 public class GameState {
     /**
-     * Whether the player is currently on SkyBlock
+     * Returns whether the player is currently on SkyBlock, written by
+     * {@link ca.tirelesstraveler.fancywarpmenu.listeners.SkyBlockJoinListener} on the Netty thread.
      */
-    private static boolean onSkyBlock;
-    /**
-     * The current stage of the in-game season, can be "Early", mid (null), or "Late".
-     */
-    private static String seasonStage;
-    /**
-     * The current in-game season
-     */
-    private static String season;
-    /**
-     * Current in-game menu the player has open
-     */
-    private static Menu currentMenu;
-
     public static boolean isOnSkyBlock() {
-        return onSkyBlock || Settings.shouldSkipSkyBlockCheck();
+        return StateSnapshot.get().isOnSkyBlock() || Settings.shouldSkipSkyBlockCheck();
     }
 
     public static void setOnSkyBlock(boolean onSkyBlock) {
-        GameState.onSkyBlock = onSkyBlock;
+        StateSnapshot.update(state -> state.withOnSkyBlock(onSkyBlock));
     }
 
+    /**
+     * Returns the current stage of the in-game season, can be "Early", mid (null), or "Late".
+     * Written by {@link ScoreboardStateCache} on the Netty thread.
+     */
     public static String getSeasonStage() {
-        return seasonStage;
-    }
-
-    public static void setSeasonStage(String seasonStage) {
-        GameState.seasonStage = seasonStage;
+        return StateSnapshot.get().getSeasonStage();
     }
 
+    /**
+     * Returns the current in-game season, written by {@link ScoreboardStateCache} on the Netty thread.
+     */
     public static String getSeason() {
-        return season;
+        return StateSnapshot.get().getSeason();
     }
 
-    public static void setSeason(String season) {
-        GameState.season = season;
+    /**
+     * Sets the current in-game season and its stage in one update, so readers never see a season with the stage of
+     * the previous one.
+     */
+    public static void setSeason(String season, String seasonStage) {
+        StateSnapshot.update(state -> state.withSeason(season, seasonStage));
     }
 
+    /**
+     * Returns the current in-game menu the player has open
+     */
     public static Menu getCurrentMenu() {
-        return currentMenu;
+        return StateSnapshot.get().getCurrentMenu();
     }
 
     public static void setCurrentMenu(Menu currentMenu) {
-        GameState.currentMenu = currentMenu;
+        StateSnapshot.update(state -> state.withCurrentMenu(currentMenu));
     }
 }
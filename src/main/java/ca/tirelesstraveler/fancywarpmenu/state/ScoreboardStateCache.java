@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.state;
+
+import net.minecraft.network.play.server.S3BPacketScoreboardObjective;
+import net.minecraft.network.play.server.S3CPacketUpdateScore;
+import net.minecraft.network.play.server.S3DPacketDisplayScoreboard;
+import net.minecraft.network.play.server.S3EPacketTeams;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the SkyBlock season from the scoreboard up to date using scoreboard packets, so the season never has to be
+ * read by walking the scoreboard. The SkyBlock sidebar shows each line as a team's prefix and suffix. Only teams with
+ * an entry that has a score in the sidebar objective are sidebar lines, so the season is only taken from those.
+ * Like the sidebar, lines with a higher score take precedence. The parsed season is published with
+ * {@link GameState#setSeason(String, String)}.
+ * <p>
+ * Each team's text is parsed once when a packet changes it, and the season parsed from it is kept with the team.
+ * Packets that don't touch a team with a season don't cause the published season to be updated.
+ * <p>
+ * The packet methods are called on the Netty thread as packets are read.
+ */
+public class ScoreboardStateCache {
+    private static final int OBJECTIVE_ACTION_REMOVE = 1;
+    private static final int TEAM_ACTION_CREATE = 0;
+    private static final int TEAM_ACTION_REMOVE = 1;
+    private static final int TEAM_ACTION_UPDATE = 2;
+    private static final int TEAM_ACTION_ADD_PLAYERS = 3;
+    private static final int TEAM_ACTION_REMOVE_PLAYERS = 4;
+    private static final int SIDEBAR_DISPLAY_SLOT = 1;
+
+    private final Matcher seasonMatcher =
+            Pattern.compile("(?<seasonStage>Late|Early)? ?(?<season>[a-zA-Z]+) \\d{1,2}.*").matcher("");
+    /** Scores of the entries in each objective, keyed by objective name, then entry name */
+    private final Map<String, Map<String, Integer>> scoresByObjective = new HashMap<>();
+    /** Team of each scoreboard entry */
+    private final Map<String, String> teamsByPlayer = new HashMap<>();
+    /** Season parsed from the prefix and suffix of each team whose text contains one */
+    private final Map<String, TeamSeason> teamSeasons = new HashMap<>();
+    /** Name of the objective shown in the sidebar, or {@code null} if the sidebar is empty */
+    private String sidebarObjective;
+
+    public void onScoreboardObjective(S3BPacketScoreboardObjective packet) {
+        if (packet.func_149338_e() == OBJECTIVE_ACTION_REMOVE) {
+            String objectiveName = packet.func_149339_c();
+            scoresByObjective.remove(objectiveName);
+
+            if (objectiveName.equals(sidebarObjective)) {
+                sidebarObjective = null;
+                updateSeason();
+            }
+        }
+    }
+
+    public void onDisplayScoreboard(S3DPacketDisplayScoreboard packet) {
+        if (packet.func_149371_c() == SIDEBAR_DISPLAY_SLOT) {
+            String objectiveName = packet.func_149370_d();
+            sidebarObjective = objectiveName.isEmpty() ? null : objectiveName;
+            updateSeason();
+        }
+    }
+
+    public void onTeams(S3EPacketTeams packet) {
+        String teamName = packet.getName();
+        boolean seasonChanged;
+
+        switch (packet.getAction()) {
+            case TEAM_ACTION_CREATE:
+                setTeamText(teamName, packet.getPrefix() + packet.getSuffix());
+                addPlayers(teamName, packet);
+                seasonChanged = teamSeasons.containsKey(teamName);
+                break;
+            case TEAM_ACTION_UPDATE:
+                seasonChanged = setTeamText(teamName, packet.getPrefix() + packet.getSuffix());
+                break;
+            case TEAM_ACTION_REMOVE:
+                seasonChanged = teamSeasons.remove(teamName) != null;
+                teamsByPlayer.values().removeIf(teamName::equals);
+                break;
+            case TEAM_ACTION_ADD_PLAYERS:
+                addPlayers(teamName, packet);
+                seasonChanged = teamSeasons.containsKey(teamName);
+                break;
+            case TEAM_ACTION_REMOVE_PLAYERS:
+                for (String playerName : packet.getPlayers()) {
+                    teamsByPlayer.remove(playerName, teamName);
+                }
+                seasonChanged = teamSeasons.containsKey(teamName);
+                break;
+            default:
+                return;
+        }
+
+        if (seasonChanged) {
+            updateSeason();
+        }
+    }
+
+    public void onUpdateScore(S3CPacketUpdateScore packet) {
+        String playerName = packet.getPlayerName();
+        String objectiveName = packet.getObjectiveName();
+
+        if (packet.getScoreAction() == S3CPacketUpdateScore.Action.CHANGE) {
+            scoresByObjective.computeIfAbsent(objectiveName, k -> new HashMap<>()).put(playerName, packet.getScoreValue());
+        } else if (objectiveName.isEmpty()) {
+            // An empty objective name removes the entry from all objectives
+            for (Map<String, Integer> scores : scoresByObjective.values()) {
+                scores.remove(playerName);
+            }
+        } else if (scoresByObjective.containsKey(objectiveName)) {
+            scoresByObjective.get(objectiveName).remove(playerName);
+        }
+
+        // Only entries on a team with a season can change it
+        if ((objectiveName.isEmpty() || objectiveName.equals(sidebarObjective))
+                && teamSeasons.containsKey(teamsByPlayer.get(playerName))) {
+            updateSeason();
+        }
+    }
+
+    /**
+     * Clears the cache when the player switches worlds, since the server sends a new scoreboard for the new world
+     */
+    public void reset() {
+        scoresByObjective.clear();
+        teamsByPlayer.clear();
+        teamSeasons.clear();
+        sidebarObjective = null;
+        GameState.setSeason(null, null);
+    }
+
+    private void addPlayers(String teamName, S3EPacketTeams packet) {
+        for (String playerName : packet.getPlayers()) {
+            teamsByPlayer.put(playerName, teamName);
+        }
+    }
+
+    /**
+     * Parses the season from a team's new prefix and suffix
+     *
+     * @return {@code true} if the team's season changed, {@code false} otherwise
+     */
+    private boolean setTeamText(String teamName, String teamText) {
+        seasonMatcher.reset(teamText.trim());
+        TeamSeason teamSeason = null;
+
+        if (seasonMatcher.matches() && seasonMatcher.group("season") != null) {
+            teamSeason = new TeamSeason(seasonMatcher.group("season"), seasonMatcher.group("seasonStage"));
+        }
+
+        TeamSeason previousTeamSeason = teamSeason != null ? teamSeasons.put(teamName, teamSeason) :
+                teamSeasons.remove(teamName);
+        return !Objects.equals(teamSeason, previousTeamSeason);
+    }
+
+    private Map<String, Integer> getSidebarScores() {
+        return sidebarObjective != null ? scoresByObjective.get(sidebarObjective) : null;
+    }
+
+    /**
+     * Publishes the season of the highest sidebar line that has one. Seasons are parsed when team texts change, so
+     * this only looks up the season of each of the sidebar's at most fifteen lines.
+     */
+    private void updateSeason() {
+        Map<String, Integer> sidebarScores = getSidebarScores();
+        TeamSeason season = null;
+        int seasonScore = Integer.MIN_VALUE;
+
+        if (sidebarScores != null) {
+            for (Map.Entry<String, Integer> scoreEntry : sidebarScores.entrySet()) {
+                TeamSeason teamSeason = teamSeasons.get(teamsByPlayer.get(scoreEntry.getKey()));
+
+                if (teamSeason != null && (season == null || scoreEntry.getValue() > seasonScore)) {
+                    season = teamSeason;
+                    seasonScore = scoreEntry.getValue();
+                }
+            }
+        }
+
+        if (season != null) {
+            GameState.setSeason(season.season, season.seasonStage);
+        } else {
+            GameState.setSeason(null, null);
+        }
+    }
+
+    /**
+     * Season and season stage parsed from a team's text
+     */
+    private static class TeamSeason {
+        private final String season;
+        private final String seasonStage;
+
+        private TeamSeason(String season, String seasonStage) {
+            this.season = season;
+            this.seasonStage = seasonStage;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof TeamSeason)) {
+                return false;
+            }
+
+            TeamSeason that = (TeamSeason) o;
+            return season.equals(that.season) && Objects.equals(seasonStage, that.seasonStage);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(season, seasonStage);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ca.tirelesstraveler.fancywarpmenu.state;
+
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Layout;
+import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.SkyBlockConstants;
+import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.Menu;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable snapshot of the loaded resources and the state of the SkyBlock game the player is in.
+ * <br>
+ * The current snapshot is published through an {@link AtomicReference}. Updates replace it with a modified copy, so
+ * it can be read from the render thread, the Netty thread, and the resource loader threads without locking, and a
+ * reader never sees an update that was only partly applied. Read the snapshot once with {@link #get()} when
+ * several values have to match, for example both layouts or the season and its stage.
+ * <br>
+ * Most code should use {@link FancyWarpMenuState} and {@link GameState}, which read and update this snapshot.
+ */
+public final class StateSnapshot {
+    private static final AtomicReference<StateSnapshot> current =
+            new AtomicReference<>(new StateSnapshot(null, null, null, false, null, null, null));
+
+    private final Layout overworldLayout;
+    private final Layout riftLayout;
+    private final SkyBlockConstants skyBlockConstants;
+    /** Whether the player is currently on SkyBlock */
+    private final boolean onSkyBlock;
+    /** The current in-game season */
+    private final String season;
+    /** The current stage of the in-game season, can be "Early", mid (null), or "Late" */
+    private final String seasonStage;
+    /** Current in-game menu the player has open */
+    private final Menu currentMenu;
+
+    private StateSnapshot(Layout overworldLayout, Layout riftLayout, SkyBlockConstants skyBlockConstants,
+                          boolean onSkyBlock, String season, String seasonStage, Menu currentMenu) {
+        this.overworldLayout = overworldLayout;
+        this.riftLayout = riftLayout;
+        this.skyBlockConstants = skyBlockConstants;
+        this.onSkyBlock = onSkyBlock;
+        this.season = season;
+        this.seasonStage = seasonStage;
+        this.currentMenu = currentMenu;
+    }
+
+    /**
+     * Returns the current snapshot
+     */
+    public static StateSnapshot get() {
+        return current.get();
+    }
+
+    /**
+     * Replaces the current snapshot with the result of applying {@code updateFunction} to it.
+     * {@code updateFunction} may be called more than once if another thread updates the snapshot at the same time,
+     * so it must not have side effects.
+     *
+     * @param updateFunction function returning a modified copy of the snapshot it's given
+     * @return the snapshot that was replaced
+     */
+    public static StateSnapshot update(UnaryOperator<StateSnapshot> updateFunction) {
+        return current.getAndUpdate(updateFunction);
+    }
+
+    public Layout getOverworldLayout() {
+        return overworldLayout;
+    }
+
+    public Layout getRiftLayout() {
+        return riftLayout;
+    }
+
+    public SkyBlockConstants getSkyBlockConstants() {
+        return skyBlockConstants;
+    }
+
+    public boolean isOnSkyBlock() {
+        return onSkyBlock;
+    }
+
+    public String getSeason() {
+        return season;
+    }
+
+    public String getSeasonStage() {
+        return seasonStage;
+    }
+
+    public Menu getCurrentMenu() {
+        return currentMenu;
+    }
+
+    public StateSnapshot withLayouts(Layout overworldLayout, Layout riftLayout) {
+        if (overworldLayout == this.overworldLayout && riftLayout == this.riftLayout) {
+            return this;
+        }
+
+        return new StateSnapshot(overworldLayout, riftLayout, skyBlockConstants, onSkyBlock, season, seasonStage,
+                currentMenu);
+    }
+
+    public StateSnapshot withSkyBlockConstants(SkyBlockConstants skyBlockConstants) {
+        if (skyBlockConstants == this.skyBlockConstants) {
+            return this;
+        }
+
+        return new StateSnapshot(overworldLayout, riftLayout, skyBlockConstants, onSkyBlock, season, seasonStage,
+                currentMenu);
+    }
+
+    public StateSnapshot withOnSkyBlock(boolean onSkyBlock) {
+        if (onSkyBlock == this.onSkyBlock) {
+            return this;
+        }
+
+        return new StateSnapshot(overworldLayout, riftLayout, skyBlockConstants, onSkyBlock, season, seasonStage,
+                currentMenu);
+    }
+
+    /**
+     * Returns a copy of this snapshot with the given season and season stage, which are always updated together
+     */
+    public StateSnapshot withSeason(String season, String seasonStage) {
+        if (Objects.equals(season, this.season) && Objects.equals(seasonStage, this.seasonStage)) {
+            return this;
+        }
+
+        return new StateSnapshot(overworldLayout, riftLayout, skyBlockConstants, onSkyBlock, season, seasonStage,
+                currentMenu);
+    }
+
+    public StateSnapshot withCurrentMenu(Menu currentMenu) {
+        if (currentMenu == this.currentMenu) {
+            return this;
+        }
+
+        return new StateSnapshot(overworldLayout, riftLayout, skyBlockConstants, onSkyBlock, season, seasonStage,
+                currentMenu);
+    }
+}
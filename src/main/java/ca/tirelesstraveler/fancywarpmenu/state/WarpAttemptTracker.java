@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.state;
+
+import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.WarpMessages;
+import net.minecraft.client.Minecraft;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This class tracks warp attempts from the time they're sent until the server answers with a warp success or fail
+ * message and, for successful warps, until the new world loads. Latency and failure counts are recorded per
+ * destination and per {@link WarpSource} so warps through the menu can be compared with typed commands.
+ */
+public class WarpAttemptTracker {
+    private static final Logger logger = LogManager.getLogger();
+    /** Time in ms after which an attempt with no answer from the server is dropped */
+    private static final long ATTEMPT_TIME_OUT = 10000L;
+    /** Time in ms after the success message that a world load still counts as the end of the warp */
+    private static final long WORLD_LOAD_TIME_OUT = 30000L;
+
+    private static final Map<WarpSource, Map<String, WarpStats>> warpStats = new EnumMap<>(WarpSource.class);
+
+    /*
+    The current attempt. Only one is tracked since the server only handles one warp at a time.
+     */
+    private static String destination;
+    private static WarpSource source;
+    private static long attemptTime;
+    /** Time the success message was received, or -1 if it hasn't been received yet */
+    private static long successTime = -1;
+
+    public enum WarpSource {
+        /** Warp started by clicking a button on the fancy warp menu */
+        MENU,
+        /** Warp command typed by the player */
+        COMMAND
+    }
+
+    /**
+     * Starts tracking a warp attempt, replacing any attempt in progress
+     *
+     * @param warpDestination name of the warp destination
+     * @param warpSource where the warp was started from
+     */
+    public static void onWarpAttempt(String warpDestination, WarpSource warpSource) {
+        destination = warpDestination;
+        source = warpSource;
+        attemptTime = Minecraft.getSystemTime();
+        successTime = -1;
+    }
+
+    /**
+     * Returns the destination of a warp command, which is its first argument, or the command name if it has no
+     * arguments, such as {@code /garry}
+     *
+     * @param command the warp command, with or without its leading slash
+     * @return the lower case destination name
+     */
+    public static String getDestinationFromCommand(String command) {
+        String trimmedCommand = command.trim().toLowerCase(Locale.US);
+
+        if (trimmedCommand.startsWith("/")) {
+            trimmedCommand = trimmedCommand.substring(1);
+        }
+
+        String[] commandParts = trimmedCommand.split(" +");
+        return commandParts.length > 1 ? commandParts[1] : commandParts[0];
+    }
+
+    /**
+     * Returns whether a warp attempt is waiting for an answer from the server or for the new world to load
+     */
+    public static boolean isAttemptInProgress() {
+        if (destination == null) {
+            return false;
+        }
+
+        long currentTime = Minecraft.getSystemTime();
+
+        if (successTime == -1 ? currentTime - attemptTime > ATTEMPT_TIME_OUT :
+                currentTime - successTime > WORLD_LOAD_TIME_OUT) {
+            logger.debug("Warp attempt to {} timed out.", destination);
+            clearAttempt();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Called when a warp success or fail message is received
+     *
+     * @param warpMessage the matched warp message
+     */
+    public static void onWarpMessage(WarpMessages.WarpMessage warpMessage) {
+        if (!isAttemptInProgress() || successTime != -1) {
+            return;
+        }
+
+        if (warpMessage.isSuccess()) {
+            successTime = Minecraft.getSystemTime();
+        } else {
+            getStats(source, destination).recordFailure();
+            clearAttempt();
+        }
+    }
+
+    /**
+     * Called when a new world loads, which ends a successful warp
+     */
+    public static void onWorldLoad() {
+        if (isAttemptInProgress() && successTime != -1) {
+            getStats(source, destination).recordSuccess(successTime - attemptTime, Minecraft.getSystemTime() - attemptTime);
+            clearAttempt();
+        }
+    }
+
+    /**
+     * Returns the recorded stats for warps started from the given source, keyed by destination name
+     */
+    public static Map<String, WarpStats> getWarpStats(WarpSource warpSource) {
+        Map<String, WarpStats> sourceStats = warpStats.get(warpSource);
+
+        return sourceStats != null ? Collections.unmodifiableMap(sourceStats) : Collections.emptyMap();
+    }
+
+    private static WarpStats getStats(WarpSource warpSource, String warpDestination) {
+        return warpStats.computeIfAbsent(warpSource, key -> new LinkedHashMap<>())
+                .computeIfAbsent(warpDestination, key -> new WarpStats());
+    }
+
+    private static void clearAttempt() {
+        destination = null;
+        source = null;
+        successTime = -1;
+    }
+
+    /**
+     * Warp counts and latencies for one destination
+     */
+    public static class WarpStats {
+        private int successCount;
+        private int failureCount;
+        /** Total time in ms from the warp being sent to the success message */
+        private long totalSuccessMessageLatency;
+        /** Total time in ms from the warp being sent to the new world loading */
+        private long totalWorldLoadLatency;
+
+        private void recordSuccess(long successMessageLatency, long worldLoadLatency) {
+            successCount++;
+            totalSuccessMessageLatency += successMessageLatency;
+            totalWorldLoadLatency += worldLoadLatency;
+        }
+
+        private void recordFailure() {
+            failureCount++;
+        }
+
+        public int getSuccessCount() {
+            return successCount;
+        }
+
+        public int getFailureCount() {
+            return failureCount;
+        }
+
+        /**
+         * Returns the average time in ms from the warp being sent to the success message, or 0 if there are no successful warps
+         */
+        public long getAverageSuccessMessageLatency() {
+            return successCount > 0 ? totalSuccessMessageLatency / successCount : 0;
+        }
+
+        /**
+         * Returns the average time in ms from the warp being sent to the new world loading, or 0 if there are no successful warps
+         */
+        public long getAverageWorldLoadLatency() {
+            return successCount > 0 ? totalWorldLoadLatency / successCount : 0;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.utils;
+
+import net.minecraft.util.IChatComponent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Matches chat messages against many patterns at once using an Aho-Corasick automaton. Messages are matched by
+ * streaming over the text of a chat component and its siblings, so the message's unformatted text is never built.
+ * Formatting codes in the message are skipped.
+ * <p>
+ * Patterns are added with {@link #addPattern(String, MatchType, Object)} and compiled with {@link #compile()} before
+ * the first match. Matching keeps its progress in fields, so it must only be done on one thread.
+ *
+ * @param <T> type of the value returned for a matching pattern
+ */
+public class ChatMessageMatcher<T> {
+    public enum MatchType {
+        /** The pattern must be the whole message */
+        EXACT,
+        /** The message must start with the pattern */
+        PREFIX,
+        /** The pattern can be anywhere in the message */
+        CONTAINS
+    }
+
+    private static final int ROOT = 0;
+    private static final char FORMATTING_CODE_PREFIX = '\u00a7';
+
+    private final List<String> patterns;
+    private final List<MatchType> patternMatchTypes;
+    private final List<T> patternValues;
+
+    /*
+    Compiled automaton. Each state's edges are stored as sorted parallel arrays of characters and target states.
+     */
+    private char[][] edgeCharacters;
+    private int[][] edgeTargets;
+    private int[] failureLinks;
+    /** Index of the pattern ending at each state, or -1 */
+    private int[] stateOutputs;
+    /** Nearest state on each state's failure link chain that has an output, or -1 */
+    private int[] outputLinks;
+    private int[] patternLengths;
+
+    /*
+    Progress of the current match
+     */
+    private int state;
+    private int position;
+    private boolean skipNextCharacter;
+    private int exactMatchCandidate;
+    private int exactMatchCandidateEnd;
+
+    public ChatMessageMatcher() {
+        patterns = new ArrayList<>();
+        patternMatchTypes = new ArrayList<>();
+        patternValues = new ArrayList<>();
+    }
+
+    /**
+     * Adds a pattern to match. If the same pattern is added more than once, the first one is used.
+     *
+     * @param pattern the text to match, without formatting codes
+     * @param matchType where the pattern must appear in the message
+     * @param value value returned by {@link #match(IChatComponent)} when this pattern matches
+     */
+    public void addPattern(String pattern, MatchType matchType, T value) {
+        if (pattern == null || pattern.isEmpty()) {
+            throw new IllegalArgumentException("Chat message pattern cannot be empty");
+        } else if (edgeCharacters != null) {
+            throw new IllegalStateException("Patterns cannot be added after the matcher is compiled");
+        }
+
+        patterns.add(pattern);
+        patternMatchTypes.add(matchType);
+        patternValues.add(value);
+    }
+
+    /**
+     * Builds the automaton from the added patterns
+     */
+    public void compile() {
+        List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        edges.add(new TreeMap<>());
+        outputs.add(-1);
+        patternLengths = new int[patterns.size()];
+
+        // Build the trie
+        for (int i = 0; i < patterns.size(); i++) {
+            String pattern = patterns.get(i);
+            int currentState = ROOT;
+
+            for (int j = 0; j < pattern.length(); j++) {
+                Integer nextState = edges.get(currentState).get(pattern.charAt(j));
+
+                if (nextState == null) {
+                    nextState = edges.size();
+                    edges.add(new TreeMap<>());
+                    outputs.add(-1);
+                    edges.get(currentState).put(pattern.charAt(j), nextState);
+                }
+
+                currentState = nextState;
+            }
+
+            if (outputs.get(currentState) == -1) {
+                outputs.set(currentState, i);
+            }
+
+            patternLengths[i] = pattern.length();
+        }
+
+        int stateCount = edges.size();
+        edgeCharacters = new char[stateCount][];
+        edgeTargets = new int[stateCount][];
+        failureLinks = new int[stateCount];
+        stateOutputs = new int[stateCount];
+        outputLinks = new int[stateCount];
+
+        for (int i = 0; i < stateCount; i++) {
+            TreeMap<Character, Integer> stateEdges = edges.get(i);
+            edgeCharacters[i] = new char[stateEdges.size()];
+            edgeTargets[i] = new int[stateEdges.size()];
+            int j = 0;
+
+            for (Map.Entry<Character, Integer> edge : stateEdges.entrySet()) {
+                edgeCharacters[i][j] = edge.getKey();
+                edgeTargets[i][j] = edge.getValue();
+                j++;
+            }
+
+            stateOutputs[i] = outputs.get(i);
+        }
+
+        // Link each state to the longest proper suffix of its text that is also in the trie, breadth first
+        Queue<Integer> queue = new ArrayDeque<>();
+        failureLinks[ROOT] = ROOT;
+        outputLinks[ROOT] = -1;
+
+        for (int target : edgeTargets[ROOT]) {
+            failureLinks[target] = ROOT;
+            outputLinks[target] = -1;
+            queue.add(target);
+        }
+
+        while (!queue.isEmpty()) {
+            int currentState = queue.remove();
+
+            for (int i = 0; i < edgeCharacters[currentState].length; i++) {
+                char c = edgeCharacters[currentState][i];
+                int target = edgeTargets[currentState][i];
+                int failureState = failureLinks[currentState];
+
+                while (failureState != ROOT && findEdge(failureState, c) == -1) {
+                    failureState = failureLinks[failureState];
+                }
+
+                int failureTarget = findEdge(failureState, c);
+                failureLinks[target] = failureTarget != -1 ? failureTarget : ROOT;
+                outputLinks[target] = stateOutputs[failureLinks[target]] != -1 ?
+                        failureLinks[target] : outputLinks[failureLinks[target]];
+                queue.add(target);
+            }
+        }
+    }
+
+    /**
+     * Matches a chat message against the patterns
+     *
+     * @param message the chat message, including its siblings
+     * @return the value of the first pattern found in the message, or {@code null} if no pattern matches
+     */
+    public T match(IChatComponent message) {
+        if (edgeCharacters == null) {
+            throw new IllegalStateException("Chat message matcher must be compiled before matching");
+        }
+
+        state = ROOT;
+        position = 0;
+        skipNextCharacter = false;
+        exactMatchCandidate = -1;
+
+        int matchedPattern = feed(message);
+
+        if (matchedPattern == -1 && exactMatchCandidate != -1 && exactMatchCandidateEnd == position - 1) {
+            matchedPattern = exactMatchCandidate;
+        }
+
+        return matchedPattern != -1 ? patternValues.get(matchedPattern) : null;
+    }
+
+    /**
+     * Feeds the text of a chat component and its siblings to the automaton, in the same order as
+     * {@link IChatComponent#getUnformattedText()}
+     *
+     * @return the index of a pattern that matched, or -1 if none has matched yet
+     */
+    private int feed(IChatComponent component) {
+        int matchedPattern = feed(component.getUnformattedTextForChat());
+
+        if (matchedPattern != -1) {
+            return matchedPattern;
+        }
+
+        List<IChatComponent> siblings = component.getSiblings();
+
+        for (int i = 0; i < siblings.size(); i++) {
+            matchedPattern = feed(siblings.get(i));
+
+            if (matchedPattern != -1) {
+                return matchedPattern;
+            }
+        }
+
+        return -1;
+    }
+
+    private int feed(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (skipNextCharacter) {
+                skipNextCharacter = false;
+                continue;
+            } else if (c == FORMATTING_CODE_PREFIX) {
+                skipNextCharacter = true;
+                continue;
+            }
+
+            state = nextState(state, c);
+            int outputState = stateOutputs[state] != -1 ? state : outputLinks[state];
+
+            while (outputState != -1) {
+                int pattern = stateOutputs[outputState];
+                int start = position - patternLengths[pattern] + 1;
+
+                switch (patternMatchTypes.get(pattern)) {
+                    case CONTAINS:
+                        return pattern;
+                    case PREFIX:
+                        if (start == 0) {
+                            return pattern;
+                        }
+                        break;
+                    case EXACT:
+                        // Can only be confirmed once the end of the message is reached
+                        if (start == 0) {
+                            exactMatchCandidate = pattern;
+                            exactMatchCandidateEnd = position;
+                        }
+                        break;
+                }
+
+                outputState = outputLinks[outputState];
+            }
+
+            position++;
+        }
+
+        return -1;
+    }
+
+    private int nextState(int currentState, char c) {
+        while (true) {
+            int target = findEdge(currentState, c);
+
+            if (target != -1) {
+                return target;
+            } else if (currentState == ROOT) {
+                return ROOT;
+            }
+
+            currentState = failureLinks[currentState];
+        }
+    }
+
+    /**
+     * Returns the state reached by following the edge for the given character, or -1 if there isn't one
+     */
+    private int findEdge(int fromState, char c) {
+        char[] characters = edgeCharacters[fromState];
+        int low = 0;
+        int high = characters.length - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+
+            if (characters[mid] < c) {
+                low = mid + 1;
+            } else if (characters[mid] > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[fromState][mid];
+            }
+        }
+
+        return -1;
+    }
+}
@@ -76,7 +76,7 @@ public class ChatUtils {
     public static void sendMessageWithModNamePrefix(IChatComponent message) {
         IChatComponent prefixComponent = createModNamePrefixComponent();
         prefixComponent.appendSibling(message);
-        Minecraft.getMinecraft().thePlayer.addChatMessage(prefixComponent);
+        addChatMessage(prefixComponent);
     }
 
     /**
@@ -125,6 +125,21 @@ public class ChatUtils {
                 .appendSibling(new ChatComponentText(" [").setChatStyle(plainStyle))
                 .appendSibling(new ChatComponentTranslation(COPY_TO_CLIPBOARD_TRANSLATION_KEY).setChatStyle(copyThrowableStyle))
                 .appendSibling(new ChatComponentText("]").setChatStyle(plainStyle));
-        Minecraft.getMinecraft().thePlayer.addChatMessage(chatComponent);
+        addChatMessage(chatComponent);
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds a message to the chat. Messages sent from other threads, like resource loading threads, are added on
+     * the client thread. Messages sent while the player isn't in a world, like in the main menu, are dropped since
+     * there's no chat to add them to.
+     */
+    private static void addChatMessage(IChatComponent chatComponent) {
+        Minecraft mc = Minecraft.getMinecraft();
+
+        if (!mc.isCallingFromMinecraftThread()) {
+            mc.addScheduledTask(() -> addChatMessage(chatComponent));
+        } else if (mc.thePlayer != null) {
+            mc.thePlayer.addChatMessage(chatComponent);
+        }
+    }
+}
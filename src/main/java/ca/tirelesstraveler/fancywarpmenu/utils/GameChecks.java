@@ -23,21 +23,15 @@
 package ca.tirelesstraveler.fancywarpmenu.utils;
 
 import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
-import ca.tirelesstraveler.fancywarpmenu.data.Settings;
 import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.Menu;
 import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.ItemMatchCondition;
 import ca.tirelesstraveler.fancywarpmenu.state.GameState;
-import net.minecraft.client.Minecraft;
 import net.minecraft.inventory.IInventory;
-import net.minecraft.scoreboard.Score;
-import net.minecraft.scoreboard.Scoreboard;
+import net.minecraft.item.ItemStack;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * This class contains utility methods that determine the values to save in {@link ca.tirelesstraveler.fancywarpmenu.state.GameState}
@@ -45,48 +39,6 @@ import java.util.regex.Pattern;
  */
 public class GameChecks {
     private static final Logger logger = LogManager.getLogger();
-    private static final Matcher seasonMatcher =
-            Pattern.compile("(?<seasonStage>Late|Early)? ?(?<season>[a-zA-Z]+) \\d{1,2}.*").matcher("");
-
-    /**
-     * Checks the current SkyBlock season and saves using {@link GameState#setSeason(String)}.
-     */
-    public static void checkSeason() {
-        // Don't run outside of SB to prevent exceptions
-        if (!Settings.shouldSkipSkyBlockCheck()) {
-            try {
-                Scoreboard sb = Minecraft.getMinecraft().theWorld.getScoreboard();
-                // SkyBlock sidebar objective
-                ArrayList<Score> scores = (ArrayList<Score>) sb.getSortedScores(sb.getObjectiveInDisplaySlot(1));
-
-                // The date is always near the top (highest score) so we iterate backwards.
-                for (int i = scores.size(); i > 0; i--) {
-                    Score score = scores.get(i - 1);
-                    String skyBlockScoreboardLine =
-                            sb.getPlayersTeam(score.getPlayerName()).formatString("").trim();
-
-                    seasonMatcher.reset(skyBlockScoreboardLine);
-
-                    if (seasonMatcher.matches()) {
-                        String seasonStage = seasonMatcher.group("seasonStage");
-                        String season = seasonMatcher.group("season");
-
-                        GameState.setSeasonStage(seasonStage);
-
-                        if (season != null) {
-                            GameState.setSeason(season);
-                            return;
-                        }
-                    }
-                }
-
-                GameState.setSeasonStage(null);
-                GameState.setSeason(null);
-            } catch (RuntimeException e) {
-                logger.warn("Failed to check scoreboard season", e);
-            }
-        }
-    }
 
     /**
      * Determines which SkyBlock {@code GuiChest} menu the player is in using the {@link net.minecraft.client.gui.inventory.GuiChest}
@@ -97,15 +49,12 @@ public class GameChecks {
      */
     public static Menu determineOpenMenu(IInventory chestInventory) {
         if (chestInventory.hasCustomName()) {
-            String chestTitle = chestInventory.getDisplayName().getUnformattedText();
+            // Same text as getDisplayName().getUnformattedText() for custom names, without creating a chat component
+            String chestTitle = chestInventory.getName();
 
-            for (Menu menu : FancyWarpMenu.getSkyBlockConstants().getMenuMatchingMap().keySet()) {
-                if (chestTitle.equals(menu.getMenuDisplayName())) {
-                    return menu;
-                }
-            }
+            return FancyWarpMenu.getSkyBlockConstants().getMenuMatcher().getMenuForTitle(chestTitle);
         }
-        
+
         return Menu.NONE;
     }
 
@@ -120,19 +69,55 @@ public class GameChecks {
      * @return {@code true} if all the {@link ItemMatchCondition}s match, {@code false} otherwise
      */
     public static boolean menuItemsMatch(Menu menu, IInventory chestInventory) {
-        List<ItemMatchCondition> matchConditions = FancyWarpMenu.getSkyBlockConstants().getMenuMatchingMap().get(menu);
+        List<ItemMatchCondition> matchConditions = FancyWarpMenu.getSkyBlockConstants().getMenuMatcher().getMatchConditions(menu);
 
-        for (ItemMatchCondition matchCondition : matchConditions) {
-            logger.debug("Starting item match on slot {} for menu {}.",
-                    matchCondition.getInventorySlotIndex(), menu);
+        // Logging is guarded and the loop is indexed so a successful match doesn't allocate
+        boolean debugEnabled = logger.isDebugEnabled();
+
+        for (int i = 0; i < matchConditions.size(); i++) {
+            ItemMatchCondition matchCondition = matchConditions.get(i);
+
+            if (debugEnabled) {
+                logger.debug("Starting item match on slot {} for menu {}.",
+                        matchCondition.getInventorySlotIndex(), menu);
+            }
 
             if (!matchCondition.inventoryContainsMatchingItem(chestInventory)) {
                 logger.warn("Item match on slot {} failed.", matchCondition.getInventorySlotIndex());
                 GameState.setCurrentMenu(Menu.NONE);
                 return false;
             }
-            logger.debug("Finished item match on slot {} for menu {}.",
-                    matchCondition.getInventorySlotIndex(), menu);
+
+            if (debugEnabled) {
+                logger.debug("Finished item match on slot {} for menu {}.",
+                        matchCondition.getInventorySlotIndex(), menu);
+            }
+        }
+
+        GameState.setCurrentMenu(menu);
+        return true;
+    }
+
+    /**
+     * Determines if the player is in the given menu by checking all the {@link ItemMatchCondition}s for that menu
+     * against the item stacks of a window in one pass. This is used with the contents of a
+     * {@link net.minecraft.network.play.server.S30PacketWindowItems} packet before they're put in the chest inventory.
+     * If a match is found, the matched menu is saved using {@link GameState#setCurrentMenu(Menu)}
+     *
+     * @param menu the {@code Menu} whose match conditions will be checked
+     * @param itemStacks the window's item stacks, indexed by slot
+     * @return {@code true} if all the {@link ItemMatchCondition}s match, {@code false} otherwise
+     */
+    public static boolean itemStacksMatch(Menu menu, ItemStack[] itemStacks) {
+        List<ItemMatchCondition> matchConditions = FancyWarpMenu.getSkyBlockConstants().getMenuMatcher().getMatchConditions(menu);
+
+        for (int i = 0; i < matchConditions.size(); i++) {
+            ItemMatchCondition matchCondition = matchConditions.get(i);
+            int slotIndex = matchCondition.getInventorySlotIndex();
+
+            if (slotIndex >= itemStacks.length || !matchCondition.itemStackMatches(itemStacks[slotIndex])) {
+                return false;
+            }
         }
 
         GameState.setCurrentMenu(menu);
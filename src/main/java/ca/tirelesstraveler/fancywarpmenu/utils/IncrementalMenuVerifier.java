@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.utils;
+
+import ca.tirelesstraveler.fancywarpmenu.FancyWarpMenu;
+import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.ItemMatchCondition;
+import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.Menu;
+import ca.tirelesstraveler.fancywarpmenu.state.GameState;
+import net.minecraft.inventory.IInventory;
+import net.minecraft.item.ItemStack;
+
+import java.util.List;
+
+/**
+ * Verifies a menu's {@link ItemMatchCondition}s as the chest's items stream in, instead of waiting for the whole
+ * chest to load like {@link GameChecks#menuItemsMatch(Menu, IInventory)}. Each condition is checked as soon as its
+ * slot changes and satisfied conditions are tracked in a bitmask, so the menu is verified as soon as the last
+ * required slot matches.
+ */
+public class IncrementalMenuVerifier {
+    private final Menu menu;
+    private final List<ItemMatchCondition> matchConditions;
+    /** The item stack each condition was last checked against, used to skip slots that haven't changed */
+    private final ItemStack[] checkedItemStacks;
+    /** Bitmask with one bit set for each match condition */
+    private final long allConditionsMask;
+    /** Bitmask of the match conditions that are currently satisfied, bit {@code i} is condition {@code i} */
+    private long satisfiedConditionsMask;
+
+    public IncrementalMenuVerifier(Menu menu) {
+        this.menu = menu;
+        matchConditions = FancyWarpMenu.getSkyBlockConstants().getMenuMatcher().getMatchConditions(menu);
+
+        if (matchConditions.size() > Long.SIZE) {
+            throw new IllegalArgumentException(String.format("Menu %s has %d match conditions, only %d are supported",
+                    menu.name(), matchConditions.size(), Long.SIZE));
+        }
+
+        checkedItemStacks = new ItemStack[matchConditions.size()];
+        allConditionsMask = matchConditions.size() == Long.SIZE ? -1L : (1L << matchConditions.size()) - 1;
+    }
+
+    /**
+     * Checks the match conditions whose slots have changed since the last update.
+     * If all the conditions are satisfied, the menu is saved using {@link GameState#setCurrentMenu(Menu)}.
+     *
+     * @param chestInventory the inventory of the chest holding the menu
+     * @return {@code true} if all the match conditions are satisfied, {@code false} otherwise
+     */
+    public boolean update(IInventory chestInventory) {
+        for (int i = 0; i < matchConditions.size(); i++) {
+            ItemMatchCondition matchCondition = matchConditions.get(i);
+            int slotIndex = matchCondition.getInventorySlotIndex();
+
+            if (slotIndex >= chestInventory.getSizeInventory()) {
+                continue;
+            }
+
+            ItemStack itemStack = chestInventory.getStackInSlot(slotIndex);
+
+            // Unchanged slots don't need to be checked again
+            if (itemStack == checkedItemStacks[i]) {
+                continue;
+            }
+
+            checkedItemStacks[i] = itemStack;
+
+            // Empty slots haven't loaded yet or were emptied, so they can't satisfy their condition
+            if (itemStack != null && matchCondition.itemStackMatches(itemStack)) {
+                satisfiedConditionsMask |= 1L << i;
+            } else {
+                satisfiedConditionsMask &= ~(1L << i);
+            }
+        }
+
+        if (isVerified()) {
+            GameState.setCurrentMenu(menu);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns whether all the match conditions were satisfied on the last update
+     */
+    public boolean isVerified() {
+        return satisfiedConditionsMask == allConditionsMask;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ca.tirelesstraveler.fancywarpmenu.utils;
+
+import ca.tirelesstraveler.fancywarpmenu.data.Settings;
+import ca.tirelesstraveler.fancywarpmenu.state.StateSnapshot;
+
+import java.util.function.Predicate;
+
+/**
+ * Settings and game states that warp tags can use to show or hide warps. Each condition is one bit of the condition mask
+ * in a {@link VisibilityContext}.
+ *
+ * @see ca.tirelesstraveler.fancywarpmenu.data.layout.WarpTag
+ */
+public enum VisibilityCondition {
+    DEBUG_MODE("debugMode", state -> Settings.isDebugModeEnabled()),
+    HIDE_UNOBTAINABLE_WARPS("hideUnobtainableWarps", state -> Settings.shouldHideUnobtainableWarps()),
+    SHOW_JERRY_ISLAND("showJerryIsland", state -> Settings.shouldShowJerryIsland()),
+    // Debug setting, so it only applies in debug mode
+    ALWAYS_SHOW_JERRY_ISLAND("alwaysShowJerryIsland",
+            state -> Settings.isDebugModeEnabled() && Settings.shouldAlwaysShowJerryIsland()),
+    SPRING("spring", state -> "Spring".equals(state.getSeason())),
+    SUMMER("summer", state -> "Summer".equals(state.getSeason())),
+    AUTUMN("autumn", state -> "Autumn".equals(state.getSeason())),
+    WINTER("winter", state -> "Winter".equals(state.getSeason())),
+    EARLY_SEASON("earlySeason", state -> "Early".equals(state.getSeasonStage())),
+    LATE_SEASON("lateSeason", state -> "Late".equals(state.getSeasonStage()));
+
+    private static final VisibilityCondition[] VALUES = values();
+
+    /** Name used for this condition in layout files */
+    private final String name;
+    private final Predicate<StateSnapshot> check;
+
+    VisibilityCondition(String name, Predicate<StateSnapshot> check) {
+        this.name = name;
+        this.check = check;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getMask() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * Gets the condition with the given layout file name
+     *
+     * @param name the condition's name in the layout file
+     * @return the condition with the given name, or {@code null} if there isn't one
+     */
+    public static VisibilityCondition fromName(String name) {
+        for (VisibilityCondition condition : VALUES) {
+            if (condition.name.equals(name)) {
+                return condition;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks all the conditions against the current settings and game state. The game state is read from a single
+     * {@link StateSnapshot}, so the season and season stage always match.
+     *
+     * @return a mask with the bits of the conditions that are currently true set
+     */
+    public static long evaluateAll() {
+        StateSnapshot state = StateSnapshot.get();
+        long conditionMask = 0;
+
+        for (VisibilityCondition condition : VALUES) {
+            if (condition.check.test(state)) {
+                conditionMask |= condition.getMask();
+            }
+        }
+
+        return conditionMask;
+    }
+}
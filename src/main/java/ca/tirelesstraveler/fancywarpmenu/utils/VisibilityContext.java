@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2024. TirelessTraveler
+ * Copyright (c) 2023. TirelessTraveler
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -22,31 +22,42 @@
 
 package ca.tirelesstraveler.fancywarpmenu.utils;
 
-import ca.tirelesstraveler.fancywarpmenu.data.Settings;
 import ca.tirelesstraveler.fancywarpmenu.data.layout.Island;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Layout;
 import ca.tirelesstraveler.fancywarpmenu.data.layout.Warp;
-import ca.tirelesstraveler.fancywarpmenu.state.GameState;
-
-import java.util.List;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.WarpTag;
 
 /**
- * Checks used to control the visibility of warps on the fancy warp menu
+ * Snapshot of the settings and game state that control the visibility of warps on the fancy warp menu.
+ * The warp tags of a layout are checked once when the snapshot is taken, so checking a warp is a single mask AND.
+ * Take a new snapshot each time the button states are updated.
  */
-public class WarpVisibilityChecks {
+public class VisibilityContext {
+    /** Mask with the bits of the layout's warp tags that are currently hidden set */
+    private final long hiddenTagMask;
+
+    private VisibilityContext(long hiddenTagMask) {
+        this.hiddenTagMask = hiddenTagMask;
+    }
 
     /**
-     * Checks if the given island with a singular warp should be shown on the fancy warp menu. Throws
-     * {@link IllegalArgumentException} if the island has multiple warps.
+     * Takes a snapshot of the current settings and game state for the warps in the given layout
      *
-     * @param island the island to check
-     * @return {@code true} if the island should be visible, {@code false} if it should be hidden
+     * @param layout the layout whose warp tags to check
+     * @return the new snapshot
      */
-    public static boolean shouldShowSingleWarpIsland(Island island) {
-        if (island.getWarpCount() > 1) {
-            throw new IllegalArgumentException("Island has more than one warp");
+    public static VisibilityContext capture(Layout layout) {
+        long conditionMask = VisibilityCondition.evaluateAll();
+        WarpTag[] warpTags = layout.getWarpTags();
+        long hiddenTagMask = 0;
+
+        for (int i = 0; i < warpTags.length; i++) {
+            if (!warpTags[i].isVisible(conditionMask)) {
+                hiddenTagMask |= 1L << i;
+            }
         }
 
-        return shouldShowWarp(island.getWarps().get(0));
+        return new VisibilityContext(hiddenTagMask);
     }
 
     /**
@@ -55,45 +66,22 @@ public class WarpVisibilityChecks {
      * @param warp the warp to check
      * @return {@code true} if the warp should be visible, {@code false} if it should be hidden
      */
-    public static boolean shouldShowWarp(Warp warp) {
-        List<String> warpTags = warp.getTags();
-
-        if (warpTags != null && !warpTags.isEmpty()) {
-            for (String tag : warpTags) {
-                if (!shouldShowWarpWithTag(tag)) {
-                    return false;
-                }
-            }
-        }
-
-        return true;
+    public boolean isWarpVisible(Warp warp) {
+        return (warp.getTagMask() & hiddenTagMask) == 0;
     }
 
     /**
-     * Checks if warps with the given tag should be shown on the fancy warp menu
+     * Checks if the given island with a singular warp should be shown on the fancy warp menu. Throws
+     * {@link IllegalArgumentException} if the island has multiple warps.
      *
-     * @param tag the categorization tag to check
-     * @return {@code true} if warps with this tag should be visible, {@code false} if they should be hidden
+     * @param island the island to check
+     * @return {@code true} if the island should be visible, {@code false} if it should be hidden
      */
-    private static boolean shouldShowWarpWithTag(String tag) {
-        switch (tag) {
-            case "bingo":
-                return !Settings.shouldHideUnobtainableWarps();
-            case "jerry":
-                if (Settings.isDebugModeEnabled() && Settings.shouldAlwaysShowJerryIsland()) {
-                    return true;
-                }
-
-                if (!Settings.shouldShowJerryIsland()) {
-                    return false;
-                }
-
-                String season = GameState.getSeason();
-                String seasonStage = GameState.getSeasonStage();
-
-                return season != null && seasonStage != null && season.equals("Winter") && seasonStage.equals("Late");
-            default:
-                return true;
+    public boolean isSingleWarpIslandVisible(Island island) {
+        if (island.getWarpCount() > 1) {
+            throw new IllegalArgumentException("Island has more than one warp");
         }
+
+        return isWarpVisible(island.getWarps().get(0));
     }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ca.tirelesstraveler.fancywarpmenu.data.layout;
+
+import ca.tirelesstraveler.fancywarpmenu.resourceloaders.ResourceLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests writing layouts to and reading them from {@link ca.tirelesstraveler.fancywarpmenu.resourceloaders.LayoutCache}
+ * files
+ */
+class LayoutTest {
+    private static final String OVERWORLD_LAYOUT_PATH = "/assets/fancywarpmenu/data/layout.json";
+    private static final String RIFT_LAYOUT_PATH = "/assets/fancywarpmenu/data/riftLayout.json";
+
+    @Test
+    void cachedLayoutsRoundTrip() throws IOException {
+        for (String layoutPath : Arrays.asList(OVERWORLD_LAYOUT_PATH, RIFT_LAYOUT_PATH)) {
+            Layout layout = readLayout(layoutPath);
+            setTextureDimensions(layout);
+
+            Layout cachedLayout = Layout.read(new DataInputStream(new ByteArrayInputStream(writeLayout(layout))));
+
+            assertEquals(ResourceLoader.gson.toJson(layout), ResourceLoader.gson.toJson(cachedLayout), layoutPath);
+            assertTextureDimensionsEqual(layout, cachedLayout);
+        }
+    }
+
+    @Test
+    void truncatedCachedLayoutsAreRejected() throws IOException {
+        byte[] layoutBytes = writeLayout(readLayout(OVERWORLD_LAYOUT_PATH));
+        byte[] truncatedLayoutBytes = Arrays.copyOf(layoutBytes, layoutBytes.length / 2);
+
+        assertThrows(IOException.class, () -> Layout.read(new DataInputStream(new ByteArrayInputStream(truncatedLayoutBytes))));
+    }
+
+    private static Layout readLayout(String layoutPath) throws IOException {
+        try (Reader reader = new InputStreamReader(LayoutTest.class.getResourceAsStream(layoutPath), StandardCharsets.UTF_8)) {
+            Layout layout = ResourceLoader.gson.fromJson(reader, Layout.class);
+
+            assertNotNull(layout, layoutPath);
+            return layout;
+        }
+    }
+
+    private static byte[] writeLayout(Layout layout) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(outputStream)) {
+            layout.write(out);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Gives every texture in the layout different dimensions, since they're only set when textures are probed
+     */
+    private static void setTextureDimensions(Layout layout) {
+        int dimension = 1;
+
+        for (Island island : layout.getIslandList()) {
+            island.setTextureDimensions(dimension++, dimension++);
+            island.setHoverEffectTextureWidth(dimension++);
+        }
+
+        layout.getWarpIcon().setTextureDimensions(dimension++, dimension++);
+        layout.getConfigButton().setTextureDimensions(dimension++, dimension++);
+        layout.getRegularWarpMenuButton().setTextureDimensions(dimension++, dimension);
+    }
+
+    private static void assertTextureDimensionsEqual(Layout expected, Layout actual) {
+        List<Island> expectedIslands = expected.getIslandList();
+        List<Island> actualIslands = actual.getIslandList();
+
+        for (int i = 0; i < expectedIslands.size(); i++) {
+            Island expectedIsland = expectedIslands.get(i);
+            Island actualIsland = actualIslands.get(i);
+
+            assertEquals(expectedIsland.getTextureWidth(), actualIsland.getTextureWidth());
+            assertEquals(expectedIsland.getTextureHeight(), actualIsland.getTextureHeight());
+            assertEquals(expectedIsland.getHoverEffectTextureWidth(), actualIsland.getHoverEffectTextureWidth());
+        }
+
+        assertButtonTextureDimensionsEqual(expected.getConfigButton(), actual.getConfigButton());
+        assertButtonTextureDimensionsEqual(expected.getRegularWarpMenuButton(), actual.getRegularWarpMenuButton());
+        assertEquals(expected.getWarpIcon().getTextureWidth(), actual.getWarpIcon().getTextureWidth());
+        assertEquals(expected.getWarpIcon().getTextureHeight(), actual.getWarpIcon().getTextureHeight());
+    }
+
+    private static void assertButtonTextureDimensionsEqual(Button expected, Button actual) {
+        assertEquals(expected.getTextureWidth(), actual.getTextureWidth());
+        assertEquals(expected.getTextureHeight(), actual.getTextureHeight());
+    }
+}
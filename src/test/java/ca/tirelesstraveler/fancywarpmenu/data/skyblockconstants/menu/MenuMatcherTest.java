@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuMatcherTest {
+    /** Titles of chests commonly opened on SkyBlock, most of which aren't menus the mod identifies */
+    private static final String[] CHEST_TITLES = {"Auction House", "Bazaar \u279C Farming", "SkyBlock Menu",
+            "Your Bags", "Fast Travel", "Profile Management", "Crafting Table", "Large Chest", "Porhtal", "Pets"};
+    private static final int BENCHMARK_ROUNDS = 10;
+    private static final int BENCHMARK_LOOKUPS = 1_000_000;
+
+    private static Map<Menu, List<ItemMatchCondition>> menuMatchingMap;
+    private static MenuMatcher menuMatcher;
+
+    @BeforeAll
+    static void buildMenuMatcher() throws IOException {
+        menuMatchingMap = new EnumMap<>(Menu.class);
+        menuMatchingMap.put(Menu.SKYBLOCK_MENU, createMatchConditions(13, 48));
+        menuMatchingMap.put(Menu.FAST_TRAVEL, createMatchConditions(45, 53));
+        menuMatcher = new MenuMatcher(menuMatchingMap);
+    }
+
+    @Test
+    void getMenuForTitleFindsMenus() {
+        assertEquals(Menu.SKYBLOCK_MENU, menuMatcher.getMenuForTitle("SkyBlock Menu"));
+        assertEquals(Menu.FAST_TRAVEL, menuMatcher.getMenuForTitle("Fast Travel"));
+    }
+
+    @Test
+    void getMenuForTitleIgnoresOtherChests() {
+        assertEquals(Menu.NONE, menuMatcher.getMenuForTitle("Auction House"));
+        assertEquals(Menu.NONE, menuMatcher.getMenuForTitle("fast travel"));
+        assertEquals(Menu.NONE, menuMatcher.getMenuForTitle(""));
+        // Menus without match conditions can't be identified
+        assertEquals(Menu.NONE, menuMatcher.getMenuForTitle(Menu.PORHTAL.getMenuDisplayName()));
+    }
+
+    @Test
+    void getLastSlotIndexToCheckReturnsLastConditionSlot() {
+        assertEquals(48, menuMatcher.getLastSlotIndexToCheck(Menu.SKYBLOCK_MENU));
+        assertEquals(53, menuMatcher.getLastSlotIndexToCheck(Menu.FAST_TRAVEL));
+    }
+
+    @Test
+    void getMatchConditionsCannotBeModified() {
+        List<ItemMatchCondition> matchConditions = menuMatcher.getMatchConditions(Menu.FAST_TRAVEL);
+
+        assertEquals(2, matchConditions.size());
+        assertThrows(UnsupportedOperationException.class, () -> matchConditions.remove(0));
+    }
+
+    /**
+     * Compares {@link MenuMatcher#getMenuForTitle(String)} with the scan over the menu matching map it replaced in
+     * {@code GameChecks.determineOpenMenu}
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkTitleLookupAgainstScan() {
+        long lookupTime = Long.MAX_VALUE;
+        long scanTime = Long.MAX_VALUE;
+        int lookupSink = 0;
+        int scanSink = 0;
+
+        for (int i = 0; i < BENCHMARK_ROUNDS; i++) {
+            long startTime = System.nanoTime();
+
+            for (int j = 0; j < BENCHMARK_LOOKUPS; j++) {
+                lookupSink += menuMatcher.getMenuForTitle(CHEST_TITLES[j % CHEST_TITLES.length]).ordinal();
+            }
+
+            lookupTime = Math.min(lookupTime, System.nanoTime() - startTime);
+            startTime = System.nanoTime();
+
+            for (int j = 0; j < BENCHMARK_LOOKUPS; j++) {
+                scanSink += scanForMenu(CHEST_TITLES[j % CHEST_TITLES.length]).ordinal();
+            }
+
+            scanTime = Math.min(scanTime, System.nanoTime() - startTime);
+        }
+
+        System.out.printf("%d chest titles: hash lookup %.3f ms, scan %.3f ms%n", BENCHMARK_LOOKUPS,
+                lookupTime / 1_000_000D, scanTime / 1_000_000D);
+        assertEquals(scanSink, lookupSink);
+    }
+
+    private static Menu scanForMenu(String chestTitle) {
+        for (Menu menu : menuMatchingMap.keySet()) {
+            if (chestTitle.equals(menu.getMenuDisplayName())) {
+                return menu;
+            }
+        }
+
+        return Menu.NONE;
+    }
+
+    private static List<ItemMatchCondition> createMatchConditions(int... inventorySlotIndexes) throws IOException {
+        List<ItemMatchCondition> matchConditions = new ArrayList<>();
+
+        for (int inventorySlotIndex : inventorySlotIndexes) {
+            matchConditions.add(ItemMatchCondition.TYPE_ADAPTER.fromJson(String.format(
+                    "{\"itemName\": \"Item %d\", \"inventorySlotIndex\": %d}", inventorySlotIndex, inventorySlotIndex)));
+        }
+
+        return matchConditions;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ca.tirelesstraveler.fancywarpmenu.gui;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the parts of {@link BatchedQuadRenderer} that run without OpenGL. Textured quads are compiled into display
+ * lists, so only drawing queued with {@link BatchedQuadRenderer#addDrawCall(float, Runnable)} is drawn here.
+ */
+class BatchedQuadRendererTest {
+    private static final int DRAWS_PER_FRAME = 64;
+    private static final int WARM_UP_FRAMES = 20_000;
+    private static final int MEASURED_FRAMES = 1_000;
+
+    @Test
+    void drawsInZLevelOrder() {
+        BatchedQuadRenderer renderer = new BatchedQuadRenderer();
+        StringBuilder drawOrder = new StringBuilder();
+
+        renderer.addDrawCall(3, () -> drawOrder.append('c'));
+        renderer.addDrawCall(1, () -> drawOrder.append('a'));
+        renderer.addDrawCall(2, () -> drawOrder.append('b'));
+        renderer.addDrawCall(1, () -> drawOrder.append('A'));
+        renderer.draw();
+
+        // Draws at the same z level stay in the order they were queued
+        assertEquals("aAbc", drawOrder.toString());
+
+        renderer.draw();
+        assertEquals("aAbc", drawOrder.toString(), "Draws should only be drawn in the frame they were queued in");
+    }
+
+    /**
+     * Draws the same frame repeatedly, like an idle menu does, and checks that nothing is allocated once the
+     * renderer's draw pool has grown to fit the frame
+     */
+    @Test
+    void idleFramesDoNotAllocate() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        BatchedQuadRenderer renderer = new BatchedQuadRenderer();
+        int[] drawCount = new int[1];
+        Runnable drawCall = () -> drawCount[0]++;
+
+        assertTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        // Let the JIT compile the draw loop so the interpreter doesn't skew the measurement
+        for (int i = 0; i < WARM_UP_FRAMES; i++) {
+            drawFrame(renderer, drawCall);
+        }
+
+        // Reading the counter may allocate, so measure that on its own and subtract it
+        long startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        long counterBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+        startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            drawFrame(renderer, drawCall);
+        }
+
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes - counterBytes;
+
+        assertEquals((long) (WARM_UP_FRAMES + MEASURED_FRAMES) * DRAWS_PER_FRAME, drawCount[0]);
+        assertEquals(0, allocatedBytes, "Bytes allocated over " + MEASURED_FRAMES + " idle frames");
+    }
+
+    private static void drawFrame(BatchedQuadRenderer renderer, Runnable drawCall) {
+        for (int i = 0; i < DRAWS_PER_FRAME; i++) {
+            // Out of order z levels, like hovered buttons being drawn on top
+            renderer.addDrawCall(i % 3 == 0 ? DRAWS_PER_FRAME - i : i, drawCall);
+        }
+
+        renderer.draw();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ca.tirelesstraveler.fancywarpmenu.gui.textures;
+
+import net.minecraft.util.ResourceLocation;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextureVariantsTest {
+    private static final ResourceLocation TEXTURE_LOCATION =
+            new ResourceLocation("fancywarpmenu", "textures/gui/islands/Hub.png");
+
+    @Test
+    void variantLocationsRoundTrip() {
+        assertSame(TEXTURE_LOCATION, TextureVariants.getVariantLocation(TEXTURE_LOCATION, 0));
+        assertSame(TEXTURE_LOCATION, TextureVariants.getSourceLocation(TEXTURE_LOCATION));
+        assertEquals(0, TextureVariants.getDownscaleLevel(TEXTURE_LOCATION));
+
+        for (int downscaleLevel = 1; downscaleLevel <= TextureVariants.MAX_DOWNSCALE_LEVEL; downscaleLevel++) {
+            ResourceLocation variantLocation = TextureVariants.getVariantLocation(TEXTURE_LOCATION, downscaleLevel);
+
+            assertEquals(TEXTURE_LOCATION, TextureVariants.getSourceLocation(variantLocation));
+            assertEquals(downscaleLevel, TextureVariants.getDownscaleLevel(variantLocation));
+        }
+
+        assertEquals("textures/gui/islands/Hub.png@1/4",
+                TextureVariants.getVariantLocation(TEXTURE_LOCATION, 2).getResourcePath());
+    }
+
+    @Test
+    void selectDownscaleLevelNeverMagnifies() {
+        assertEquals(0, TextureVariants.selectDownscaleLevel(1024, 600));
+        assertEquals(1, TextureVariants.selectDownscaleLevel(1024, 512));
+        assertEquals(1, TextureVariants.selectDownscaleLevel(1024, 300));
+        assertEquals(2, TextureVariants.selectDownscaleLevel(1024, 256));
+        assertEquals(0, TextureVariants.selectDownscaleLevel(100, 100.5F));
+    }
+
+    @Test
+    void selectDownscaleLevelIsCapped() {
+        assertEquals(TextureVariants.MAX_DOWNSCALE_LEVEL, TextureVariants.selectDownscaleLevel(4096, 1));
+    }
+
+    @Test
+    void downscaleAveragesBlocks() {
+        int[] pixels = {
+                0xFF000000, 0xFF000000, 0xFFFFFFFF, 0xFFFFFFFF,
+                0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF,
+                0xFF102030, 0xFF102030, 0xFF408060, 0xFF000000,
+                0xFF102030, 0xFF102030, 0xFF000000, 0xFF000000
+        };
+
+        assertArrayEquals(new int[]{0xFF7F7F7F, 0xFFFFFFFF, 0xFF102030, 0xFF102018},
+                TextureVariants.downscale(pixels, 4, 4));
+    }
+
+    @Test
+    void downscaleWeightsColoursByAlpha() {
+        // One opaque red pixel and three transparent black ones shouldn't turn dark red
+        int[] pixels = {0xFFFF0000, 0x00000000, 0x00000000, 0x00000000};
+
+        assertArrayEquals(new int[]{0x3FFF0000}, TextureVariants.downscale(pixels, 2, 2));
+    }
+
+    @Test
+    void downscaleKeepsTransparentBlocksTransparent() {
+        assertArrayEquals(new int[]{0}, TextureVariants.downscale(new int[]{0x00FFFFFF, 0, 0, 0x00123456}, 2, 2));
+    }
+
+    @Test
+    void downscaleFoldsOddEdgesIntoLastBlock() {
+        int[] pixels = {0xFF000000, 0xFF000000, 0xFFFFFFFF};
+
+        // A 3 by 1 image becomes 1 by 1 with all three pixels averaged
+        assertArrayEquals(new int[]{0xFF555555}, TextureVariants.downscale(pixels, 3, 1));
+    }
+}
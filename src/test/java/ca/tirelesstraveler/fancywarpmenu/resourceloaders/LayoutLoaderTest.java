@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ca.tirelesstraveler.fancywarpmenu.resourceloaders;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LayoutLoaderTest {
+    private static final String ISLAND_TEXTURE_DIRECTORY = "/assets/fancywarpmenu/textures/gui/islands";
+    private static final int BENCHMARK_ROUNDS = 10;
+
+    @Test
+    void readPngDimensionsReadsImageHeader() throws IOException {
+        byte[] png = writeImage(new BufferedImage(37, 21, BufferedImage.TYPE_INT_ARGB), "png");
+
+        assertEquals(Pair.of(37, 21), LayoutLoader.readPngDimensions(new ByteArrayInputStream(png)));
+    }
+
+    @Test
+    void readPngDimensionsReturnsNullForOtherFormats() throws IOException {
+        byte[] bmp = writeImage(new BufferedImage(37, 21, BufferedImage.TYPE_INT_RGB), "bmp");
+
+        assertNull(LayoutLoader.readPngDimensions(new ByteArrayInputStream(bmp)));
+    }
+
+    @Test
+    void readPngDimensionsRejectsTruncatedHeader() throws IOException {
+        byte[] png = writeImage(new BufferedImage(37, 21, BufferedImage.TYPE_INT_ARGB), "png");
+        byte[] truncatedPng = new byte[20];
+        System.arraycopy(png, 0, truncatedPng, 0, truncatedPng.length);
+
+        assertThrows(IOException.class, () -> LayoutLoader.readPngDimensions(new ByteArrayInputStream(truncatedPng)));
+    }
+
+    @Test
+    void readImageDimensionsReadsOtherFormats() throws IOException {
+        byte[] bmp = writeImage(new BufferedImage(37, 21, BufferedImage.TYPE_INT_RGB), "bmp");
+
+        assertEquals(Pair.of(37, 21), LayoutLoader.readImageDimensions(new ByteArrayInputStream(bmp)));
+    }
+
+    @Test
+    void probedDimensionsMatchDecodedImages() throws IOException, URISyntaxException {
+        for (byte[] texture : readIslandTextures()) {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(texture));
+
+            assertEquals(Pair.of(image.getWidth(), image.getHeight()),
+                    LayoutLoader.readPngDimensions(new ByteArrayInputStream(texture)));
+        }
+    }
+
+    /**
+     * Compares reading the dimensions of the island textures from their headers with decoding them like
+     * {@code TextureUtil.readBufferedImage}, which {@code LayoutLoader} used to do for every texture in a layout
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkHeaderProbeAgainstFullDecode() throws IOException, URISyntaxException {
+        List<byte[]> textures = readIslandTextures();
+        long probeTime = Long.MAX_VALUE;
+        long decodeTime = Long.MAX_VALUE;
+
+        for (int i = 0; i < BENCHMARK_ROUNDS; i++) {
+            long startTime = System.nanoTime();
+
+            for (byte[] texture : textures) {
+                assertNotNull(LayoutLoader.readPngDimensions(new ByteArrayInputStream(texture)));
+            }
+
+            probeTime = Math.min(probeTime, System.nanoTime() - startTime);
+            startTime = System.nanoTime();
+
+            for (byte[] texture : textures) {
+                assertNotNull(ImageIO.read(new ByteArrayInputStream(texture)));
+            }
+
+            decodeTime = Math.min(decodeTime, System.nanoTime() - startTime);
+        }
+
+        System.out.printf("Dimensions of %d island textures: header probe %.3f ms, full decode %.3f ms%n",
+                textures.size(), probeTime / 1_000_000D, decodeTime / 1_000_000D);
+        assertTrue(probeTime < decodeTime);
+    }
+
+    private static byte[] writeImage(BufferedImage image, String formatName) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertTrue(ImageIO.write(image, formatName, outputStream));
+        return outputStream.toByteArray();
+    }
+
+    private static List<byte[]> readIslandTextures() throws IOException, URISyntaxException {
+        List<byte[]> textures = new ArrayList<>();
+
+        try (Stream<Path> texturePaths = Files.list(Paths.get(LayoutLoaderTest.class.getResource(ISLAND_TEXTURE_DIRECTORY).toURI()))) {
+            for (Path texturePath : (Iterable<Path>) texturePaths::iterator) {
+                textures.add(Files.readAllBytes(texturePath));
+            }
+        }
+
+        assertFalse(textures.isEmpty());
+        return textures;
+    }
+}
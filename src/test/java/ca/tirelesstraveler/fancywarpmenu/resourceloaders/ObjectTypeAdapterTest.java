@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ca.tirelesstraveler.fancywarpmenu.resourceloaders;
+
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Island;
+import ca.tirelesstraveler.fancywarpmenu.data.layout.Layout;
+import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.SkyBlockConstants;
+import ca.tirelesstraveler.fancywarpmenu.data.skyblockconstants.menu.ItemMatchCondition;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@link ObjectTypeAdapter}s of the resource data classes with the bundled resource files
+ */
+class ObjectTypeAdapterTest {
+    private static final String OVERWORLD_LAYOUT_PATH = "/assets/fancywarpmenu/data/layout.json";
+    private static final String RIFT_LAYOUT_PATH = "/assets/fancywarpmenu/data/riftLayout.json";
+    private static final String SKY_BLOCK_CONSTANTS_PATH = "/assets/fancywarpmenu/data/skyBlockConstants.jsonc";
+    private static final int WARM_UP_PARSES = 200;
+    private static final int BENCHMARK_PARSES = 1_000;
+
+    @Test
+    void layoutsRoundTrip() throws IOException {
+        assertRoundTrips(readResource(OVERWORLD_LAYOUT_PATH), Layout.class);
+        assertRoundTrips(readResource(RIFT_LAYOUT_PATH), Layout.class);
+    }
+
+    @Test
+    void skyBlockConstantsRoundTrip() throws IOException {
+        assertRoundTrips(readResource(SKY_BLOCK_CONSTANTS_PATH), SkyBlockConstants.class);
+    }
+
+    @Test
+    void unknownFieldsAreSkipped() throws IOException {
+        ItemMatchCondition matchCondition = ItemMatchCondition.TYPE_ADAPTER.fromJson(
+                "{\"unknownField\": {\"nested\": [1, 2]}, \"itemName\": \"Fast Travel\", \"inventorySlotIndex\": 4}");
+
+        assertEquals("Fast Travel", matchCondition.getItemName());
+        assertEquals(4, matchCondition.getInventorySlotIndex());
+    }
+
+    @Test
+    void outOfRangeValuesAreReportedWithPosition() {
+        JsonSyntaxException e = assertThrows(JsonSyntaxException.class,
+                () -> Island.TYPE_ADAPTER.fromJson("{\n  \"gridX\": 5,\n  \"gridY\": 500\n}"));
+
+        assertTrue(e.getMessage().startsWith("Island gridY must be between 0 and 36 but was 500"), e.getMessage());
+        assertTrue(e.getMessage().contains("line 3"), e.getMessage());
+    }
+
+    @Test
+    void unknownMenusAreRejected() {
+        JsonSyntaxException e = assertThrows(JsonSyntaxException.class,
+                () -> SkyBlockConstants.TYPE_ADAPTER.fromJson("{\"menuMatchingMap\": {\"NOT_A_MENU\": []}}"));
+
+        assertTrue(e.getMessage().startsWith("Unknown Menu \"NOT_A_MENU\""), e.getMessage());
+    }
+
+    /**
+     * Compares parsing the bundled resource files with the {@link ObjectTypeAdapter}s against parsing them with
+     * reflection, which the loaders used before
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkTypeAdaptersAgainstReflection() throws IOException {
+        Gson reflectiveGson = new GsonBuilder().create();
+
+        for (String resourcePath : new String[]{OVERWORLD_LAYOUT_PATH, RIFT_LAYOUT_PATH, SKY_BLOCK_CONSTANTS_PATH}) {
+            byte[] resourceBytes = readResource(resourcePath);
+            Class<?> type = resourcePath.equals(SKY_BLOCK_CONSTANTS_PATH) ? SkyBlockConstants.class : Layout.class;
+
+            System.out.printf("%s: type adapters %s, reflection %s%n", resourcePath,
+                    benchmarkParse(ResourceLoader.gson, resourceBytes, type),
+                    benchmarkParse(reflectiveGson, resourceBytes, type));
+        }
+    }
+
+    private static String benchmarkParse(Gson gson, byte[] resourceBytes, Class<?> type) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARM_UP_PARSES; i++) {
+            assertNotNull(parse(gson, resourceBytes, type));
+        }
+
+        long startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        long startTime = System.nanoTime();
+
+        for (int i = 0; i < BENCHMARK_PARSES; i++) {
+            assertNotNull(parse(gson, resourceBytes, type));
+        }
+
+        long parseTime = (System.nanoTime() - startTime) / BENCHMARK_PARSES;
+        long allocatedBytes = (threadMXBean.getThreadAllocatedBytes(threadId) - startBytes) / BENCHMARK_PARSES;
+
+        return String.format("%.1f us and %d bytes allocated per parse", parseTime / 1_000D, allocatedBytes);
+    }
+
+    private static void assertRoundTrips(byte[] resourceBytes, Class<?> type) {
+        String json = ResourceLoader.gson.toJson(parse(ResourceLoader.gson, resourceBytes, type));
+
+        assertEquals(json, ResourceLoader.gson.toJson(ResourceLoader.gson.fromJson(json, type)));
+    }
+
+    private static <T> T parse(Gson gson, byte[] resourceBytes, Class<T> type) {
+        // Lenient like the loaders, since .jsonc files have comments
+        return gson.fromJson(new InputStreamReader(new ByteArrayInputStream(resourceBytes), StandardCharsets.UTF_8), type);
+    }
+
+    private static byte[] readResource(String resourcePath) throws IOException {
+        try (InputStream stream = ObjectTypeAdapterTest.class.getResourceAsStream(resourcePath)) {
+            assertNotNull(stream, resourcePath);
+            return IOUtils.toByteArray(stream);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2023. TirelessTraveler
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ca.tirelesstraveler.fancywarpmenu.utils;
+
+import ca.tirelesstraveler.fancywarpmenu.utils.ChatMessageMatcher.MatchType;
+import net.minecraft.util.ChatComponentText;
+import net.minecraft.util.IChatComponent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatMessageMatcherTest {
+
+    @Test
+    void exactPatternsMustBeWholeMessage() {
+        ChatMessageMatcher<String> matcher = createMatcher("Warping...", MatchType.EXACT);
+
+        assertEquals("Warping...", matcher.match(new ChatComponentText("Warping...")));
+        assertNull(matcher.match(new ChatComponentText("Warping...!")));
+        assertNull(matcher.match(new ChatComponentText("Not Warping...")));
+        assertNull(matcher.match(new ChatComponentText("Warping")));
+    }
+
+    @Test
+    void prefixPatternsMustStartMessage() {
+        ChatMessageMatcher<String> matcher = createMatcher("Couldn't warp you", MatchType.PREFIX);
+
+        assertEquals("Couldn't warp you", matcher.match(new ChatComponentText("Couldn't warp you")));
+        assertEquals("Couldn't warp you", matcher.match(new ChatComponentText("Couldn't warp you! Try again later.")));
+        assertNull(matcher.match(new ChatComponentText("We Couldn't warp you")));
+    }
+
+    @Test
+    void containsPatternsMatchAnywhere() {
+        ChatMessageMatcher<String> matcher = createMatcher("unknown destination", MatchType.CONTAINS);
+
+        assertEquals("unknown destination", matcher.match(new ChatComponentText("Error: unknown destination!")));
+        assertNull(matcher.match(new ChatComponentText("Error: unknown")));
+    }
+
+    @Test
+    void formattingCodesAreSkipped() {
+        ChatMessageMatcher<String> matcher = createMatcher("Couldn't warp you", MatchType.PREFIX);
+
+        assertEquals("Couldn't warp you", matcher.match(new ChatComponentText("\u00a7cCouldn't \u00a7r\u00a7lwarp you")));
+    }
+
+    @Test
+    void trailingFormattingCodesDontBreakExactMatches() {
+        ChatMessageMatcher<String> matcher = createMatcher("Warping...", MatchType.EXACT);
+
+        assertEquals("Warping...", matcher.match(new ChatComponentText("\u00a77Warping...\u00a7r")));
+    }
+
+    @Test
+    void siblingsAreMatchedInOrder() {
+        ChatMessageMatcher<String> matcher = createMatcher("Couldn't warp you", MatchType.EXACT);
+        IChatComponent message = new ChatComponentText("Couldn't ");
+        IChatComponent sibling = new ChatComponentText("\u00a7cwarp");
+
+        sibling.appendSibling(new ChatComponentText(" you"));
+        message.appendSibling(sibling);
+
+        assertEquals("Couldn't warp you", matcher.match(message));
+    }
+
+    @Test
+    void patternsInsideOtherPatternsAreFound() {
+        ChatMessageMatcher<String> matcher = new ChatMessageMatcher<>();
+        matcher.addPattern("she", MatchType.EXACT, "she");
+        matcher.addPattern("hers", MatchType.CONTAINS, "hers");
+        matcher.addPattern("his", MatchType.PREFIX, "his");
+        matcher.compile();
+
+        // "hers" is reached through the failure link from "she"
+        assertEquals("hers", matcher.match(new ChatComponentText("ushers")));
+        assertEquals("she", matcher.match(new ChatComponentText("she")));
+        assertNull(matcher.match(new ChatComponentText("this")));
+    }
+
+    @Test
+    void longestExactPatternEndingTheMessageWins() {
+        ChatMessageMatcher<String> matcher = new ChatMessageMatcher<>();
+        matcher.addPattern("ab", MatchType.EXACT, "ab");
+        matcher.addPattern("abc", MatchType.EXACT, "abc");
+        matcher.compile();
+
+        assertEquals("ab", matcher.match(new ChatComponentText("ab")));
+        assertEquals("abc", matcher.match(new ChatComponentText("abc")));
+        assertNull(matcher.match(new ChatComponentText("abcd")));
+    }
+
+    @Test
+    void firstDuplicatePatternIsUsed() {
+        ChatMessageMatcher<String> matcher = new ChatMessageMatcher<>();
+        matcher.addPattern("Warping...", MatchType.PREFIX, "first");
+        matcher.addPattern("Warping...", MatchType.PREFIX, "second");
+        matcher.compile();
+
+        assertEquals("first", matcher.match(new ChatComponentText("Warping...")));
+    }
+
+    @Test
+    void matcherMustBeCompiledBeforeMatching() {
+        ChatMessageMatcher<String> matcher = new ChatMessageMatcher<>();
+        matcher.addPattern("Warping...", MatchType.EXACT, "Warping...");
+
+        assertThrows(IllegalStateException.class, () -> matcher.match(new ChatComponentText("Warping...")));
+        matcher.compile();
+        assertThrows(IllegalStateException.class, () -> matcher.addPattern("Warped", MatchType.EXACT, "Warped"));
+    }
+
+    @Test
+    void emptyPatternsAreRejected() {
+        ChatMessageMatcher<String> matcher = new ChatMessageMatcher<>();
+
+        assertThrows(IllegalArgumentException.class, () -> matcher.addPattern("", MatchType.CONTAINS, ""));
+    }
+
+    private static ChatMessageMatcher<String> createMatcher(String pattern, MatchType matchType) {
+        ChatMessageMatcher<String> matcher = new ChatMessageMatcher<>();
+        matcher.addPattern(pattern, matchType, pattern);
+        matcher.compile();
+        return matcher;
+    }
+}